@@ -3,6 +3,9 @@ package game.client;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 
+import game.common.BoardCodec;
+import game.common.Constants;
+
 /**
  * Client-side cache of the game state received from the server.
  * Stores the latest data for rendering the HUD.
@@ -45,6 +48,10 @@ public class ClientGameState {
     // Game over
     private JsonObject gameOverData;
 
+    // Set when a board delta could not be applied; cleared by a board_sync
+    private boolean boardResyncNeeded;
+    private boolean boardSyncRequested; // a sync_request is out for this resync
+
     // --- Phase ---
 
     public ClientPhase getPhase() {
@@ -74,10 +81,15 @@ public class ClientGameState {
         this.gridSize = payload.get("gridSize").getAsInt();
         this.opponentName = payload.get("opponentName").getAsString();
         this.yourShips = payload.getAsJsonArray("yourShips");
-        this.yourBoard = payload.getAsJsonObject("yourBoard");
+        this.yourBoard = BoardCodec.toGridBoard(payload.getAsJsonObject("yourBoard"));
 
         // Initialize empty enemy board
         this.enemyBoard = createEmptyBoard(gridSize);
+        if (payload.has("enemyBoardVersion")) {
+            enemyBoard.addProperty("version", payload.get("enemyBoardVersion").getAsInt());
+        }
+        this.boardResyncNeeded = false;
+        this.boardSyncRequested = false;
     }
 
     // --- Turn Updates ---
@@ -89,9 +101,7 @@ public class ClientGameState {
         if (payload.has("fleetStatus")) {
             this.fleetStatus = payload.getAsJsonArray("fleetStatus");
         }
-        if (payload.has("messages")) {
-            this.messages = payload.getAsJsonArray("messages");
-        }
+        applyMessages(payload);
     }
 
     public void applyWaitTurn(JsonObject payload) {
@@ -100,34 +110,111 @@ public class ClientGameState {
         if (payload.has("fleetStatus")) {
             this.fleetStatus = payload.getAsJsonArray("fleetStatus");
         }
-        if (payload.has("messages")) {
-            this.messages = payload.getAsJsonArray("messages");
-        }
+        applyMessages(payload);
     }
 
     // --- Attack Results ---
 
     public void applyAttackResult(JsonObject payload) {
         if (payload.has("enemyBoard")) {
-            this.enemyBoard = payload.getAsJsonObject("enemyBoard");
+            this.enemyBoard = applyBoardUpdate(enemyBoard, payload.getAsJsonObject("enemyBoard"));
         }
         if (payload.has("fleetStatus")) {
             this.fleetStatus = payload.getAsJsonArray("fleetStatus");
         }
-        if (payload.has("messages")) {
-            this.messages = payload.getAsJsonArray("messages");
-        }
+        applyMessages(payload);
     }
 
     public void applyIncomingAttack(JsonObject payload) {
         if (payload.has("yourBoard")) {
-            this.yourBoard = payload.getAsJsonObject("yourBoard");
+            this.yourBoard = applyBoardUpdate(yourBoard, payload.getAsJsonObject("yourBoard"));
         }
         if (payload.has("fleetStatus")) {
             this.fleetStatus = payload.getAsJsonArray("fleetStatus");
         }
-        if (payload.has("messages")) {
-            this.messages = payload.getAsJsonArray("messages");
+        applyMessages(payload);
+    }
+
+    /**
+     * Replaces both boards with the snapshots from a board_sync message.
+     */
+    public void applyBoardSync(JsonObject payload) {
+        this.yourBoard = BoardCodec.toGridBoard(payload.getAsJsonObject("yourBoard"));
+        this.enemyBoard = BoardCodec.toGridBoard(payload.getAsJsonObject("enemyBoard"));
+        this.boardResyncNeeded = false;
+        this.boardSyncRequested = false;
+    }
+
+    /**
+     * Returns true if a board delta could not be applied and the client
+     * should ask the server for full snapshots.
+     */
+    public boolean isBoardResyncNeeded() {
+        return boardResyncNeeded;
+    }
+
+    /**
+     * Returns true if a resync is needed and has not been asked for yet, and
+     * marks it as asked for. A board_sync (or a new game) ends the resync.
+     */
+    public boolean takeBoardSyncRequest() {
+        if (!boardResyncNeeded || boardSyncRequested) {
+            return false;
+        }
+        boardSyncRequested = true;
+        return true;
+    }
+
+    /**
+     * Applies a board update from the server. Snapshots (with a "grid" or
+     * "packed" cells) replace the board; deltas are applied in place if they were built
+     * against the version we hold, otherwise a resync is flagged.
+     *
+     * @return the board to keep
+     */
+    private JsonObject applyBoardUpdate(JsonObject current, JsonObject update) {
+        if (update.has("grid") || update.has("packed")) {
+            // Kept in grid form so later deltas can be applied in place
+            return BoardCodec.toGridBoard(update);
+        }
+        if (current == null || !current.has("version")
+                || current.get("version").getAsInt() != update.get("baseVersion").getAsInt()) {
+            boardResyncNeeded = true;
+            return current;
+        }
+
+        int size = current.get("size").getAsInt();
+        JsonArray grid = current.getAsJsonArray("grid");
+        JsonArray cells = update.getAsJsonArray("cells");
+        JsonArray states = update.getAsJsonArray("states");
+        for (int i = 0; i < cells.size(); i++) {
+            int index = cells.get(i).getAsInt();
+            grid.get(index / size).getAsJsonArray().set(index % size, states.get(i));
+        }
+        current.addProperty("version", update.get("version").getAsInt());
+        return current;
+    }
+
+    /**
+     * Updates the battle log from a server message. Payloads carrying a
+     * "messageSeq" only contain events newer than the last ones sent, so they
+     * are appended; otherwise the log is replaced.
+     */
+    private void applyMessages(JsonObject payload) {
+        if (!payload.has("messages")) {
+            return;
+        }
+        JsonArray incoming = payload.getAsJsonArray("messages");
+        if (!payload.has("messageSeq")) {
+            this.messages = incoming;
+            return;
+        }
+        if (messages == null) {
+            this.messages = new JsonArray();
+        }
+        messages.addAll(incoming);
+        while (messages.size() > Constants.MAX_RECENT_MESSAGES) {
+            messages.remove(0);
         }
     }
 
@@ -136,9 +223,7 @@ public class ClientGameState {
     public void applyGameOver(JsonObject payload) {
         this.phase = ClientPhase.GAME_OVER;
         this.gameOverData = payload;
-        if (payload.has("messages")) {
-            this.messages = payload.getAsJsonArray("messages");
-        }
+        applyMessages(payload);
     }
 
     // --- Play Again ---
@@ -166,6 +251,8 @@ public class ClientGameState {
         this.mode = null;
         this.gridSize = 0;
         this.availableModes = null;
+        this.boardResyncNeeded = false;
+        this.boardSyncRequested = false;
     }
 
     // --- Getters ---
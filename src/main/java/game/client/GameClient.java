@@ -3,14 +3,21 @@ package game.client;
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
 import java.security.PublicKey;
+import java.security.SecureRandom;
 import java.util.Base64;
+import java.util.EnumSet;
+import java.util.Set;
 
 import javax.crypto.SecretKey;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 
@@ -18,8 +25,12 @@ import game.client.render.BoardRenderer;
 import game.client.render.HudRenderer;
 import game.common.Box;
 import game.common.BoxCodec;
+import game.common.Capability;
 import game.common.Constants;
+import game.common.CryptoContext;
 import game.common.CryptoUtils;
+import game.common.JsonOutput;
+import game.common.MessageCompressor;
 import jakarta.websocket.ClientEndpoint;
 import jakarta.websocket.CloseReason;
 import jakarta.websocket.ContainerProvider;
@@ -37,8 +48,16 @@ public class GameClient {
 
     private Session session;
     private SecretKey aesKey;
+    private CryptoContext crypto;
     private boolean handshakeComplete = false;
+    private volatile boolean binaryWire = false; // set once the server confirms binary frames
+    private volatile MessageCompressor compressor; // set once the server confirms compression
     private String username;
+    private JsonObject serverHello; // kept in case a resumption is rejected
+    private volatile String resumptionTicket;
+    private volatile SecretKey resumptionKey;
+    private volatile boolean userQuit = false;
+    private StringBuilder frame; // output of the batch being dispatched; guarded by this
 
     final ClientGameState gameState = new ClientGameState();
     volatile boolean running = true;
@@ -54,7 +73,9 @@ public class GameClient {
     @OnMessage
     public void onMessage(String message) {
         try {
-            if (!handshakeComplete) {
+            // Plain JSON (never valid Base64) is a handshake reply, e.g. an
+            // error sent before the server could set up encryption
+            if (!handshakeComplete || message.startsWith("{")) {
                 handleHandshakeMessage(message);
             } else {
                 handleEncryptedMessage(message);
@@ -64,10 +85,27 @@ public class GameClient {
         }
     }
 
+    @OnMessage
+    public void onBinaryMessage(byte[] message) {
+        try {
+            byte[] decryptedBytes = open(message);
+            dispatch(BoxCodec.decodeBinary(decryptedBytes).getPayload());
+        } catch (Exception e) {
+            LOGGER.error("Error processing binary message from server.", e);
+        }
+    }
+
     @OnClose
     public void onClose(Session session, CloseReason reason) {
         LOGGER.info("Disconnected from server: {}", reason.getReasonPhrase());
         running = false;
+
+        MessageCompressor current = compressor;
+        if (current != null) {
+            LOGGER.debug("Compression: {} -> {} bytes sent, ratio {}", current.getRawBytes(),
+                    current.getSentBytes(), String.format("%.2f", current.getCompressionRatio()));
+            current.close();
+        }
     }
 
     @OnError
@@ -83,34 +121,112 @@ public class GameClient {
         String type = payload.has("type") ? payload.get("type").getAsString() : "";
 
         if (Constants.MSG_HANDSHAKE_RSA_KEY.equals(type)) {
+            this.serverHello = payload;
+            if (resumptionTicket != null && payload.has("resumeNonce")) {
+                sendResumption(payload);
+            } else {
+                sendKeyExchange(payload);
+            }
+        } else if (Constants.MSG_ERROR.equals(type)) {
+            // e.g. the server is too busy to take the handshake
+            print("\n  \033[31m" + payload.get("message").getAsString() + "\033[0m\n");
+        } else if (Constants.MSG_RESUME_RESULT.equals(type)) {
+            if (payload.get("accepted").getAsBoolean()) {
+                this.crypto = new CryptoContext(aesKey, false);
+                completeHandshake();
+            } else {
+                LOGGER.info("Resumption ticket rejected, performing full handshake.");
+                resumptionTicket = null;
+                sendKeyExchange(serverHello);
+            }
+        }
+    }
+
+    /**
+     * Presents the resumption ticket from the previous connection. The new
+     * session key is derived from the ticket's key and both sides' nonces.
+     */
+    private void sendResumption(JsonObject hello) throws Exception {
+        byte[] clientNonce = new byte[Constants.RESUME_NONCE_BYTES];
+        new SecureRandom().nextBytes(clientNonce);
+        byte[] serverNonce = Base64.getDecoder().decode(hello.get("resumeNonce").getAsString());
+        this.aesKey = CryptoUtils.deriveResumedKey(resumptionKey, clientNonce, serverNonce);
+
+        JsonObject resumeRequest = new JsonObject();
+        resumeRequest.addProperty("ticket", resumptionTicket);
+        resumeRequest.addProperty("resumeNonce", Base64.getEncoder().encodeToString(clientNonce));
+        addSessionOptions(resumeRequest);
+        session.getBasicRemote().sendText(new BoxCodec().encode(new Box(resumeRequest)));
+        // Wait for the resume_result before switching to encrypted messages
+    }
+
+    private void sendKeyExchange(JsonObject payload) throws Exception {
+        JsonObject handshakeResponse = new JsonObject();
+        handshakeResponse.addProperty("username", this.username);
+        if (payload.has("keyId")) {
+            handshakeResponse.add("keyId", payload.get("keyId"));
+        }
+
+        if (payload.has("ecdhPublicKey")) {
+            // Ephemeral X25519 agreement, both sides derive the key with HKDF
+            PublicKey serverEcdhPublicKey = CryptoUtils.stringToX25519PublicKey(
+                    payload.get("ecdhPublicKey").getAsString());
+            KeyPair ephemeral = CryptoUtils.generateX25519KeyPair();
+            byte[] sharedSecret = CryptoUtils.x25519Agree(ephemeral.getPrivate(), serverEcdhPublicKey);
+            this.aesKey = CryptoUtils.deriveSessionKey(sharedSecret,
+                    ephemeral.getPublic().getEncoded(), serverEcdhPublicKey.getEncoded());
+
+            handshakeResponse.addProperty("keyExchange", Constants.KEY_EXCHANGE_X25519);
+            handshakeResponse.addProperty("ecdhPublicKey",
+                    CryptoUtils.publicKeyToString(ephemeral.getPublic()));
+        } else {
+            // Older servers only offer RSA
             String serverRsaPublicKeyStr = payload.get("publicKey").getAsString();
             PublicKey serverRsaPublicKey = CryptoUtils.stringToPublicKey(serverRsaPublicKeyStr);
 
             this.aesKey = CryptoUtils.generateAESKey();
             byte[] encryptedAesKey = CryptoUtils.rsaEncrypt(aesKey.getEncoded(), serverRsaPublicKey);
-            String encryptedAesKeyString = Base64.getEncoder().encodeToString(encryptedAesKey);
+            handshakeResponse.addProperty("encryptedAesKey",
+                    Base64.getEncoder().encodeToString(encryptedAesKey));
+        }
+        this.crypto = new CryptoContext(aesKey, false);
+        addSessionOptions(handshakeResponse);
 
-            JsonObject handshakeResponse = new JsonObject();
-            handshakeResponse.addProperty("username", this.username);
-            handshakeResponse.addProperty("encryptedAesKey", encryptedAesKeyString);
+        Box responseBox = new Box(handshakeResponse);
+        session.getBasicRemote().sendText(new BoxCodec().encode(responseBox));
+        completeHandshake();
+    }
 
-            Box responseBox = new Box(handshakeResponse);
-            session.getBasicRemote().sendText(new BoxCodec().encode(responseBox));
+    /** Offers every optional feature this client supports; the server picks */
+    private static void addSessionOptions(JsonObject handshakeResponse) {
+        handshakeResponse.addProperty("protocolVersion", Constants.PROTOCOL_VERSION);
+        handshakeResponse.add("capabilities", Capability.toJson(EnumSet.allOf(Capability.class)));
+    }
 
-            handshakeComplete = true;
-            gameState.setPhase(ClientGameState.ClientPhase.HANDSHAKE);
-            LOGGER.info("Handshake complete. Secure connection established as [{}].", this.username);
-        }
+    private void completeHandshake() {
+        handshakeComplete = true;
+        gameState.setPhase(ClientGameState.ClientPhase.HANDSHAKE);
+        LOGGER.info("Handshake complete. Secure connection established as [{}].", this.username);
     }
 
     // --- Encrypted Message Handling ---
 
     private void handleEncryptedMessage(String message) throws Exception {
         byte[] encryptedBytes = Base64.getDecoder().decode(message);
-        byte[] decryptedBytes = CryptoUtils.aesDecrypt(encryptedBytes, aesKey);
-        String json = new String(decryptedBytes);
+        byte[] decryptedBytes = open(encryptedBytes);
+        String json = new String(decryptedBytes, StandardCharsets.UTF_8);
 
-        JsonObject payload = JsonParser.parseString(json).getAsJsonObject();
+        dispatch(JsonParser.parseString(json).getAsJsonObject());
+    }
+
+    /** Decrypts a server message and undoes compression once it is on */
+    private byte[] open(byte[] message) throws Exception {
+        byte[] plain = crypto.decrypt(message);
+        MessageCompressor current = compressor;
+        return current != null ? current.decompress(plain) : plain;
+    }
+
+    private void dispatch(JsonObject payload) {
         String type = payload.get("type").getAsString();
 
         switch (type) {
@@ -127,13 +243,53 @@ public class GameClient {
             case Constants.MSG_OPPONENT_DISCONNECTED -> handleOpponentDisconnected(payload);
             case Constants.MSG_PLAY_AGAIN_PROMPT -> handlePlayAgainPrompt(payload);
             case Constants.MSG_PLAY_AGAIN_WAITING -> handlePlayAgainWaiting(payload);
+            case Constants.MSG_BOARD_SYNC -> gameState.applyBoardSync(payload);
+            case Constants.MSG_BATCH -> dispatchBatch(payload);
             default -> LOGGER.warn("Unknown message type: {}", type);
         }
     }
 
+    /**
+     * Dispatches each message of a batch in order. Output is collected and
+     * written once at the end; anything before the last screen clear is
+     * dropped, so the terminal only shows the final state.
+     */
+    private void dispatchBatch(JsonObject payload) {
+        synchronized (this) {
+            frame = new StringBuilder(4096);
+        }
+        try {
+            for (JsonElement message : payload.getAsJsonArray("messages")) {
+                dispatch(message.getAsJsonObject());
+            }
+        } finally {
+            synchronized (this) {
+                String output = frame.toString();
+                frame = null;
+                System.out.print(output);
+                System.out.flush();
+            }
+        }
+    }
+
     // --- Message Handlers ---
 
     private void handleHandshakeComplete(JsonObject payload) {
+        // Capabilities the server enabled for this connection
+        Set<Capability> capabilities = payload.has("capabilities")
+                ? Capability.fromJson(payload.getAsJsonArray("capabilities"))
+                : EnumSet.noneOf(Capability.class);
+        LOGGER.info("Server protocol {} with {}", payload.get("protocolVersion").getAsInt(), capabilities);
+        this.binaryWire = capabilities.contains(Capability.BINARY_FRAMES);
+        if (capabilities.contains(Capability.COMPRESSION)) {
+            // Everything after the confirmation is compressed, in both directions
+            this.compressor = new MessageCompressor();
+        }
+        if (payload.has("ticket")) {
+            // Kept for a quick reconnect; the ticket holds this session's key
+            this.resumptionTicket = payload.get("ticket").getAsString();
+            this.resumptionKey = aesKey;
+        }
         String msg = payload.get("message").getAsString();
         print(HudRenderer.clearScreen());
         print("\n  " + msg + "\n");
@@ -180,6 +336,7 @@ public class GameClient {
 
     private void handleAttackResult(JsonObject payload) {
         gameState.applyAttackResult(payload);
+        requestBoardSyncIfNeeded();
 
         print(HudRenderer.clearScreen());
 
@@ -216,6 +373,7 @@ public class GameClient {
 
     private void handleIncomingAttack(JsonObject payload) {
         gameState.applyIncomingAttack(payload);
+        requestBoardSyncIfNeeded();
 
         String attackerName = payload.get("attackerName").getAsString();
         int hits = payload.get("hits").getAsInt();
@@ -281,14 +439,29 @@ public class GameClient {
     // --- Sending ---
 
     private void sendEncrypted(JsonObject payload) {
-        if (!handshakeComplete || aesKey == null) {
+        if (!handshakeComplete || crypto == null) {
             LOGGER.warn("Cannot send — handshake not complete.");
             return;
         }
         try {
-            String json = payload.toString();
-            byte[] encrypted = CryptoUtils.aesEncrypt(json.getBytes(), aesKey);
-            session.getBasicRemote().sendText(Base64.getEncoder().encodeToString(encrypted));
+            // Hold the context across encrypt and send so counters go out in order
+            synchronized (crypto) {
+                MessageCompressor current = compressor;
+                if (binaryWire) {
+                    byte[] plain = BoxCodec.encodeBinary(new Box(payload));
+                    if (current != null) {
+                        plain = current.compress(plain);
+                    }
+                    byte[] encrypted = crypto.encrypt(plain);
+                    session.getBasicRemote().sendBinary(ByteBuffer.wrap(encrypted));
+                    return;
+                }
+                JsonOutput json = JsonOutput.write(payload);
+                byte[] encrypted = current != null
+                        ? crypto.encrypt(current.compress(json.buffer(), 0, json.length()))
+                        : crypto.encrypt(json.buffer(), 0, json.length());
+                session.getBasicRemote().sendText(Base64.getEncoder().encodeToString(encrypted));
+            }
         } catch (Exception e) {
             LOGGER.error("Failed to send encrypted message.", e);
         }
@@ -320,6 +493,18 @@ public class GameClient {
         sendEncrypted(payload);
     }
 
+    /**
+     * Asks the server for full board snapshots if a delta could not be
+     * applied, once per resync.
+     */
+    private void requestBoardSyncIfNeeded() {
+        if (gameState.takeBoardSyncRequest()) {
+            JsonObject payload = new JsonObject();
+            payload.addProperty("type", Constants.MSG_SYNC_REQUEST);
+            sendEncrypted(payload);
+        }
+    }
+
     void sendForfeit() {
         JsonObject payload = new JsonObject();
         payload.addProperty("type", Constants.MSG_FORFEIT);
@@ -438,6 +623,7 @@ public class GameClient {
                     sendPlayAgain(true);
                 } else if (input.equalsIgnoreCase("no") || input.equalsIgnoreCase("n")) {
                     sendPlayAgain(false);
+                    userQuit = true;
                     running = false;
                 } else {
                     print("\n  \033[31mType 'yes' or 'no'.\033[0m\n");
@@ -455,7 +641,14 @@ public class GameClient {
 
     // --- Utility ---
 
-    private void print(String text) {
+    private synchronized void print(String text) {
+        if (frame != null) {
+            if (text.startsWith(HudRenderer.clearScreen())) {
+                frame.setLength(0);
+            }
+            frame.append(text);
+            return;
+        }
         System.out.print(text);
         System.out.flush();
     }
@@ -464,6 +657,26 @@ public class GameClient {
         this.username = username;
     }
 
+    /**
+     * True if the connection dropped without the player leaving and a
+     * resumption ticket is available for a quick reconnect.
+     */
+    boolean canResume() {
+        return !userQuit && resumptionTicket != null;
+    }
+
+    /**
+     * Creates a client for a new connection that resumes this client's
+     * session with its ticket instead of a full key exchange.
+     */
+    GameClient resumingClient() {
+        GameClient next = new GameClient();
+        next.username = username;
+        next.resumptionTicket = resumptionTicket;
+        next.resumptionKey = resumptionKey;
+        return next;
+    }
+
     // --- Main Entry Point ---
 
     public static void main(String[] args) {
@@ -500,23 +713,26 @@ public class GameClient {
             WebSocketContainer container = ContainerProvider.getWebSocketContainer();
             container.connectToServer(client, uri);
 
-            // Main input loop
-            while (client.running) {
-                if (!reader.ready()) {
-                    Thread.sleep(100);
-                    continue;
-                }
-
-                String input = reader.readLine();
-                if (input == null)
-                    break;
-                input = input.trim();
-
-                if (input.equalsIgnoreCase("exit") || input.equalsIgnoreCase("quit")) {
+            int reconnectAttempts = 0;
+            while (true) {
+                runInputLoop(reader, client);
+                if (!client.canResume() || reconnectAttempts >= Constants.RECONNECT_ATTEMPTS) {
                     break;
                 }
 
-                client.processInput(input);
+                // Unexpected disconnect: reconnect with the resumption ticket
+                reconnectAttempts++;
+                System.out.println("\n  Connection lost. Reconnecting (" + reconnectAttempts + "/"
+                        + Constants.RECONNECT_ATTEMPTS + ")...");
+                Thread.sleep(Constants.RECONNECT_DELAY_MS);
+                GameClient next = client.resumingClient();
+                try {
+                    container.connectToServer(next, uri);
+                    client = next;
+                    reconnectAttempts = 0;
+                } catch (Exception e) {
+                    LOGGER.warn("Reconnect failed: {}", e.getMessage());
+                }
             }
         } catch (Exception e) {
             System.err.println("\n  \033[31mConnection failed: " + e.getMessage() + "\033[0m");
@@ -525,4 +741,22 @@ public class GameClient {
 
         System.out.println("\n  Goodbye!\n");
     }
+
+    private static void runInputLoop(BufferedReader reader, GameClient client) throws Exception {
+        while (client.running) {
+            if (!reader.ready()) {
+                Thread.sleep(100);
+                continue;
+            }
+
+            String input = reader.readLine();
+            if (input == null || input.trim().equalsIgnoreCase("exit")
+                    || input.trim().equalsIgnoreCase("quit")) {
+                client.userQuit = true;
+                return;
+            }
+
+            client.processInput(input.trim());
+        }
+    }
 }
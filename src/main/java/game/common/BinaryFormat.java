@@ -0,0 +1,447 @@
+package game.common;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+import game.common.model.Coordinate;
+
+/**
+ * Compact binary form of a message payload, used by {@link BoxCodec} for
+ * binary WebSocket frames.
+ *
+ * A message starts with its "type" as a tag, followed by the remaining fields
+ * as an object. Keys, message types and enum names are written as one-byte
+ * indices into a shared dictionary, integers as zig-zag varints and board
+ * coordinates ("B7") as one packed byte. Anything else falls back to a
+ * length-prefixed UTF-8 string, so every JSON payload round-trips.
+ *
+ * The dictionary is append-only, so peers with different builds agree on
+ * every index they share; an index a peer does not know is rejected rather
+ * than decoded as some other string.
+ */
+final class BinaryFormat {
+
+    private static final int TAG_NULL = 0;
+    private static final int TAG_FALSE = 1;
+    private static final int TAG_TRUE = 2;
+    private static final int TAG_INT = 3;
+    private static final int TAG_DOUBLE = 4;
+    private static final int TAG_STRING = 5; // inline or dictionary string
+    private static final int TAG_COORD = 6;
+    private static final int TAG_ARRAY = 7;
+    private static final int TAG_OBJECT = 8;
+
+    // Deepest array/object nesting accepted when decoding (batches use ~5)
+    private static final int MAX_DEPTH = 16;
+
+    private BinaryFormat() {
+    }
+
+    static byte[] encode(JsonObject payload) {
+        return encode(payload, List.of());
+    }
+
+    /**
+     * Encodes a payload, copying in the cached encoding of any top-level
+     * field whose value is one of the fragments.
+     */
+    static byte[] encode(JsonObject payload, List<SharedFragment> fragments) {
+        Output out = new Output(128);
+        JsonElement type = payload.get("type");
+        boolean hasType = type != null && type.isJsonPrimitive();
+        writeString(out, hasType ? type.getAsString() : ""); // "" = no type tag
+
+        out.writeVarint(hasType ? payload.size() - 1 : payload.size());
+        writeFields(out, payload, hasType, fragments);
+        return out.toByteArray();
+    }
+
+    /**
+     * Encodes a payload in the form it takes nested inside another message,
+     * e.g. as an element of a batch's "messages" array.
+     */
+    static byte[] encodeNested(JsonObject payload, List<SharedFragment> fragments) {
+        Output out = new Output(128);
+        out.write(TAG_OBJECT);
+        out.writeVarint(payload.size());
+        writeFields(out, payload, false, fragments);
+        return out.toByteArray();
+    }
+
+    /**
+     * Encodes a single value, in the form it takes as a field of a message.
+     */
+    static byte[] encodeValue(JsonElement value) {
+        Output out = new Output(64);
+        writeValue(out, value);
+        return out.toByteArray();
+    }
+
+    /**
+     * Encodes {@code {"type": type, field: [elements]}} from elements already
+     * encoded by {@link #encodeNested}. The result is identical to
+     * {@link #encode} of the same envelope.
+     */
+    static byte[] encodeEnvelope(String type, String field, List<byte[]> elements) {
+        int size = 16;
+        for (byte[] element : elements) {
+            size += element.length;
+        }
+        Output out = new Output(size);
+        writeString(out, type);
+        out.writeVarint(1);
+        writeString(out, field);
+        out.write(TAG_ARRAY);
+        out.writeVarint(elements.size());
+        for (byte[] element : elements) {
+            out.write(element);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the data is not a valid message
+     */
+    static JsonObject decode(byte[] data) {
+        ByteBuffer in = ByteBuffer.wrap(data);
+        try {
+            JsonObject payload = new JsonObject();
+            String type = readString(in);
+            if (!type.isEmpty()) {
+                payload.addProperty("type", type);
+            }
+            readFields(in, payload, 0);
+            if (in.hasRemaining()) {
+                throw new IllegalArgumentException("Trailing bytes in binary message.");
+            }
+            return payload;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated binary message.", e);
+        }
+    }
+
+    // --- Encoding ---
+
+    private static void writeFields(Output out, JsonObject payload, boolean skipType,
+            List<SharedFragment> fragments) {
+        for (Map.Entry<String, JsonElement> entry : payload.entrySet()) {
+            if (skipType && entry.getKey().equals("type")) {
+                continue;
+            }
+            writeString(out, entry.getKey());
+            SharedFragment fragment = SharedFragment.find(fragments, entry.getValue());
+            if (fragment != null) {
+                out.write(fragment.binary());
+            } else {
+                writeValue(out, entry.getValue());
+            }
+        }
+    }
+
+    private static void writeValue(Output out, JsonElement value) {
+        if (value == null || value.isJsonNull()) {
+            out.write(TAG_NULL);
+        } else if (value.isJsonObject()) {
+            JsonObject obj = value.getAsJsonObject();
+            out.write(TAG_OBJECT);
+            out.writeVarint(obj.size());
+            for (Map.Entry<String, JsonElement> entry : obj.entrySet()) {
+                writeString(out, entry.getKey());
+                writeValue(out, entry.getValue());
+            }
+        } else if (value.isJsonArray()) {
+            JsonArray array = value.getAsJsonArray();
+            out.write(TAG_ARRAY);
+            out.writeVarint(array.size());
+            for (JsonElement element : array) {
+                writeValue(out, element);
+            }
+        } else {
+            writePrimitive(out, value.getAsJsonPrimitive());
+        }
+    }
+
+    private static void writePrimitive(Output out, JsonPrimitive value) {
+        if (value.isBoolean()) {
+            out.write(value.getAsBoolean() ? TAG_TRUE : TAG_FALSE);
+        } else if (value.isNumber()) {
+            Number number = value.getAsNumber();
+            if (number instanceof Integer || number instanceof Long
+                    || number instanceof Short || number instanceof Byte) {
+                out.write(TAG_INT);
+                out.writeZigzag(number.longValue());
+                return;
+            }
+            // Parsed JSON numbers are lazy; keep integral ones compact
+            try {
+                long whole = Long.parseLong(number.toString());
+                out.write(TAG_INT);
+                out.writeZigzag(whole);
+            } catch (NumberFormatException e) {
+                out.write(TAG_DOUBLE);
+                out.writeLong(Double.doubleToLongBits(number.doubleValue()));
+            }
+        } else {
+            String s = value.getAsString();
+            int coord = packCoordinate(s);
+            if (coord >= 0) {
+                out.write(TAG_COORD);
+                out.write(coord);
+            } else {
+                out.write(TAG_STRING);
+                writeString(out, s);
+            }
+        }
+    }
+
+    /**
+     * Writes a string as {@code index + 1} if it is in the dictionary, or as
+     * 0, a length and its UTF-8 bytes otherwise.
+     */
+    private static void writeString(Output out, String s) {
+        Integer index = DICTIONARY_INDEX.get(s);
+        if (index != null) {
+            out.writeVarint(index + 1);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeVarint(0);
+        out.writeVarint(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Returns the packed byte for a board coordinate in its display form, or
+     * -1 if the string is not exactly that form.
+     */
+    private static int packCoordinate(String s) {
+        if (s.length() < 2 || s.length() > 3) {
+            return -1;
+        }
+        int col = s.charAt(0) - 'A';
+        if (col < 0 || col >= Coordinate.MAX_GRID_SIZE) {
+            return -1;
+        }
+        int row = 0;
+        for (int i = 1; i < s.length(); i++) {
+            char ch = s.charAt(i);
+            if (ch < '0' || ch > '9' || (i == 1 && ch == '0')) {
+                return -1;
+            }
+            row = row * 10 + (ch - '0');
+        }
+        row--;
+        if (row < 0 || row >= Coordinate.MAX_GRID_SIZE) {
+            return -1;
+        }
+        return (row << 4) | col;
+    }
+
+    // --- Decoding ---
+
+    private static void readFields(ByteBuffer in, JsonObject obj, int depth) {
+        int count = readLength(in);
+        for (int i = 0; i < count; i++) {
+            String key = readString(in);
+            obj.add(key, readValue(in, depth));
+        }
+    }
+
+    /**
+     * Reads one value. {@code depth} is the number of arrays and objects the
+     * value sits in, capped so a hostile frame cannot exhaust the stack.
+     */
+    private static JsonElement readValue(ByteBuffer in, int depth) {
+        int tag = in.get();
+        if ((tag == TAG_ARRAY || tag == TAG_OBJECT) && depth >= MAX_DEPTH) {
+            throw new IllegalArgumentException("Binary message nested deeper than " + MAX_DEPTH + ".");
+        }
+        return switch (tag) {
+            case TAG_NULL -> JsonNull.INSTANCE;
+            case TAG_FALSE -> new JsonPrimitive(false);
+            case TAG_TRUE -> new JsonPrimitive(true);
+            case TAG_INT -> new JsonPrimitive(readZigzag(in));
+            case TAG_DOUBLE -> new JsonPrimitive(Double.longBitsToDouble(in.getLong()));
+            case TAG_STRING -> new JsonPrimitive(readString(in));
+            case TAG_COORD -> {
+                int packed = in.get() & 0xFF;
+                yield new JsonPrimitive(Coordinate.of(packed >>> 4, packed & 0x0F).toDisplayString());
+            }
+            case TAG_ARRAY -> {
+                int count = readLength(in);
+                JsonArray array = new JsonArray(count);
+                for (int i = 0; i < count; i++) {
+                    array.add(readValue(in, depth + 1));
+                }
+                yield array;
+            }
+            case TAG_OBJECT -> {
+                JsonObject obj = new JsonObject();
+                readFields(in, obj, depth + 1);
+                yield obj;
+            }
+            default -> throw new IllegalArgumentException("Unknown value tag: " + tag);
+        };
+    }
+
+    private static String readString(ByteBuffer in) {
+        long ref = readVarint(in);
+        if (ref > 0) {
+            if (ref > DICTIONARY.length || DICTIONARY[(int) ref - 1] == null) {
+                throw new IllegalArgumentException("Unknown dictionary entry: " + ref);
+            }
+            return DICTIONARY[(int) ref - 1];
+        }
+        int length = readLength(in);
+        String s = new String(in.array(), in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return s;
+    }
+
+    private static int readLength(ByteBuffer in) {
+        long length = readVarint(in);
+        if (length > in.remaining()) {
+            throw new IllegalArgumentException("Length " + length + " exceeds message size.");
+        }
+        return (int) length;
+    }
+
+    private static long readVarint(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint.");
+    }
+
+    private static long readZigzag(ByteBuffer in) {
+        long raw = readVarint(in);
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    // --- Dictionary ---
+
+    /**
+     * Strings written as indices (one byte for the first 127). The table is
+     * frozen: an entry's index is part of the wire format, so entries are
+     * never reordered or edited, only appended. A retired entry leaves a null
+     * slot, which no string encodes to and which fails to decode. Strings
+     * missing from it (e.g. a new enum constant) are still sent inline, just
+     * less compactly.
+     */
+    private static final String[] DICTIONARY = {
+            // 0-20: Message types
+            "handshake_rsa_key", "handshake_complete", "lobby_waiting", "lobby_mode_select", "game_start",
+            "your_turn", "wait_turn", "attack_result", "incoming_attack", "game_over", "error",
+            "opponent_disconnected", "play_again_prompt", "play_again_waiting", "board_sync", "batch",
+            "select_mode", "attack", "forfeit", "play_again", "sync_request",
+            // 21-81: Field names
+            "alive", "answer", "attackerName", "available", "baseVersion", null, "cells",
+            "cooldownRemaining", "coordinate", "description", "direction", "displayName", "enemyBoard",
+            "enemyBoardVersion", "fleetStatus", "gameOver", "grid", "gridSize", "health", "hitCells",
+            "hitRate", "hits", "id", "maxHealth", "message", "messageSeq", "messages", "misses", "mode",
+            "modes", "name", "needsDirection", "opponentName", "opponentStats", "outcome", "packed",
+            "shipCount", "shipsLost", "shotsFired", "shotsHit", "size", "states", "sunk", "sunkShips",
+            "target", "tileResults", "timeoutSeconds", "totalShips", "turnNumber", "turnsTaken", "type",
+            "username", "version", "weapon", "weapons", "winner", "youWon", "yourBoard", "yourShips",
+            "yourStats", null,
+            // 82-86: CellState
+            "EMPTY", "SHIP", "MISS", "HIT", "SUNK",
+            // 87-88: Direction
+            "HORIZONTAL", "VERTICAL",
+            // 89-100: WeaponType: name, display name, description
+            "STANDARD_SHOT", "Standard Shot", "1x1 single tile", "LINE_BARRAGE", "Line Barrage",
+            "1x3 line (H or V)", "CROSS_BOMBER", "Cross Bomber", "+ shape (5 tiles)", "NUKE", "Nuke",
+            "3\u00d73 square (9 tiles)",
+            // 101-115: ShipType: name, code, display name
+            "PATROL_BOAT", "PB", "Patrol Boat", "SUBMARINE", "SUB", "Submarine", "DESTROYER", "DS",
+            "Destroyer", "BATTLESHIP", "BATS", "Battleship", "CARRIER", "CARR", "Carrier",
+            // 116-121: GameMode: name, display name
+            "BLITZ", "Blitz", "STRIKE", "Strike", "WAR", "War",
+            // 122-125: Handshake confirmation fields
+            "capabilities", "protocolVersion", "ticket", "ticketLifetime",
+            // 126-130: Capability wire names
+            "delta_sync", "packed_boards", "binary_frames", "compression", "batching"
+    };
+
+    private static final Map<String, Integer> DICTIONARY_INDEX = new HashMap<>();
+
+    static {
+        for (int i = 0; i < DICTIONARY.length; i++) {
+            if (DICTIONARY[i] != null) {
+                DICTIONARY_INDEX.putIfAbsent(DICTIONARY[i], i);
+            }
+        }
+    }
+
+    /** Whether a string is written as a dictionary index */
+    static boolean inDictionary(String s) {
+        return DICTIONARY_INDEX.containsKey(s);
+    }
+
+    /**
+     * Growable byte buffer for encoding.
+     */
+    private static final class Output {
+        private byte[] buf;
+        private int count;
+
+        Output(int capacity) {
+            this.buf = new byte[capacity];
+        }
+
+        void write(int b) {
+            ensure(1);
+            buf[count++] = (byte) b;
+        }
+
+        void write(byte[] bytes) {
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buf, count, bytes.length);
+            count += bytes.length;
+        }
+
+        void writeVarint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        void writeZigzag(long value) {
+            writeVarint((value << 1) ^ (value >> 63));
+        }
+
+        void writeLong(long value) {
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                write((int) (value >>> shift));
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buf, count);
+        }
+
+        private void ensure(int extra) {
+            if (count + extra > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, count + extra));
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package game.common;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Base64;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import game.common.model.Board;
+import game.common.model.CellState;
+
+/**
+ * Compact "packed" encoding for full board snapshots.
+ *
+ * Cells are read in row-major order and run-length encoded. Each run is one
+ * byte: the high 3 bits hold the {@link CellState} ordinal and the low 5 bits
+ * hold the run length minus one (so runs of 1 to 32 cells). The bytes are
+ * sent as a Base64 string in the board's "packed" field instead of a "grid"
+ * of state names.
+ */
+public final class BoardCodec {
+
+    private static final CellState[] STATES = CellState.values();
+    private static final int MAX_RUN = 32;
+
+    private BoardCodec() {
+    }
+
+    /**
+     * Packs the board's cell states.
+     *
+     * @param fullView if false, SHIP cells are packed as EMPTY (fog of war)
+     * @return the Base64 encoded runs
+     */
+    public static String encode(Board board, boolean fullView) {
+        int cellCount = board.getSize() * board.getSize();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(32);
+
+        int runState = -1;
+        int runLength = 0;
+        for (int i = 0; i < cellCount; i++) {
+            CellState state = board.getCell(i);
+            if (!fullView && state == CellState.SHIP) {
+                state = CellState.EMPTY;
+            }
+            if (state.ordinal() == runState && runLength < MAX_RUN) {
+                runLength++;
+            } else {
+                if (runLength > 0) {
+                    out.write((runState << 5) | (runLength - 1));
+                }
+                runState = state.ordinal();
+                runLength = 1;
+            }
+        }
+        if (runLength > 0) {
+            out.write((runState << 5) | (runLength - 1));
+        }
+        return Base64.getEncoder().encodeToString(out.toByteArray());
+    }
+
+    /**
+     * Unpacks a board into one {@link CellState} ordinal per cell.
+     *
+     * @throws IllegalArgumentException if the data does not describe exactly
+     *                                  {@code size * size} valid cells
+     */
+    public static byte[] decode(String packed, int size) {
+        byte[] runs = Base64.getDecoder().decode(packed);
+        byte[] cells = new byte[size * size];
+
+        int pos = 0;
+        for (byte run : runs) {
+            int state = (run & 0xFF) >>> 5;
+            int length = (run & 0x1F) + 1;
+            if (state >= STATES.length || pos + length > cells.length) {
+                throw new IllegalArgumentException("Malformed packed board.");
+            }
+            for (int i = 0; i < length; i++) {
+                cells[pos++] = (byte) state;
+            }
+        }
+        if (pos != cells.length) {
+            throw new IllegalArgumentException(
+                    "Packed board has " + pos + " cells, expected " + cells.length + ".");
+        }
+        return cells;
+    }
+
+    /**
+     * Expands a packed board object ({@code size, version, packed}) into the
+     * grid form ({@code size, version, grid}) used by the client renderer.
+     * Boards without a "packed" field are returned unchanged.
+     */
+    public static JsonObject toGridBoard(JsonObject board) {
+        if (!board.has("packed")) {
+            return board;
+        }
+        int size = board.get("size").getAsInt();
+        byte[] cells = decode(board.get("packed").getAsString(), size);
+
+        JsonObject obj = new JsonObject();
+        obj.addProperty("size", size);
+        if (board.has("version")) {
+            obj.add("version", board.get("version"));
+        }
+        JsonArray rows = new JsonArray(size);
+        for (int r = 0; r < size; r++) {
+            JsonArray row = new JsonArray(size);
+            for (int c = 0; c < size; c++) {
+                row.add(STATES[cells[r * size + c]].name());
+            }
+            rows.add(row);
+        }
+        obj.add("grid", rows);
+        return obj;
+    }
+}
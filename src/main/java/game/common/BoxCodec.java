@@ -1,5 +1,7 @@
 package game.common;
 
+import java.util.List;
+
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 
@@ -11,6 +13,8 @@ import jakarta.websocket.EndpointConfig;
 
 /**
  * The codec's job is to convert a Box object to a JSON string and back.
+ * {@link #encodeBinary(Box)} and {@link #decodeBinary(byte[])} provide the
+ * compact binary form used once a connection negotiates binary frames.
  */
 public class BoxCodec implements Encoder.Text<Box>, Decoder.Text<Box> {
 
@@ -41,4 +45,45 @@ public class BoxCodec implements Encoder.Text<Box>, Decoder.Text<Box> {
     public void destroy() {
         // No cleanup needed for this simple codec
     }
+
+    /**
+     * Encodes a box in the compact binary format (see {@link BinaryFormat}).
+     */
+    public static byte[] encodeBinary(Box box) {
+        return BinaryFormat.encode(box.getPayload());
+    }
+
+    /**
+     * Encodes a box in the binary format, reusing the cached encodings of the
+     * shared fragments it contains.
+     */
+    public static byte[] encodeBinary(Box box, List<SharedFragment> fragments) {
+        return BinaryFormat.encode(box.getPayload(), fragments);
+    }
+
+    /**
+     * Encodes a payload in its binary form as an element of another message,
+     * for {@link #encodeBinaryEnvelope}.
+     */
+    public static byte[] encodeBinaryNested(JsonObject payload, List<SharedFragment> fragments) {
+        return BinaryFormat.encodeNested(payload, fragments);
+    }
+
+    /**
+     * Builds the binary form of {@code {"type": type, field: [elements]}}
+     * around elements from {@link #encodeBinaryNested}, without encoding
+     * them again.
+     */
+    public static byte[] encodeBinaryEnvelope(String type, String field, List<byte[]> elements) {
+        return BinaryFormat.encodeEnvelope(type, field, elements);
+    }
+
+    /**
+     * Decodes a box from the compact binary format.
+     *
+     * @throws IllegalArgumentException if the data is malformed
+     */
+    public static Box decodeBinary(byte[] data) {
+        return new Box(BinaryFormat.decode(data));
+    }
 }
@@ -0,0 +1,88 @@
+package game.common;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+
+/**
+ * Optional protocol features negotiated in the handshake.
+ *
+ * The client lists every capability it supports; the server answers with the
+ * ones it enables for the connection. Names the receiver does not know are
+ * ignored, so new features can be added on either side without breaking
+ * older peers.
+ */
+public enum Capability {
+    DELTA_SYNC("delta_sync"), // attack messages carry board deltas instead of snapshots
+    PACKED_BOARDS("packed_boards"), // board snapshots use the packed BoardCodec encoding
+    BINARY_FRAMES("binary_frames"), // BoxCodec binary in binary frames instead of Base64 text
+    COMPRESSION("compression"), // MessageCompressor before encryption
+    BATCHING("batching"); // turn transitions sent as one batch message
+
+    private final String wireName;
+
+    Capability(String wireName) {
+        this.wireName = wireName;
+    }
+
+    public String getWireName() {
+        return wireName;
+    }
+
+    /**
+     * Finds a capability by its wire name.
+     *
+     * @return the capability, or null if this version does not know it
+     */
+    public static Capability fromWireName(String wireName) {
+        for (Capability capability : values()) {
+            if (capability.wireName.equals(wireName)) {
+                return capability;
+            }
+        }
+        return null;
+    }
+
+    public static JsonArray toJson(Set<Capability> capabilities) {
+        JsonArray array = new JsonArray(capabilities.size());
+        for (Capability capability : capabilities) {
+            array.add(capability.wireName);
+        }
+        return array;
+    }
+
+    /** Reads a capability list, skipping names this version does not know */
+    public static EnumSet<Capability> fromJson(JsonArray array) {
+        EnumSet<Capability> capabilities = EnumSet.noneOf(Capability.class);
+        for (JsonElement element : array) {
+            Capability capability = fromWireName(element.getAsString());
+            if (capability != null) {
+                capabilities.add(capability);
+            }
+        }
+        return capabilities;
+    }
+
+    /**
+     * Parses a comma separated list of wire names, e.g. from a system
+     * property.
+     *
+     * @throws IllegalArgumentException if a name is not a known capability
+     */
+    public static EnumSet<Capability> parseList(String list) {
+        EnumSet<Capability> capabilities = EnumSet.noneOf(Capability.class);
+        for (String name : list.split(",")) {
+            if (name.isBlank()) {
+                continue;
+            }
+            Capability capability = fromWireName(name.trim());
+            if (capability == null) {
+                throw new IllegalArgumentException("Unknown capability: " + name.trim());
+            }
+            capabilities.add(capability);
+        }
+        return capabilities;
+    }
+}
@@ -13,10 +13,40 @@ public final class Constants {
     public static final String WEBSOCKET_PATH = "/websockets/battlegrid";
     public static final String DEFAULT_USERNAME = "Player";
     public static final int TURN_TIMEOUT_SECONDS = 60;
+    public static final int BOARD_POOL_SIZE = 4; // default ready boards kept per game mode
+
+    // --- Server Keys ---
+    public static final String SERVER_KEY_FILE = "battlegrid-server.keys"; // RSA + X25519 key pairs
+    public static final int SERVER_KEY_MAX_AGE_DAYS = 30; // rotated after this
+
+    // --- Handshake Workers ---
+    public static final int HANDSHAKE_QUEUE_CAPACITY = 256; // waiting handshakes before new ones are rejected
+    public static final int HANDSHAKE_BACKLOG_LIMIT = 16; // messages held per connection behind its handshake
+
+    // --- Protocol Version (negotiated in the handshake, see Capability) ---
+    public static final int PROTOCOL_VERSION = 2; // handshake carries a version and capability list
+    public static final int MIN_PROTOCOL_VERSION = 2; // oldest client protocol accepted; older clients send no version
+
+    // --- Key Exchange (chosen by the client in the handshake) ---
+    public static final String KEY_EXCHANGE_RSA = "rsa"; // AES key sent RSA-encrypted
+    public static final String KEY_EXCHANGE_X25519 = "x25519"; // ECDH + HKDF-derived AES key
+
+    // --- Session Resumption ---
+    public static final int TICKET_LIFETIME_SECONDS = 600; // how long a resumption ticket is accepted
+    public static final int TICKET_KEY_ROTATION_SECONDS = 3600; // how often the ticket key changes
+    public static final int RESUME_NONCE_BYTES = 16;
+    public static final int RECONNECT_ATTEMPTS = 3; // client retries after an unexpected disconnect
+    public static final int RECONNECT_DELAY_MS = 2000;
+
+    // --- Compression (negotiated in the handshake, applied before encryption) ---
+    public static final int COMPRESSION_THRESHOLD_BYTES = 256; // smaller messages are sent raw
+    public static final int COMPRESSION_LEVEL = 1; // Deflater.BEST_SPEED
+    public static final int MAX_MESSAGE_BYTES = 1 << 20; // inflate limit per message
 
     // --- Message Types: Server → Client ---
     public static final String MSG_HANDSHAKE_RSA_KEY = "handshake_rsa_key";
     public static final String MSG_HANDSHAKE_COMPLETE = "handshake_complete";
+    public static final String MSG_RESUME_RESULT = "resume_result";
     public static final String MSG_LOBBY_WAITING = "lobby_waiting";
     public static final String MSG_LOBBY_MODE_SELECT = "lobby_mode_select";
     public static final String MSG_GAME_START = "game_start";
@@ -29,13 +59,17 @@ public final class Constants {
     public static final String MSG_OPPONENT_DISCONNECTED = "opponent_disconnected";
     public static final String MSG_PLAY_AGAIN_PROMPT = "play_again_prompt";
     public static final String MSG_PLAY_AGAIN_WAITING = "play_again_waiting";
+    public static final String MSG_BOARD_SYNC = "board_sync";
+    public static final String MSG_BATCH = "batch"; // several messages in one frame, in order
 
     // --- Message Types: Client → Server ---
     public static final String MSG_SELECT_MODE = "select_mode";
     public static final String MSG_ATTACK = "attack";
     public static final String MSG_FORFEIT = "forfeit";
     public static final String MSG_PLAY_AGAIN = "play_again";
+    public static final String MSG_SYNC_REQUEST = "sync_request";
 
     // --- Message Log ---
     public static final int MAX_RECENT_MESSAGES = 5;
+    public static final int EVENT_LOG_CAPACITY = 20; // events kept per game on the server
 }
@@ -0,0 +1,113 @@
+package game.common;
+
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+
+/**
+ * Per-connection encryption state - AES-GCM with a counter nonce.
+ *
+ * Each side keeps one encrypt and one decrypt cipher for the lifetime of the
+ * connection instead of looking up a new cipher per message; a message only
+ * re-initializes the cipher with its nonce.
+ * Nonces are a 4-byte direction prefix (server or client) followed by a
+ * 64-bit send counter, so the two directions never reuse a nonce under the
+ * shared key. Each encrypted message is the 8-byte counter followed by the
+ * GCM ciphertext and tag. Received counters must strictly increase, which
+ * rejects replayed or reordered messages.
+ *
+ * Callers that send from several threads should synchronize on the context
+ * across encrypt and send, so messages leave in counter order.
+ */
+public class CryptoContext {
+
+	private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+	private static final int TAG_BITS = 128;
+	private static final int NONCE_BYTES = 12;
+	private static final int COUNTER_BYTES = 8;
+
+	private static final int SERVER_PREFIX = 0x53525652; // "SRVR"
+	private static final int CLIENT_PREFIX = 0x434C4E54; // "CLNT"
+
+	private final SecretKey key;
+	private final int sendPrefix;
+	private final int receivePrefix;
+
+	private final Cipher encryptCipher;
+	private final Cipher decryptCipher;
+	private final byte[] encryptNonce = new byte[NONCE_BYTES];
+	private final byte[] decryptNonce = new byte[NONCE_BYTES];
+
+	private long sendCounter;
+	private long lastReceivedCounter = -1;
+
+	/**
+	 * @param key        the shared AES session key
+	 * @param serverSide true for the server end of the connection
+	 * @throws GeneralSecurityException if AES-GCM is not available
+	 */
+	public CryptoContext(SecretKey key, boolean serverSide) throws GeneralSecurityException {
+		this.key = key;
+		this.sendPrefix = serverSide ? SERVER_PREFIX : CLIENT_PREFIX;
+		this.receivePrefix = serverSide ? CLIENT_PREFIX : SERVER_PREFIX;
+		this.encryptCipher = Cipher.getInstance(TRANSFORMATION);
+		this.decryptCipher = Cipher.getInstance(TRANSFORMATION);
+		ByteBuffer.wrap(encryptNonce).putInt(sendPrefix);
+		ByteBuffer.wrap(decryptNonce).putInt(receivePrefix);
+	}
+
+	/**
+	 * Encrypts one outgoing message.
+	 *
+	 * @return the counter followed by the ciphertext and tag
+	 * @throws GeneralSecurityException if encryption fails
+	 */
+	public byte[] encrypt(byte[] plaintext) throws GeneralSecurityException {
+		return encrypt(plaintext, 0, plaintext.length);
+	}
+
+	/**
+	 * Encrypts {@code length} bytes of {@code plaintext} starting at
+	 * {@code offset}, e.g. from a reused serialization buffer.
+	 *
+	 * @return the counter followed by the ciphertext and tag
+	 * @throws GeneralSecurityException if encryption fails
+	 */
+	public synchronized byte[] encrypt(byte[] plaintext, int offset, int length) throws GeneralSecurityException {
+		long counter = sendCounter++;
+		ByteBuffer.wrap(encryptNonce).putLong(4, counter);
+		encryptCipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, encryptNonce));
+
+		byte[] out = new byte[COUNTER_BYTES + encryptCipher.getOutputSize(length)];
+		ByteBuffer.wrap(out).putLong(counter);
+		encryptCipher.doFinal(plaintext, offset, length, out, COUNTER_BYTES);
+		return out;
+	}
+
+	/**
+	 * Decrypts and authenticates one incoming message.
+	 *
+	 * @throws AEADBadTagException      if the message was tampered with
+	 * @throws GeneralSecurityException if the counter was already seen or the
+	 *                                  message is malformed
+	 */
+	public synchronized byte[] decrypt(byte[] message) throws GeneralSecurityException {
+		if (message.length < COUNTER_BYTES + TAG_BITS / 8) {
+			throw new GeneralSecurityException("Encrypted message too short.");
+		}
+		long counter = ByteBuffer.wrap(message).getLong();
+		if (counter <= lastReceivedCounter) {
+			throw new GeneralSecurityException("Replayed or reordered message: " + counter);
+		}
+
+		ByteBuffer.wrap(decryptNonce).putLong(4, counter);
+		decryptCipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, decryptNonce));
+		byte[] plaintext = decryptCipher.doFinal(message, COUNTER_BYTES, message.length - COUNTER_BYTES);
+		lastReceivedCounter = counter;
+		return plaintext;
+	}
+}
@@ -6,12 +6,15 @@ import java.security.KeyFactory;
 import java.security.KeyPair;
 import java.security.KeyPairGenerator;
 import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
 import java.security.PublicKey;
 import java.security.spec.X509EncodedKeySpec;
 import java.util.Base64;
 
 import javax.crypto.Cipher;
+import javax.crypto.KeyAgreement;
 import javax.crypto.KeyGenerator;
+import javax.crypto.Mac;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
 
@@ -68,6 +71,124 @@ public class CryptoUtils {
 		return cipher.doFinal(data);
 	}
 
+	// X25519 Methods
+
+	/**
+	 * Generates an X25519 key pair for elliptic-curve Diffie-Hellman.
+	 *
+	 * @return a KeyPair object containing the X25519 public and private key.
+	 * @throws NoSuchAlgorithmException if X25519 is not available.
+	 */
+	public static KeyPair generateX25519KeyPair() throws NoSuchAlgorithmException {
+		return KeyPairGenerator.getInstance("X25519").generateKeyPair();
+	}
+
+	/**
+	 * Converts a Base64-encoded string to an X25519 PublicKey object.
+	 *
+	 * @param keyString the Base64-encoded (X.509) public key string.
+	 * @return the PublicKey object.
+	 * @throws GeneralSecurityException if a conversion error occurs.
+	 */
+	public static PublicKey stringToX25519PublicKey(String keyString) throws GeneralSecurityException {
+		byte[] keyBytes = Base64.getDecoder().decode(keyString);
+		return KeyFactory.getInstance("X25519").generatePublic(new X509EncodedKeySpec(keyBytes));
+	}
+
+	/**
+	 * Computes the X25519 shared secret between our private key and the peer's
+	 * public key.
+	 *
+	 * @return the 32-byte shared secret.
+	 * @throws GeneralSecurityException if the key agreement fails.
+	 */
+	public static byte[] x25519Agree(PrivateKey privateKey, PublicKey peerPublicKey)
+			throws GeneralSecurityException {
+		KeyAgreement agreement = KeyAgreement.getInstance("X25519");
+		agreement.init(privateKey);
+		agreement.doPhase(peerPublicKey, true);
+		return agreement.generateSecret();
+	}
+
+	/**
+	 * Derives the AES session key from an X25519 shared secret with
+	 * HKDF-SHA256. Both public keys are used as salt so the key is bound to
+	 * this exchange.
+	 *
+	 * @param sharedSecret    the X25519 shared secret.
+	 * @param clientPublicKey the client's encoded public key.
+	 * @param serverPublicKey the server's encoded public key.
+	 * @return a 256-bit AES key.
+	 * @throws GeneralSecurityException if HMAC-SHA256 is not available.
+	 */
+	public static SecretKey deriveSessionKey(byte[] sharedSecret, byte[] clientPublicKey,
+			byte[] serverPublicKey) throws GeneralSecurityException {
+		byte[] keyBytes = hkdfSha256(sharedSecret, concat(clientPublicKey, serverPublicKey),
+				"battlegrid session key".getBytes(), 32);
+		return new SecretKeySpec(keyBytes, "AES");
+	}
+
+	/**
+	 * Derives a fresh AES session key when a connection is resumed from a
+	 * ticket. Nonces from both sides are mixed in, so a resumed connection
+	 * never reuses the previous connection's key (and GCM nonces).
+	 *
+	 * @param resumedSessionKey the session key stored in the resumption ticket.
+	 * @param clientNonce       random bytes sent by the client with the ticket.
+	 * @param serverNonce       random bytes sent by the server in its hello.
+	 * @return a 256-bit AES key.
+	 * @throws GeneralSecurityException if HMAC-SHA256 is not available.
+	 */
+	public static SecretKey deriveResumedKey(SecretKey resumedSessionKey, byte[] clientNonce, byte[] serverNonce)
+			throws GeneralSecurityException {
+		byte[] keyBytes = hkdfSha256(resumedSessionKey.getEncoded(), concat(clientNonce, serverNonce),
+				"battlegrid resumption".getBytes(), 32);
+		return new SecretKeySpec(keyBytes, "AES");
+	}
+
+	private static byte[] concat(byte[] first, byte[] second) {
+		byte[] out = new byte[first.length + second.length];
+		System.arraycopy(first, 0, out, 0, first.length);
+		System.arraycopy(second, 0, out, first.length, second.length);
+		return out;
+	}
+
+	/**
+	 * HKDF (RFC 5869) with HMAC-SHA256: extract, then expand to the requested
+	 * length.
+	 *
+	 * @param inputKey the input keying material.
+	 * @param salt     the salt (may be empty).
+	 * @param info     context and application specific information.
+	 * @param length   number of bytes to derive (at most 255 * 32).
+	 * @return the derived key material.
+	 * @throws GeneralSecurityException if HMAC-SHA256 is not available.
+	 */
+	public static byte[] hkdfSha256(byte[] inputKey, byte[] salt, byte[] info, int length)
+			throws GeneralSecurityException {
+		if (length <= 0 || length > 255 * 32) {
+			throw new IllegalArgumentException("Invalid HKDF output length: " + length);
+		}
+		Mac mac = Mac.getInstance("HmacSHA256");
+		mac.init(new SecretKeySpec(salt.length == 0 ? new byte[32] : salt, "HmacSHA256"));
+		byte[] prk = mac.doFinal(inputKey);
+
+		mac.init(new SecretKeySpec(prk, "HmacSHA256"));
+		byte[] out = new byte[length];
+		byte[] block = new byte[0];
+		int written = 0;
+		for (int i = 1; written < length; i++) {
+			mac.update(block);
+			mac.update(info);
+			mac.update((byte) i);
+			block = mac.doFinal();
+			int n = Math.min(block.length, length - written);
+			System.arraycopy(block, 0, out, written, n);
+			written += n;
+		}
+		return out;
+	}
+
 	// AES Methods
 
 	/**
@@ -0,0 +1,157 @@
+package game.common;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.Strictness;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Streams a message straight into a reusable UTF-8 byte buffer.
+ *
+ * Replaces {@code payload.toString().getBytes()} on the send path: the JSON
+ * is written by a {@link JsonWriter} through a UTF-8 writer into a per-thread
+ * buffer, so no intermediate String or byte array is created per message.
+ * The output is identical to {@link JsonObject#toString()}.
+ *
+ * The instance returned by {@link #write(JsonObject)} belongs to the calling
+ * thread and is overwritten by its next call, so the bytes must be used
+ * (encrypted) before then. Bytes that are kept, e.g. cached for several
+ * recipients, come from {@link #serialize(JsonObject, List)} or {@link #wrap(byte[])}
+ * instead.
+ */
+public final class JsonOutput {
+
+    private static final int INITIAL_CAPACITY = 512;
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024; // don't pin buffers after a huge message
+
+    private static final ThreadLocal<JsonOutput> POOL = ThreadLocal.withInitial(JsonOutput::new);
+
+    // Same output as JsonElement.toString(): nulls kept, no HTML escaping
+    private static final Gson GSON = new GsonBuilder()
+            .serializeNulls()
+            .disableHtmlEscaping()
+            .setStrictness(Strictness.LENIENT)
+            .create();
+
+    private Buffer bytes;
+    private Writer utf8;
+
+    private JsonOutput() {
+        allocate();
+    }
+
+    private JsonOutput(byte[] bytes) {
+        this.bytes = new Buffer(bytes);
+    }
+
+    /**
+     * Serializes the payload into this thread's buffer.
+     *
+     * @return the pooled output holding the UTF-8 JSON
+     */
+    public static JsonOutput write(JsonObject payload) {
+        JsonOutput out = POOL.get();
+        out.reset();
+        out.append(payload, List.of());
+        return out;
+    }
+
+    /**
+     * Serializes the payload into a new buffer that is not reused, copying
+     * in the cached text of any top-level field whose value is one of the
+     * fragments.
+     */
+    public static JsonOutput serialize(JsonObject payload, List<SharedFragment> fragments) {
+        JsonOutput out = new JsonOutput();
+        out.append(payload, fragments);
+        return out;
+    }
+
+    /**
+     * Wraps UTF-8 JSON that is already encoded, without copying it.
+     */
+    public static JsonOutput wrap(byte[] json) {
+        return new JsonOutput(json);
+    }
+
+    /** Backing array; valid bytes are {@code [0, length())} */
+    public byte[] buffer() {
+        return bytes.array();
+    }
+
+    public int length() {
+        return bytes.size();
+    }
+
+    /** Copies the written bytes, mainly for tests */
+    public byte[] toByteArray() {
+        return bytes.toByteArray();
+    }
+
+    private void append(JsonObject payload, List<SharedFragment> fragments) {
+        try {
+            JsonWriter writer = new JsonWriter(utf8);
+            if (fragments.isEmpty()) {
+                GSON.toJson(payload, writer);
+            } else {
+                writer.beginObject();
+                for (Map.Entry<String, JsonElement> entry : payload.entrySet()) {
+                    writer.name(entry.getKey());
+                    SharedFragment fragment = SharedFragment.find(fragments, entry.getValue());
+                    if (fragment != null) {
+                        writer.jsonValue(fragment.json());
+                    } else {
+                        GSON.toJson(entry.getValue(), writer);
+                    }
+                }
+                writer.endObject();
+            }
+            writer.flush();
+        } catch (IOException e) {
+            // Only in-memory streams are involved
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void reset() {
+        if (bytes.array().length > MAX_RETAINED_CAPACITY) {
+            allocate();
+        } else {
+            bytes.reset();
+        }
+    }
+
+    private void allocate() {
+        bytes = new Buffer(INITIAL_CAPACITY);
+        utf8 = new OutputStreamWriter(bytes, StandardCharsets.UTF_8);
+    }
+
+    /** ByteArrayOutputStream that exposes its array instead of copying it */
+    private static final class Buffer extends ByteArrayOutputStream {
+
+        Buffer(int capacity) {
+            super(capacity);
+        }
+
+        Buffer(byte[] contents) {
+            super(0);
+            buf = contents;
+            count = contents.length;
+        }
+
+        byte[] array() {
+            return buf;
+        }
+    }
+}
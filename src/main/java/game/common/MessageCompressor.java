@@ -0,0 +1,170 @@
+package game.common;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Per-connection message compression, applied before encryption.
+ *
+ * Once a connection negotiates compression, every encrypted message starts
+ * with a one-byte flag: 0 for a raw message, 1 for a deflated one. Deflated
+ * messages carry the 4-byte uncompressed length after the flag, then raw
+ * deflate data. Messages below the threshold, or that do not shrink, are
+ * sent raw.
+ *
+ * The deflater and inflater are kept for the lifetime of the connection.
+ * Sent byte counts are tracked so the connection's compression ratio can be
+ * reported.
+ */
+public class MessageCompressor {
+
+    private static final byte RAW = 0;
+    private static final byte DEFLATED = 1;
+    private static final int HEADER_BYTES = 5;
+
+    private final int threshold;
+    private final int maxMessageBytes;
+    private final Deflater deflater;
+    private final Inflater inflater = new Inflater(true);
+    private byte[] scratch = new byte[1024];
+
+    // Outgoing stats
+    private long messages;
+    private long compressedMessages;
+    private long rawBytes;
+    private long sentBytes;
+
+    /**
+     * @param threshold       messages shorter than this are never compressed
+     * @param level           deflate level (1 = fastest, 9 = smallest)
+     * @param maxMessageBytes largest uncompressed size accepted on decompress
+     */
+    public MessageCompressor(int threshold, int level, int maxMessageBytes) {
+        this.threshold = threshold;
+        this.maxMessageBytes = maxMessageBytes;
+        this.deflater = new Deflater(level, true);
+    }
+
+    public MessageCompressor() {
+        this(Constants.COMPRESSION_THRESHOLD_BYTES, Constants.COMPRESSION_LEVEL,
+                Constants.MAX_MESSAGE_BYTES);
+    }
+
+    /**
+     * Frames one outgoing message, deflating it if that pays off.
+     *
+     * @return the flag byte followed by the raw or deflated message
+     */
+    public synchronized byte[] compress(byte[] data, int offset, int length) {
+        messages++;
+        rawBytes += length;
+
+        if (length >= threshold) {
+            deflater.reset();
+            deflater.setInput(data, offset, length);
+            deflater.finish();
+            int written = 0;
+            // Give up as soon as the output is no smaller than the input
+            while (!deflater.finished() && written < length) {
+                if (written == scratch.length) {
+                    scratch = Arrays.copyOf(scratch, scratch.length * 2);
+                }
+                written += deflater.deflate(scratch, written, scratch.length - written);
+            }
+
+            if (deflater.finished() && HEADER_BYTES + written < 1 + length) {
+                byte[] out = new byte[HEADER_BYTES + written];
+                ByteBuffer.wrap(out).put(DEFLATED).putInt(length);
+                System.arraycopy(scratch, 0, out, HEADER_BYTES, written);
+                compressedMessages++;
+                sentBytes += out.length;
+                return out;
+            }
+        }
+
+        byte[] out = new byte[1 + length];
+        out[0] = RAW;
+        System.arraycopy(data, offset, out, 1, length);
+        sentBytes += out.length;
+        return out;
+    }
+
+    public byte[] compress(byte[] data) {
+        return compress(data, 0, data.length);
+    }
+
+    /**
+     * Unframes one incoming message.
+     *
+     * @throws IllegalArgumentException if the frame is malformed or would
+     *                                  inflate beyond the size limit
+     */
+    public synchronized byte[] decompress(byte[] frame) {
+        if (frame.length == 0) {
+            throw new IllegalArgumentException("Empty compressed frame.");
+        }
+        if (frame[0] == RAW) {
+            return Arrays.copyOfRange(frame, 1, frame.length);
+        }
+        if (frame[0] != DEFLATED || frame.length < HEADER_BYTES) {
+            throw new IllegalArgumentException("Unknown compression flag: " + frame[0]);
+        }
+
+        int length = ByteBuffer.wrap(frame, 1, 4).getInt();
+        if (length < 0 || length > maxMessageBytes) {
+            throw new IllegalArgumentException("Compressed message too large: " + length);
+        }
+        byte[] out = new byte[length];
+        inflater.reset();
+        inflater.setInput(frame, HEADER_BYTES, frame.length - HEADER_BYTES);
+        try {
+            int read = 0;
+            while (read < length && !inflater.finished()) {
+                int n = inflater.inflate(out, read, length - read);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                read += n;
+            }
+            if (read != length || !inflater.finished()) {
+                throw new IllegalArgumentException("Compressed message length mismatch.");
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Corrupt compressed message.", e);
+        }
+        return out;
+    }
+
+    public synchronized long getMessageCount() {
+        return messages;
+    }
+
+    public synchronized long getCompressedMessageCount() {
+        return compressedMessages;
+    }
+
+    public synchronized long getRawBytes() {
+        return rawBytes;
+    }
+
+    public synchronized long getSentBytes() {
+        return sentBytes;
+    }
+
+    /**
+     * Uncompressed bytes per byte sent (higher is better; 1.0 before any
+     * message was sent).
+     */
+    public synchronized double getCompressionRatio() {
+        return sentBytes == 0 ? 1.0 : (double) rawBytes / sentBytes;
+    }
+
+    /** Releases the native zlib state */
+    public synchronized void close() {
+        deflater.end();
+        inflater.end();
+    }
+}
@@ -0,0 +1,57 @@
+package game.common;
+
+import java.util.List;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * A field value that several different messages carry, e.g. the tile
+ * results of an attack that both players are told about.
+ *
+ * Messages hold the same {@link #value()} instance. When a message is
+ * encoded with its fragments ({@link JsonOutput#serialize(JsonObject, List)},
+ * {@link BoxCodec#encodeBinary(Box, List)}), a top-level field holding that
+ * instance is not serialized again: the fragment's cached bytes are copied
+ * in. Each form is encoded once, on first use.
+ *
+ * The value must not be modified after it is first encoded.
+ */
+public final class SharedFragment {
+
+    private final JsonElement value;
+    private String json; // JSON text, encoded on first use
+    private byte[] binary; // BinaryFormat value, encoded on first use
+
+    public SharedFragment(JsonElement value) {
+        this.value = value;
+    }
+
+    public JsonElement value() {
+        return value;
+    }
+
+    synchronized String json() {
+        if (json == null) {
+            json = value.toString();
+        }
+        return json;
+    }
+
+    synchronized byte[] binary() {
+        if (binary == null) {
+            binary = BinaryFormat.encodeValue(value);
+        }
+        return binary;
+    }
+
+    /** The fragment whose value is this exact instance, or null */
+    static SharedFragment find(List<SharedFragment> fragments, JsonElement value) {
+        for (SharedFragment fragment : fragments) {
+            if (fragment.value == value) {
+                return fragment;
+            }
+        }
+        return null;
+    }
+}
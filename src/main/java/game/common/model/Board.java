@@ -1,30 +1,62 @@
 package game.common.model;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
 /**
  * Represents one player's game board.
  * Contains the grid state and all placed ships.
+ *
+ * The grid is stored as one bitset per non-empty cell state (SHIP, HIT, MISS,
+ * SUNK), indexed row-major as {@code row * size + col}. A cell with no bit set
+ * is EMPTY. Exactly one bit is set per non-empty cell.
  */
 public class Board {
 
     private final int size;
-    private final CellState[][] grid;
     private final List<Ship> ships;
 
+    // One bitset per CellState (EMPTY is the absence of any bit)
+    private final long[] shipBits;
+    private final long[] hitBits;
+    private final long[] missBits;
+    private final long[] sunkBits;
+
+    // Cells occupied by, or adjacent to, a placed ship (1-tile gap rule)
+    private final long[] haloBits;
+
+    // Cell index → 1-based slot in ships (0 = no ship)
+    private final short[] shipSlots;
+
+    // Fleet counters, updated on placement and sink events
+    private final int[] aliveByType;
+    private final int[] aliveByWeapon;
+    private int aliveShips;
+    private int fleetVersion; // bumped whenever the alive counters change
+
+    // Cell index → version at which the cell last changed state
+    private final int[] cellVersions;
+    private int version;
+
+    // Ship sunk by the most recent single-cell attack (null if none)
+    private Ship lastSunkShip;
+
     public Board(int size) {
         this.size = size;
-        this.grid = new CellState[size][size];
         this.ships = new ArrayList<>();
 
-        // Initialize all cells to EMPTY
-        for (int r = 0; r < size; r++) {
-            for (int c = 0; c < size; c++) {
-                grid[r][c] = CellState.EMPTY;
-            }
-        }
+        int words = wordCount(size);
+        this.shipBits = new long[words];
+        this.hitBits = new long[words];
+        this.missBits = new long[words];
+        this.sunkBits = new long[words];
+        this.haloBits = new long[words];
+        this.shipSlots = new short[size * size];
+        this.cellVersions = new int[size * size];
+        this.aliveByType = new int[ShipType.values().length];
+        this.aliveByWeapon = new int[WeaponType.values().length];
     }
 
     public int getSize() {
@@ -32,15 +64,59 @@ public class Board {
     }
 
     public CellState getCell(int row, int col) {
-        return grid[row][col];
+        return getCell(checkedIndex(row, col));
     }
 
     public CellState getCell(Coordinate coord) {
-        return grid[coord.row()][coord.col()];
+        return getCell(checkedIndex(coord.row(), coord.col()));
     }
 
+    /**
+     * Returns the state of the cell at the given row-major index.
+     */
+    public CellState getCell(int index) {
+        if (test(shipBits, index))
+            return CellState.SHIP;
+        if (test(hitBits, index))
+            return CellState.HIT;
+        if (test(missBits, index))
+            return CellState.MISS;
+        if (test(sunkBits, index))
+            return CellState.SUNK;
+        return CellState.EMPTY;
+    }
+
+    /**
+     * Sets the state of a water cell, e.g. to mark a MISS. Ship cells only
+     * change through {@link #placeShip}, {@link #removeLastShip} and
+     * attacks, which keep the gap and ship lookup in step with the grid.
+     *
+     * @throws IllegalArgumentException if the state is SHIP or a ship covers
+     *                                  the cell
+     */
     public void setCell(Coordinate coord, CellState state) {
-        grid[coord.row()][coord.col()] = state;
+        int index = checkedIndex(coord.row(), coord.col());
+        if (state == CellState.SHIP || shipSlots[index] != 0) {
+            throw new IllegalArgumentException("Ship cells change through placeShip and attack: " + coord);
+        }
+        setCell(index, state);
+    }
+
+    private void setCell(int index, CellState state) {
+        touch(index);
+        clear(shipBits, index);
+        clear(hitBits, index);
+        clear(missBits, index);
+        clear(sunkBits, index);
+        switch (state) {
+            case SHIP -> set(shipBits, index);
+            case HIT -> set(hitBits, index);
+            case MISS -> set(missBits, index);
+            case SUNK -> set(sunkBits, index);
+            case EMPTY -> {
+                // No bit for empty water
+            }
+        }
     }
 
     public List<Ship> getShips() {
@@ -52,63 +128,169 @@ public class Board {
      */
     public void placeShip(Ship ship) {
         ships.add(ship);
-        for (Coordinate cell : ship.getOccupiedCells()) {
-            grid[cell.row()][cell.col()] = CellState.SHIP;
+        short slot = (short) ships.size();
+        for (int i = 0; i < ship.getSegmentCount(); i++) {
+            int index = packedIndex(ship.getSegment(i));
+            setCell(index, CellState.SHIP);
+            shipSlots[index] = slot;
+            markHalo(ship.getSegmentRow(i), ship.getSegmentCol(i));
+        }
+        if (!ship.isSunk()) {
+            adjustAlive(ship.getType(), 1);
         }
     }
 
+    /**
+     * Takes the most recently placed ship off the board, e.g. when a
+     * placement search backtracks. Its cells become EMPTY again, and the gap
+     * around it is freed except where it still borders another ship.
+     *
+     * @return the removed ship
+     * @throws IllegalStateException if no ship is placed or the last one has
+     *                               been attacked
+     */
+    public Ship removeLastShip() {
+        if (ships.isEmpty()) {
+            throw new IllegalStateException("No ship to remove.");
+        }
+        Ship ship = ships.get(ships.size() - 1);
+        for (int i = 0; i < ship.getSegmentCount(); i++) {
+            if (!test(shipBits, packedIndex(ship.getSegment(i)))) {
+                throw new IllegalStateException("Cannot remove " + ship.getId() + " after it was attacked.");
+            }
+        }
+
+        ships.remove(ships.size() - 1);
+        for (int i = 0; i < ship.getSegmentCount(); i++) {
+            int index = packedIndex(ship.getSegment(i));
+            setCell(index, CellState.EMPTY);
+            shipSlots[index] = 0;
+        }
+        for (int i = 0; i < ship.getSegmentCount(); i++) {
+            unmarkHalo(ship.getSegmentRow(i), ship.getSegmentCol(i));
+        }
+        adjustAlive(ship.getType(), -1);
+        return ship;
+    }
+
     /**
      * Returns the ship at the given coordinate, if any.
      */
     public Optional<Ship> getShipAt(Coordinate coord) {
-        return ships.stream()
-                .filter(s -> s.occupies(coord))
-                .findFirst();
+        if (!coord.isWithinBounds(size)) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(getShipAt(cellIndex(coord.row(), coord.col())));
+    }
+
+    /**
+     * Returns the ship covering the given row-major cell index, or null.
+     */
+    public Ship getShipAt(int index) {
+        int slot = shipSlots[index];
+        return slot == 0 ? null : ships.get(slot - 1);
     }
 
     /**
      * Applies an attack at the given coordinate.
-     * 
+     *
      * @return the resulting CellState (HIT, MISS, or SUNK)
+     * @throws IndexOutOfBoundsException if the coordinate is off the board
      */
     public CellState attack(Coordinate coord) {
-        CellState current = getCell(coord);
+        return attack(checkedIndex(coord.row(), coord.col()));
+    }
 
-        switch (current) {
-            case EMPTY -> {
-                setCell(coord, CellState.MISS);
-                return CellState.MISS;
+    /**
+     * Applies an attack at the given row-major cell index.
+     *
+     * @return the resulting CellState (HIT, MISS, or SUNK)
+     */
+    public CellState attack(int index) {
+        lastSunkShip = null;
+
+        // Already attacked cells — return current state (no double-attack)
+        if (!test(shipBits, index)) {
+            if (test(hitBits, index) || test(missBits, index) || test(sunkBits, index)) {
+                return getCell(index);
             }
-            case SHIP -> {
-                setCell(coord, CellState.HIT);
-                Optional<Ship> ship = getShipAt(coord);
-                if (ship.isPresent()) {
-                    ship.get().hit(coord);
-                    if (ship.get().isSunk()) {
-                        // Mark all cells of the sunk ship
-                        for (Coordinate c : ship.get().getOccupiedCells()) {
-                            setCell(c, CellState.SUNK);
-                        }
-                        return CellState.SUNK;
-                    }
+            set(missBits, index);
+            touch(index);
+            return CellState.MISS;
+        }
+
+        clear(shipBits, index);
+        set(hitBits, index);
+        touch(index);
+        Ship ship = getShipAt(index);
+        if (ship != null) {
+            ship.hitSegment(ship.segmentIndexOf(index / size, index % size));
+            if (ship.isSunk()) {
+                adjustAlive(ship.getType(), -1);
+                lastSunkShip = ship;
+                // Mark all cells of the sunk ship
+                for (int i = 0; i < ship.getSegmentCount(); i++) {
+                    setCell(packedIndex(ship.getSegment(i)), CellState.SUNK);
                 }
-                return CellState.HIT;
+                return CellState.SUNK;
             }
-            // Already attacked cells — return current state (no double-attack)
-            case HIT, MISS, SUNK -> {
-                return current;
+        }
+        return CellState.HIT;
+    }
+
+    /**
+     * Applies an attack to every cell set in the mask.
+     * Untouched water is marked MISS in bulk; only ship cells are resolved one
+     * by one. Previously attacked cells are left unchanged. Per-tile outcomes
+     * and sink order are not reported, so weapon resolution, which needs
+     * both, attacks its footprint cell by cell.
+     *
+     * @param mask a cell mask built with {@link #cellMask(List)}
+     * @return the number of ship segments struck by this attack
+     */
+    public int attack(long[] mask) {
+        int struck = 0;
+        for (int w = 0; w < mask.length; w++) {
+            long occupied = shipBits[w] | hitBits[w] | missBits[w] | sunkBits[w];
+            long missed = mask[w] & ~occupied;
+            missBits[w] |= missed;
+            while (missed != 0) {
+                touch((w << 6) + Long.numberOfTrailingZeros(missed));
+                missed &= missed - 1;
             }
-            default -> {
-                return current;
+
+            long targets = mask[w] & shipBits[w];
+            while (targets != 0) {
+                int index = (w << 6) + Long.numberOfTrailingZeros(targets);
+                targets &= targets - 1;
+                attack(index);
+                struck++;
             }
         }
+        return struck;
+    }
+
+    /**
+     * Returns the ship sunk by the most recent single-cell {@code attack}
+     * call, or null if that call did not sink a ship. Re-attacking an
+     * already sunk ship is not a sink event.
+     */
+    public Ship getLastSunkShip() {
+        return lastSunkShip;
     }
 
     /**
      * Returns true if all ships on this board have been sunk.
      */
     public boolean allShipsSunk() {
-        return ships.stream().allMatch(Ship::isSunk);
+        return aliveShips == 0;
+    }
+
+    /**
+     * Returns the number of ships on this board that are still afloat.
+     */
+    public int getAliveShipCount() {
+        return aliveShips;
     }
 
     /**
@@ -121,22 +303,23 @@ public class Board {
             if (!cell.isWithinBounds(size)) {
                 return false;
             }
-            // Check overlap
-            if (grid[cell.row()][cell.col()] != CellState.EMPTY) {
+        }
+        return canPlaceShip(cellMask(cells));
+    }
+
+    /**
+     * Mask variant of {@link #canPlaceShip(List)} for in-bounds cells.
+     * Rejects any overlap with a placed ship or the 1-tile gap around it.
+     * Attacked water does not block placement.
+     *
+     * @param mask a cell mask built with {@link #cellMask(List)} or
+     *             {@link #rectangleMask(int, int, int, int, long[])}
+     */
+    public boolean canPlaceShip(long[] mask) {
+        for (int w = 0; w < mask.length; w++) {
+            if ((mask[w] & haloBits[w]) != 0) {
                 return false;
             }
-            // Check 1-tile gap from existing ships
-            for (int dr = -1; dr <= 1; dr++) {
-                for (int dc = -1; dc <= 1; dc++) {
-                    int nr = cell.row() + dr;
-                    int nc = cell.col() + dc;
-                    if (nr >= 0 && nr < size && nc >= 0 && nc < size) {
-                        if (grid[nr][nc] == CellState.SHIP) {
-                            return false;
-                        }
-                    }
-                }
-            }
         }
         return true;
     }
@@ -145,8 +328,171 @@ public class Board {
      * Counts how many ships of a given type are still alive (not sunk).
      */
     public long aliveShipsOfType(ShipType type) {
-        return ships.stream()
-                .filter(s -> s.getType() == type && !s.isSunk())
-                .count();
+        return aliveByType[type.ordinal()];
+    }
+
+    /**
+     * Counts how many alive ships provide the given weapon.
+     */
+    public int aliveShipsWithWeapon(WeaponType weapon) {
+        return aliveByWeapon[weapon.ordinal()];
+    }
+
+    /**
+     * Returns a counter that changes every time a ship is placed or sunk.
+     * Lets callers cache values derived from the fleet counters.
+     */
+    public int getFleetVersion() {
+        return fleetVersion;
+    }
+
+    /**
+     * Returns the board's state version. It increases every time a cell
+     * changes state, so two equal versions mean identical grids.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Writes the index of every cell that changed state after the given
+     * version into {@code out}, in row-major order.
+     *
+     * @param sinceVersion a version previously returned by {@link #getVersion()}
+     * @param out          buffer of at least {@code size * size} entries
+     * @return the number of changed cells written
+     */
+    public int changedCellsSince(int sinceVersion, int[] out) {
+        int count = 0;
+        for (int i = 0; i < cellVersions.length; i++) {
+            if (cellVersions[i] > sinceVersion) {
+                out[count++] = i;
+            }
+        }
+        return count;
+    }
+
+    private void touch(int index) {
+        cellVersions[index] = ++version;
+    }
+
+    private void adjustAlive(ShipType type, int delta) {
+        aliveByType[type.ordinal()] += delta;
+        aliveByWeapon[type.getWeapon().ordinal()] += delta;
+        aliveShips += delta;
+        fleetVersion++;
+    }
+
+    // --- Cell Masks ---
+
+    /**
+     * Returns the row-major index of a cell on this board. The cell must be
+     * in bounds: an out-of-range column would alias into the next row.
+     */
+    public int cellIndex(int row, int col) {
+        return row * size + col;
+    }
+
+    private int checkedIndex(int row, int col) {
+        if (row < 0 || row >= size || col < 0 || col >= size) {
+            throw new IndexOutOfBoundsException(
+                    "Cell (" + row + ", " + col + ") is outside a " + size + "x" + size + " board");
+        }
+        return cellIndex(row, col);
+    }
+
+    /**
+     * Returns the row-major index of a packed coordinate (see
+     * {@link Coordinate#pack(int, int)}).
+     */
+    public int packedIndex(int packed) {
+        return cellIndex(Coordinate.unpackRow(packed), Coordinate.unpackCol(packed));
+    }
+
+    /**
+     * Builds a cell mask for this board from in-bounds coordinates.
+     */
+    public long[] cellMask(List<Coordinate> cells) {
+        long[] mask = new long[shipBits.length];
+        for (Coordinate cell : cells) {
+            set(mask, cellIndex(cell.row(), cell.col()));
+        }
+        return mask;
+    }
+
+    /**
+     * Writes the mask of a {@code rows} x {@code cols} block of in-bounds
+     * cells starting at the given corner into {@code out}, replacing its
+     * previous contents. Lets callers test many placements without
+     * allocating a mask each time.
+     *
+     * @param out a mask previously returned by {@link #cellMask(List)}
+     * @return {@code out}
+     */
+    public long[] rectangleMask(int startRow, int startCol, int rows, int cols, long[] out) {
+        Arrays.fill(out, 0L);
+        for (int r = startRow; r < startRow + rows; r++) {
+            for (int c = startCol; c < startCol + cols; c++) {
+                set(out, cellIndex(r, c));
+            }
+        }
+        return out;
+    }
+
+    private void markHalo(int row, int col) {
+        for (int dr = -1; dr <= 1; dr++) {
+            for (int dc = -1; dc <= 1; dc++) {
+                int nr = row + dr;
+                int nc = col + dc;
+                if (nr >= 0 && nr < size && nc >= 0 && nc < size) {
+                    set(haloBits, cellIndex(nr, nc));
+                }
+            }
+        }
+    }
+
+    /**
+     * Clears the gap bits around a cell whose ship was removed, keeping those
+     * that still touch a remaining ship.
+     */
+    private void unmarkHalo(int row, int col) {
+        for (int dr = -1; dr <= 1; dr++) {
+            for (int dc = -1; dc <= 1; dc++) {
+                int nr = row + dr;
+                int nc = col + dc;
+                if (nr >= 0 && nr < size && nc >= 0 && nc < size && !touchesShip(nr, nc)) {
+                    clear(haloBits, cellIndex(nr, nc));
+                }
+            }
+        }
+    }
+
+    private boolean touchesShip(int row, int col) {
+        for (int dr = -1; dr <= 1; dr++) {
+            for (int dc = -1; dc <= 1; dc++) {
+                int nr = row + dr;
+                int nc = col + dc;
+                if (nr >= 0 && nr < size && nc >= 0 && nc < size && shipSlots[cellIndex(nr, nc)] != 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static int wordCount(int size) {
+        return (size * size + 63) >>> 6;
+    }
+
+    private static boolean test(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private static void set(long[] bits, int index) {
+        bits[index >>> 6] |= 1L << index;
+    }
+
+    private static void clear(long[] bits, int index) {
+        bits[index >>> 6] &= ~(1L << index);
     }
 }
@@ -4,15 +4,81 @@ package game.common.model;
  * An (row, col) coordinate on the game board.
  * Display format: column letter + row number, e.g. "B5" = column B (1), row 5
  * (4).
+ *
+ * Coordinates are immutable. Every in-bounds cell of the largest supported
+ * grid is pre-built once; {@link #of(int, int)} returns those shared instances
+ * (with their display strings already computed) instead of allocating.
  */
 public class Coordinate {
 
+    /** Largest supported grid dimension (columns A–P, rows 1–16) */
+    public static final int MAX_GRID_SIZE = 16;
+
+    private static final Coordinate[] TABLE = new Coordinate[MAX_GRID_SIZE * MAX_GRID_SIZE];
+
+    static {
+        for (int r = 0; r < MAX_GRID_SIZE; r++) {
+            for (int c = 0; c < MAX_GRID_SIZE; c++) {
+                TABLE[r * MAX_GRID_SIZE + c] = new Coordinate(r, c, displayString(r, c));
+            }
+        }
+    }
+
     private final int row;
     private final int col;
+    private final String displayString; // null except for table instances
 
     public Coordinate(int row, int col) {
+        this(row, col, null);
+    }
+
+    private Coordinate(int row, int col, String displayString) {
         this.row = row;
         this.col = col;
+        this.displayString = displayString;
+    }
+
+    /**
+     * Returns the shared instance for (row, col). Coordinates outside the
+     * supported grid (e.g. weapon tiles hanging off the edge) are allocated.
+     */
+    public static Coordinate of(int row, int col) {
+        if (row >= 0 && row < MAX_GRID_SIZE && col >= 0 && col < MAX_GRID_SIZE) {
+            return TABLE[row * MAX_GRID_SIZE + col];
+        }
+        return new Coordinate(row, col);
+    }
+
+    // --- Packed Representation ---
+
+    /**
+     * Packs a (row, col) pair into one int: row in the high 16 bits, col in
+     * the low 16 bits. Negative values survive a round trip.
+     */
+    public static int pack(int row, int col) {
+        return (row << 16) | (col & 0xFFFF);
+    }
+
+    public static int unpackRow(int packed) {
+        return packed >> 16;
+    }
+
+    public static int unpackCol(int packed) {
+        return (short) packed;
+    }
+
+    /**
+     * Returns the shared coordinate for a packed value.
+     */
+    public static Coordinate fromPacked(int packed) {
+        return of(unpackRow(packed), unpackCol(packed));
+    }
+
+    /**
+     * Returns this coordinate in packed form (see {@link #pack(int, int)}).
+     */
+    public int packed() {
+        return pack(row, col);
     }
 
     public int getRow() {
@@ -58,7 +124,7 @@ public class Coordinate {
 
         input = input.toUpperCase().trim();
         char colChar = input.charAt(0);
-        if (colChar < 'A' || colChar > 'P') {
+        if (colChar < 'A' || colChar >= 'A' + MAX_GRID_SIZE) {
             throw new IllegalArgumentException("Invalid column letter: " + colChar);
         }
 
@@ -71,12 +137,12 @@ public class Coordinate {
             throw new IllegalArgumentException("Invalid row number: " + input.substring(1));
         }
 
-        if (rowNum < 1 || rowNum > 16) {
+        if (rowNum < 1 || rowNum > MAX_GRID_SIZE) {
             throw new IllegalArgumentException("Row number out of range: " + rowNum);
         }
 
         int row = rowNum - 1;
-        return new Coordinate(row, col);
+        return of(row, col);
     }
 
     /**
@@ -84,6 +150,15 @@ public class Coordinate {
      * 4).
      */
     public String toDisplayString() {
+        if (displayString != null) {
+            return displayString;
+        }
+        // Reuse the shared string when this is a duplicate of a table entry
+        String shared = of(row, col).displayString;
+        return shared != null ? shared : displayString(row, col);
+    }
+
+    private static String displayString(int row, int col) {
         char colChar = (char) ('A' + col);
         return "" + colChar + (row + 1);
     }
@@ -1,26 +1,44 @@
 package game.common.model;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
 /**
  * Represents a placed ship on the board.
  * Tracks which cells it occupies and which have been hit.
+ *
+ * Segments are kept as packed coordinates (see {@link Coordinate#pack}) and
+ * hits as a bitmask over them (bit i = i-th occupied cell), alongside a
+ * remaining-health counter, so hit checks and health queries never allocate.
  */
 public class Ship {
 
+    /** Maximum number of segments a single ship can have (one bit each). */
+    public static final int MAX_SEGMENTS = Long.SIZE;
+
     private final ShipType type;
     private final String id; // e.g., "PB-A", "DS-B" for multiple ships of same type
     private final List<Coordinate> occupiedCells;
-    private final Set<Coordinate> hitCells;
+    private final int[] segments; // packed (row, col) per segment
+    private long hitMask;
+    private int remainingHealth;
 
     public Ship(ShipType type, String id, List<Coordinate> occupiedCells) {
+        if (occupiedCells.size() > MAX_SEGMENTS) {
+            throw new IllegalArgumentException(
+                    "Ship " + id + " has " + occupiedCells.size() + " cells (max " + MAX_SEGMENTS + ")");
+        }
         this.type = type;
         this.id = id;
-        this.occupiedCells = new ArrayList<>(occupiedCells);
-        this.hitCells = new HashSet<>();
+        this.occupiedCells = new ArrayList<>(occupiedCells.size());
+        this.segments = new int[occupiedCells.size()];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = occupiedCells.get(i).packed();
+            this.occupiedCells.add(Coordinate.fromPacked(segments[i]));
+        }
+        this.remainingHealth = segments.length;
     }
 
     public ShipType getType() {
@@ -35,42 +53,100 @@ public class Ship {
         return occupiedCells;
     }
 
+    /**
+     * Returns a snapshot of the cells that have been hit, in segment order.
+     * Prefer {@link #isSegmentHit(int)} on hot paths.
+     */
     public Set<Coordinate> getHitCells() {
+        Set<Coordinate> hitCells = new LinkedHashSet<>();
+        for (int i = 0; i < segments.length; i++) {
+            if (isSegmentHit(i)) {
+                hitCells.add(occupiedCells.get(i));
+            }
+        }
         return hitCells;
     }
 
     /**
      * Records a hit on this ship at the given coordinate.
-     * 
+     *
      * @return true if the coordinate is part of this ship and wasn't already hit
      */
     public boolean hit(Coordinate coord) {
-        if (occupiedCells.contains(coord) && !hitCells.contains(coord)) {
-            hitCells.add(coord);
-            return true;
+        return hitSegment(segmentIndexOf(coord.row(), coord.col()));
+    }
+
+    /**
+     * Records a hit on the given segment.
+     *
+     * @return true if the segment exists and wasn't already hit
+     */
+    public boolean hitSegment(int segment) {
+        if (segment < 0 || segment >= segments.length || isSegmentHit(segment)) {
+            return false;
         }
-        return false;
+        hitMask |= 1L << segment;
+        remainingHealth--;
+        return true;
     }
 
     /**
      * Returns true if every cell of this ship has been hit.
      */
     public boolean isSunk() {
-        return hitCells.size() == occupiedCells.size();
+        return remainingHealth == 0;
     }
 
     /**
      * Returns true if this ship occupies the given coordinate.
      */
     public boolean occupies(Coordinate coord) {
-        return occupiedCells.contains(coord);
+        return segmentIndexOf(coord.row(), coord.col()) >= 0;
     }
 
     /**
      * Returns the number of remaining (un-hit) cells.
      */
     public int remainingHealth() {
-        return occupiedCells.size() - hitCells.size();
+        return remainingHealth;
+    }
+
+    // --- Segment Access ---
+
+    /** Number of cells this ship occupies */
+    public int getSegmentCount() {
+        return segments.length;
+    }
+
+    /** Packed coordinate of the given segment */
+    public int getSegment(int segment) {
+        return segments[segment];
+    }
+
+    public int getSegmentRow(int segment) {
+        return Coordinate.unpackRow(segments[segment]);
+    }
+
+    public int getSegmentCol(int segment) {
+        return Coordinate.unpackCol(segments[segment]);
+    }
+
+    public boolean isSegmentHit(int segment) {
+        return (hitMask & (1L << segment)) != 0;
+    }
+
+    /**
+     * Returns the segment index of the given cell, or -1 if not part of this
+     * ship.
+     */
+    public int segmentIndexOf(int row, int col) {
+        int packed = Coordinate.pack(row, col);
+        for (int i = 0; i < segments.length; i++) {
+            if (segments[i] == packed) {
+                return i;
+            }
+        }
+        return -1;
     }
 
     @Override
@@ -0,0 +1,127 @@
+package game.server;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import game.common.MessageCompressor;
+
+/**
+ * Raw and sent byte counts of every compressing connection, published over
+ * JMX next to the handshake metrics.
+ *
+ * Open connections are read from their compressors on demand; when a
+ * connection closes its counts are folded into the running totals, so the
+ * aggregate covers the whole uptime.
+ */
+public class CompressionStats implements CompressionStatsMXBean {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(CompressionStats.class);
+
+	private final Map<String, MessageCompressor> open = new ConcurrentHashMap<>();
+	private final LongAdder closedMessages = new LongAdder();
+	private final LongAdder closedCompressedMessages = new LongAdder();
+	private final LongAdder closedRawBytes = new LongAdder();
+	private final LongAdder closedSentBytes = new LongAdder();
+
+	/**
+	 * Starts tracking a connection's compressor.
+	 */
+	public void add(String connectionId, MessageCompressor compressor) {
+		open.put(connectionId, compressor);
+	}
+
+	/**
+	 * Stops tracking a connection and adds its counts to the totals.
+	 */
+	public void remove(String connectionId) {
+		MessageCompressor compressor = open.remove(connectionId);
+		if (compressor == null) {
+			return;
+		}
+		closedMessages.add(compressor.getMessageCount());
+		closedCompressedMessages.add(compressor.getCompressedMessageCount());
+		closedRawBytes.add(compressor.getRawBytes());
+		closedSentBytes.add(compressor.getSentBytes());
+	}
+
+	/**
+	 * Publishes the stats over JMX; failures are logged and ignored.
+	 */
+	public void registerMBean() {
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this,
+					new ObjectName("game.server:type=CompressionStats"));
+		} catch (Exception e) {
+			LOGGER.warn("Could not register compression metrics: {}", e.getMessage());
+		}
+	}
+
+	@Override
+	public int getConnectionCount() {
+		return open.size();
+	}
+
+	@Override
+	public long getMessageCount() {
+		long total = closedMessages.sum();
+		for (MessageCompressor compressor : open.values()) {
+			total += compressor.getMessageCount();
+		}
+		return total;
+	}
+
+	@Override
+	public long getCompressedMessageCount() {
+		long total = closedCompressedMessages.sum();
+		for (MessageCompressor compressor : open.values()) {
+			total += compressor.getCompressedMessageCount();
+		}
+		return total;
+	}
+
+	@Override
+	public long getRawBytes() {
+		long total = closedRawBytes.sum();
+		for (MessageCompressor compressor : open.values()) {
+			total += compressor.getRawBytes();
+		}
+		return total;
+	}
+
+	@Override
+	public long getSentBytes() {
+		long total = closedSentBytes.sum();
+		for (MessageCompressor compressor : open.values()) {
+			total += compressor.getSentBytes();
+		}
+		return total;
+	}
+
+	@Override
+	public double getCompressionRatio() {
+		long sent = getSentBytes();
+		return sent == 0 ? 1.0 : (double) getRawBytes() / sent;
+	}
+
+	@Override
+	public Map<String, Long> getRawBytesByConnection() {
+		Map<String, Long> bytes = new TreeMap<>();
+		open.forEach((id, compressor) -> bytes.put(id, compressor.getRawBytes()));
+		return bytes;
+	}
+
+	@Override
+	public Map<String, Long> getSentBytesByConnection() {
+		Map<String, Long> bytes = new TreeMap<>();
+		open.forEach((id, compressor) -> bytes.put(id, compressor.getSentBytes()));
+		return bytes;
+	}
+}
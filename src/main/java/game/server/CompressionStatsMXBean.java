@@ -0,0 +1,32 @@
+package game.server;
+
+import java.util.Map;
+
+/**
+ * JMX view of message compression across all connections.
+ */
+public interface CompressionStatsMXBean {
+
+	/** Open connections that negotiated compression */
+	int getConnectionCount();
+
+	/** Messages sent since startup, over open and closed connections */
+	long getMessageCount();
+
+	long getCompressedMessageCount();
+
+	/** Message bytes before compression */
+	long getRawBytes();
+
+	/** Message bytes after compression, including the flag and length header */
+	long getSentBytes();
+
+	/** Raw bytes per sent byte over all connections (1.0 before any message) */
+	double getCompressionRatio();
+
+	/** Raw bytes of each open connection, keyed by WebSocket session id */
+	Map<String, Long> getRawBytesByConnection();
+
+	/** Sent bytes of each open connection, keyed by WebSocket session id */
+	Map<String, Long> getSentBytesByConnection();
+}
@@ -0,0 +1,157 @@
+package game.server;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+import com.google.gson.JsonObject;
+
+import game.common.Capability;
+import game.common.Constants;
+import game.common.CryptoContext;
+import game.common.MessageCompressor;
+
+/**
+ * Server-side state of one connection once its handshake has completed: the
+ * player's name, the session crypto, and the protocol version and
+ * capabilities agreed with the client.
+ *
+ * Clients send their protocol version and a capability list; the connection
+ * gets every listed capability the server has enabled. Clients that send no
+ * version predate the AES-GCM session cipher and cannot talk to this server,
+ * so they are turned away before any key exchange.
+ */
+public class ConnectionContext {
+
+	private final String username;
+	private final CryptoContext crypto;
+	private final int protocolVersion;
+	private final Set<Capability> capabilities;
+	private final MessageCompressor compressor; // null unless compression was negotiated
+	private volatile boolean clientCompressing; // set by the client's first flagged message
+
+	public ConnectionContext(String username, CryptoContext crypto, int protocolVersion,
+			Set<Capability> capabilities) {
+		this.username = username;
+		this.crypto = crypto;
+		this.protocolVersion = protocolVersion;
+		EnumSet<Capability> copy = EnumSet.noneOf(Capability.class);
+		copy.addAll(capabilities);
+		this.capabilities = Collections.unmodifiableSet(copy);
+		this.compressor = copy.contains(Capability.COMPRESSION) ? new MessageCompressor() : null;
+	}
+
+	/**
+	 * Checks that the client speaks a protocol version this server supports.
+	 *
+	 * @param handshake the client's first handshake message
+	 * @return the version to use: the client's, capped at ours
+	 * @throws IllegalArgumentException if the client sent no version or one
+	 *                                  older than
+	 *                                  {@link Constants#MIN_PROTOCOL_VERSION}
+	 */
+	public static int checkVersion(JsonObject handshake) {
+		if (!handshake.has("protocolVersion")) {
+			throw new IllegalArgumentException("Client is too old for this server, please update it.");
+		}
+		int clientVersion = handshake.get("protocolVersion").getAsInt();
+		if (clientVersion < Constants.MIN_PROTOCOL_VERSION) {
+			throw new IllegalArgumentException("Unsupported protocol version " + clientVersion
+					+ ", please update the client.");
+		}
+		// Newer clients fall back to the newest version this server speaks
+		return Math.min(clientVersion, Constants.PROTOCOL_VERSION);
+	}
+
+	/**
+	 * Chooses the protocol version and capabilities for a client handshake.
+	 *
+	 * @param handshake the client's handshake message
+	 * @param enabled   capabilities this server currently offers
+	 * @throws IllegalArgumentException if the client's protocol version is
+	 *                                  not supported
+	 */
+	public static ConnectionContext negotiate(String username, CryptoContext crypto, JsonObject handshake,
+			Set<Capability> enabled) {
+		int version = checkVersion(handshake);
+		EnumSet<Capability> requested = handshake.has("capabilities")
+				? Capability.fromJson(handshake.getAsJsonArray("capabilities"))
+				: EnumSet.noneOf(Capability.class);
+		requested.retainAll(enabled);
+		return new ConnectionContext(username, crypto, version, requested);
+	}
+
+	/**
+	 * Adds the negotiated version and capabilities to the handshake
+	 * confirmation.
+	 */
+	public void addTo(JsonObject confirmation) {
+		confirmation.addProperty("protocolVersion", protocolVersion);
+		confirmation.add("capabilities", Capability.toJson(capabilities));
+	}
+
+	/**
+	 * Builds the handshake confirmation: a welcome, the negotiated version
+	 * and capabilities, and a ticket for resuming the session later.
+	 */
+	public JsonObject buildConfirmation(String ticket, long ticketLifetimeSeconds) {
+		JsonObject confirmation = new JsonObject();
+		confirmation.addProperty("type", Constants.MSG_HANDSHAKE_COMPLETE);
+		confirmation.addProperty("message", "Welcome, " + username + "!");
+		addTo(confirmation);
+		confirmation.addProperty("ticket", ticket);
+		confirmation.addProperty("ticketLifetime", ticketLifetimeSeconds);
+		return confirmation;
+	}
+
+	public boolean has(Capability capability) {
+		return capabilities.contains(capability);
+	}
+
+	public String getUsername() {
+		return username;
+	}
+
+	public CryptoContext getCrypto() {
+		return crypto;
+	}
+
+	public int getProtocolVersion() {
+		return protocolVersion;
+	}
+
+	public Set<Capability> getCapabilities() {
+		return capabilities;
+	}
+
+	/** The connection's compressor, or null if compression was not negotiated */
+	public MessageCompressor getCompressor() {
+		return compressor;
+	}
+
+	/**
+	 * Undoes compression on a decrypted client message. The client turns
+	 * compression on when it reads the handshake confirmation, so JSON it
+	 * sent before then has no flag byte and is passed through as is. From
+	 * the client's first flagged message on, every message must be flagged.
+	 */
+	public byte[] decompress(byte[] plain) {
+		if (compressor == null) {
+			return plain;
+		}
+		if (!clientCompressing) {
+			if (plain.length > 0 && plain[0] == '{') {
+				return plain;
+			}
+			clientCompressing = true;
+		}
+		return compressor.decompress(plain);
+	}
+
+	/** Releases the compressor's native state */
+	public void close() {
+		if (compressor != null) {
+			compressor.close();
+		}
+	}
+}
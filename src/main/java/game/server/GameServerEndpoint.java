@@ -1,9 +1,26 @@
 package game.server;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
 import java.security.KeyPair;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayDeque;
 import java.util.Base64;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
 
 import javax.crypto.SecretKey;
 
@@ -15,16 +32,25 @@ import com.google.gson.JsonParser;
 
 import game.common.Box;
 import game.common.BoxCodec;
+import game.common.Capability;
 import game.common.Constants;
+import game.common.CryptoContext;
 import game.common.CryptoUtils;
+import game.common.JsonOutput;
+import game.common.MessageCompressor;
+import game.common.SharedFragment;
 import game.common.model.Coordinate;
 import game.common.model.Direction;
 import game.common.model.GameMode;
 import game.common.model.WeaponType;
 import game.server.game.AttackResult;
+import game.server.game.BoardPool;
 import game.server.game.GameLobby;
 import game.server.game.GameSession;
 import game.server.game.GameState;
+import game.server.game.MessageBatch;
+import game.server.game.OutboundMessage;
+import jakarta.websocket.CloseReason;
 import jakarta.websocket.OnClose;
 import jakarta.websocket.OnError;
 import jakarta.websocket.OnMessage;
@@ -39,35 +65,99 @@ public class GameServerEndpoint {
 
 	// Shared across all endpoint instances
 	private static final GameLobby LOBBY = new GameLobby();
-	private static final Map<String, SecretKey> SESSION_AES_KEYS = new ConcurrentHashMap<>();
 	private static final Map<String, Session> ACTIVE_SESSIONS = new ConcurrentHashMap<>();
-	private static final Map<String, Boolean> HANDSHAKE_COMPLETE = new ConcurrentHashMap<>();
-	private static final Map<String, String> SESSION_USERNAMES = new ConcurrentHashMap<>();
-
-	// RSA key pair for handshake (one per server instance)
-	private static final KeyPair RSA_KEY_PAIR;
+	// Present once the handshake completed
+	private static final Map<String, ConnectionContext> CONNECTIONS = new ConcurrentHashMap<>();
+	private static final Map<String, byte[]> RESUME_NONCES = new ConcurrentHashMap<>();
+
+	// Handshake key pairs, loaded from the key file (generated in the background on first run)
+	private static final ServerKeyStore KEYS = new ServerKeyStore(
+			Path.of(System.getProperty("battlegrid.keyFile", Constants.SERVER_KEY_FILE)),
+			Duration.ofDays(Constants.SERVER_KEY_MAX_AGE_DAYS));
+
+	// Resumption tickets, with their keys kept in the key file so they survive a
+	// restart; lifetime can be overridden with -Dbattlegrid.ticketLifetimeSeconds
+	private static final ResumptionTickets TICKETS = new ResumptionTickets(
+			Duration.ofSeconds(Long.getLong("battlegrid.ticketLifetimeSeconds",
+					Constants.TICKET_LIFETIME_SECONDS)),
+			Duration.ofSeconds(Long.getLong("battlegrid.ticketKeyRotationSeconds",
+					Constants.TICKET_KEY_ROTATION_SECONDS)),
+			KEYS);
+	private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+
+	// Capabilities offered to clients; a feature can be switched off with
+	// -Dbattlegrid.disabledCapabilities=compression,batching
+	private static final Set<Capability> SERVER_CAPABILITIES = enabledCapabilities(
+			System.getProperty("battlegrid.disabledCapabilities", ""));
+
+	// Handshake crypto runs off the container threads; half the cores stay free for game traffic
+	private static final HandshakeExecutor HANDSHAKE_EXECUTOR = new HandshakeExecutor(
+			Math.max(1, Runtime.getRuntime().availableProcessors() / 2),
+			Constants.HANDSHAKE_QUEUE_CAPACITY);
+	// Messages that arrived while the connection's handshake was on the pool,
+	// in order; present exactly while a handshake task is pending
+	private static final Map<String, Queue<Runnable>> HANDSHAKE_BACKLOGS = new ConcurrentHashMap<>();
+	private static final String SESSION_LOCK = "battlegrid.sessionLock"; // user property key
+
+	// Raw and sent bytes of compressing connections
+	private static final CompressionStats COMPRESSION_STATS = new CompressionStats();
 
 	static {
-		try {
-			RSA_KEY_PAIR = CryptoUtils.generateRSAKeyPair();
-		} catch (Exception e) {
-			throw new RuntimeException("Failed to generate RSA key pair", e);
-		}
+		HANDSHAKE_EXECUTOR.registerMBean();
+		COMPRESSION_STATS.registerMBean();
+	}
+
+	/**
+	 * Loads (or starts generating) the server keys ahead of the first
+	 * connection.
+	 *
+	 * @return a future completing once handshakes can be served
+	 */
+	public static CompletableFuture<ServerKeyStore.KeySet> loadServerKeys() {
+		return KEYS.current();
+	}
+
+	/**
+	 * Makes new games take their boards from the given pool. Without a pool
+	 * ships are placed inline when a game is set up.
+	 */
+	public static void useBoardPool(BoardPool boardPool) {
+		LOBBY.setBoardPool(boardPool);
 	}
 
 	@OnOpen
 	public void onOpen(Session session) {
 		String sessionId = session.getId();
+		// Orders handshakes, the messages held back behind them and onClose
+		session.getUserProperties().put(SESSION_LOCK, new Object());
 		ACTIVE_SESSIONS.put(sessionId, session);
-		HANDSHAKE_COMPLETE.put(sessionId, false);
 		LOGGER.info("New connection: {}", sessionId);
 
-		// Send RSA public key for handshake
+		// Sent as soon as the server keys are ready (immediately once loaded)
+		KEYS.current().thenAccept(keys -> sendServerHello(session, keys));
+	}
+
+	private void sendServerHello(Session session, ServerKeyStore.KeySet keys) {
+		String sessionId = session.getId();
+		if (!session.isOpen()) {
+			return;
+		}
+
+		// Send public keys for handshake; the client picks the key exchange
 		try {
 			JsonObject payload = new JsonObject();
 			payload.addProperty("type", Constants.MSG_HANDSHAKE_RSA_KEY);
+			payload.addProperty("keyId", keys.id());
 			payload.addProperty("publicKey",
-					CryptoUtils.publicKeyToString(RSA_KEY_PAIR.getPublic()));
+					CryptoUtils.publicKeyToString(keys.rsa().getPublic()));
+			payload.addProperty("ecdhPublicKey",
+					CryptoUtils.publicKeyToString(keys.x25519().getPublic()));
+
+			// Fresh server randomness for a ticket resumption on this connection
+			byte[] resumeNonce = new byte[Constants.RESUME_NONCE_BYTES];
+			SECURE_RANDOM.nextBytes(resumeNonce);
+			RESUME_NONCES.put(sessionId, resumeNonce);
+			payload.addProperty("resumeNonce", Base64.getEncoder().encodeToString(resumeNonce));
 
 			String message = new BoxCodec().encode(new Box(payload));
 			session.getBasicRemote().sendText(message);
@@ -82,19 +172,56 @@ public class GameServerEndpoint {
 		String sessionId = session.getId();
 
 		try {
-			if (!Boolean.TRUE.equals(HANDSHAKE_COMPLETE.get(sessionId))) {
-				handleHandshake(message, session);
-			} else {
-				handleGameMessage(message, session);
+			synchronized (sessionLock(session)) {
+				if (deferBehindHandshake(session, () -> onMessage(message, session))) {
+					return;
+				}
+				if (!CONNECTIONS.containsKey(sessionId)) {
+					submitHandshake(message, session);
+					return;
+				}
 			}
+			handleGameMessage(message, session);
 		} catch (Exception e) {
 			LOGGER.error("Error processing message from {}", sessionId, e);
 			sendPlainJson(session, GameSession.buildErrorMessage("Internal server error."));
 		}
 	}
 
+	@OnMessage
+	public void onBinaryMessage(byte[] message, Session session) {
+		String sessionId = session.getId();
+
+		try {
+			synchronized (sessionLock(session)) {
+				if (deferBehindHandshake(session, () -> onBinaryMessage(message, session))) {
+					return;
+				}
+			}
+			if (!CONNECTIONS.containsKey(sessionId)) {
+				LOGGER.warn("Binary frame from {} before handshake, ignoring", sessionId);
+				return;
+			}
+			byte[] decryptedBytes = open(sessionId, message);
+			routeGameMessage(BoxCodec.decodeBinary(decryptedBytes).getPayload(), session);
+		} catch (Exception e) {
+			LOGGER.error("Error processing binary message from {}", sessionId, e);
+			sendEncrypted(session, sessionId, GameSession.buildErrorMessage("Internal server error."));
+		}
+	}
+
 	@OnClose
 	public void onClose(Session session) {
+		synchronized (sessionLock(session)) {
+			cleanupConnection(session);
+		}
+	}
+
+	private static Object sessionLock(Session session) {
+		return session.getUserProperties().get(SESSION_LOCK);
+	}
+
+	private void cleanupConnection(Session session) {
 		String sessionId = session.getId();
 		LOGGER.info("Connection closed: {}", sessionId);
 
@@ -102,7 +229,7 @@ public class GameServerEndpoint {
 			int playerIndex = gameSession.getPlayerIndex(sessionId);
 			int opponentIndex = 1 - playerIndex;
 			String opponentSessionKey = gameSession.getSessionKey(opponentIndex);
-			String username = SESSION_USERNAMES.getOrDefault(sessionId, "Opponent");
+			String username = usernameOf(sessionId, "Opponent");
 
 			boolean wasInProgress = gameSession.getGameState().getPhase() == GameState.Phase.IN_PROGRESS;
 
@@ -130,10 +257,23 @@ public class GameServerEndpoint {
 		});
 
 		// Cleanup connection state
-		SESSION_AES_KEYS.remove(sessionId);
 		ACTIVE_SESSIONS.remove(sessionId);
-		HANDSHAKE_COMPLETE.remove(sessionId);
-		SESSION_USERNAMES.remove(sessionId);
+		RESUME_NONCES.remove(sessionId);
+		HANDSHAKE_BACKLOGS.remove(sessionId);
+
+		ConnectionContext connection = CONNECTIONS.remove(sessionId);
+		if (connection == null) {
+			return;
+		}
+		MessageCompressor compressor = connection.getCompressor();
+		if (compressor != null) {
+			COMPRESSION_STATS.remove(sessionId);
+			LOGGER.info("Compression for {}: {} messages ({} compressed), {} -> {} bytes, ratio {}",
+					sessionId, compressor.getMessageCount(), compressor.getCompressedMessageCount(),
+					compressor.getRawBytes(), compressor.getSentBytes(),
+					String.format("%.2f", compressor.getCompressionRatio()));
+		}
+		connection.close();
 	}
 
 	@OnError
@@ -144,42 +284,242 @@ public class GameServerEndpoint {
 
 	// --- Handshake ---
 
+	/**
+	 * Starts a handshake for the message on the pool. Messages for the session
+	 * that arrive before it finishes are held back and handled afterwards, in
+	 * order. Must be called holding the session lock.
+	 */
+	private void submitHandshake(String message, Session session) {
+		String sessionId = session.getId();
+		HANDSHAKE_BACKLOGS.put(sessionId, new ArrayDeque<>());
+
+		try {
+			HANDSHAKE_EXECUTOR.submit(() -> {
+				try {
+					if (session.isOpen()) {
+						handleHandshake(message, session);
+					}
+					runHandshakeBacklog(session);
+				} catch (Exception e) {
+					LOGGER.error("Handshake failed for {}", sessionId, e);
+					HANDSHAKE_BACKLOGS.remove(sessionId);
+					sendPlainJson(session, GameSession.buildErrorMessage("Handshake failed."));
+					closeQuietly(session, new CloseReason(CloseReason.CloseCodes.PROTOCOL_ERROR, "Handshake failed"));
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			HANDSHAKE_BACKLOGS.remove(sessionId);
+			LOGGER.warn("Handshake queue full ({} waiting), rejecting {}",
+					HANDSHAKE_EXECUTOR.getQueueDepth(), sessionId);
+			sendPlainJson(session, GameSession.buildErrorMessage("Server busy, please try again shortly."));
+			closeQuietly(session, new CloseReason(CloseReason.CloseCodes.TRY_AGAIN_LATER, "Server busy"));
+		}
+	}
+
+	/**
+	 * Holds a message back if the session's handshake has not finished.
+	 * A client that sends more than {@link Constants#HANDSHAKE_BACKLOG_LIMIT}
+	 * messages before then is closed with a protocol error. Must be called
+	 * holding the session lock.
+	 *
+	 * @param handler handles the message once the handshake is done
+	 * @return true if the message was held back (or the session closed)
+	 */
+	private boolean deferBehindHandshake(Session session, Runnable handler) {
+		Queue<Runnable> backlog = HANDSHAKE_BACKLOGS.get(session.getId());
+		if (backlog == null) {
+			return false;
+		}
+		if (backlog.size() >= Constants.HANDSHAKE_BACKLOG_LIMIT) {
+			LOGGER.warn("Too many messages from {} during its handshake, closing", session.getId());
+			HANDSHAKE_BACKLOGS.remove(session.getId());
+			sendPlainJson(session, GameSession.buildErrorMessage("Too many messages during the handshake."));
+			closeQuietly(session, new CloseReason(CloseReason.CloseCodes.PROTOCOL_ERROR, "Handshake backlog full"));
+			return true;
+		}
+		backlog.add(handler);
+		return true;
+	}
+
+	/**
+	 * Handles the messages held back during a finished handshake, as if they
+	 * had just arrived. If one of them starts another handshake (the key
+	 * exchange after a rejected ticket), the rest wait for that one instead.
+	 */
+	private void runHandshakeBacklog(Session session) {
+		String sessionId = session.getId();
+		synchronized (sessionLock(session)) {
+			Queue<Runnable> backlog = HANDSHAKE_BACKLOGS.remove(sessionId);
+			if (backlog == null || !session.isOpen()) {
+				return; // closed meanwhile
+			}
+			Runnable next;
+			while ((next = backlog.poll()) != null) {
+				next.run();
+				Queue<Runnable> nextBacklog = HANDSHAKE_BACKLOGS.get(sessionId);
+				if (nextBacklog != null) {
+					nextBacklog.addAll(backlog);
+					return;
+				}
+			}
+		}
+	}
+
+	private static void closeQuietly(Session session, CloseReason reason) {
+		try {
+			if (session.isOpen()) {
+				session.close(reason);
+			}
+		} catch (IOException | IllegalStateException e) {
+			LOGGER.debug("Failed to close session {}", session.getId(), e);
+		}
+	}
+
+	/**
+	 * Handshake queue depth and latency, also published over JMX.
+	 */
+	static HandshakeExecutorMXBean getHandshakeMetrics() {
+		return HANDSHAKE_EXECUTOR;
+	}
+
 	private void handleHandshake(String message, Session session) throws Exception {
 		String sessionId = session.getId();
 
-		// Client sends: { username, encryptedAesKey }
+		// Client sends: { username, encryptedAesKey },
+		// { username, keyExchange: "x25519", ecdhPublicKey } or { ticket, resumeNonce }
 		Box box = new BoxCodec().decode(message);
 		JsonObject payload = box.getPayload();
 
-		String username = payload.has("username") ? payload.get("username").getAsString() : "Player";
-		String encryptedAesKeyStr = payload.get("encryptedAesKey").getAsString();
+		// Clients without a protocol version predate the session cipher in use
+		try {
+			ConnectionContext.checkVersion(payload);
+		} catch (IllegalArgumentException e) {
+			LOGGER.info("Rejected client {}: {}", sessionId, e.getMessage());
+			sendPlainJson(session, GameSession.buildErrorMessage(e.getMessage()));
+			closeQuietly(session, new CloseReason(CloseReason.CloseCodes.CANNOT_ACCEPT, "Unsupported client version"));
+			return;
+		}
 
-		// Decrypt the AES key with our RSA private key
-		byte[] encryptedAesKey = Base64.getDecoder().decode(encryptedAesKeyStr);
-		byte[] aesKeyBytes = CryptoUtils.rsaDecrypt(encryptedAesKey, RSA_KEY_PAIR.getPrivate());
-		SecretKey aesKey = CryptoUtils.bytesToAesKey(aesKeyBytes);
+		String username;
+		SecretKey aesKey;
+		if (payload.has("ticket")) {
+			// Only one resumption attempt per connection
+			byte[] serverNonce = RESUME_NONCES.remove(sessionId);
+			Optional<ResumptionTickets.Resumption> resumption = serverNonce == null
+					? Optional.empty()
+					: TICKETS.redeem(payload.get("ticket").getAsString());
+
+			JsonObject result = new JsonObject();
+			result.addProperty("type", Constants.MSG_RESUME_RESULT);
+			result.addProperty("accepted", resumption.isPresent());
+			session.getBasicRemote().sendText(new BoxCodec().encode(new Box(result)));
+			if (resumption.isEmpty()) {
+				// The client answers with a full key exchange, which is held back
+				// until this task ends and then starts the next handshake
+				LOGGER.info("Rejected resumption ticket from {}", sessionId);
+				return;
+			}
 
-		SESSION_AES_KEYS.put(sessionId, aesKey);
-		SESSION_USERNAMES.put(sessionId, username);
-		HANDSHAKE_COMPLETE.put(sessionId, true);
+			byte[] clientNonce = Base64.getDecoder().decode(payload.get("resumeNonce").getAsString());
+			aesKey = CryptoUtils.deriveResumedKey(resumption.get().sessionKey(), clientNonce, serverNonce);
+			username = resumption.get().username();
+			LOGGER.info("Resumed session for {} ({})", username, sessionId);
+		} else {
+			username = payload.has("username") ? payload.get("username").getAsString() : "Player";
+			aesKey = establishSessionKey(payload);
+		}
+		RESUME_NONCES.remove(sessionId);
+
+		// Protocol version and the best capability set both sides support
+		ConnectionContext connection = ConnectionContext.negotiate(username, new CryptoContext(aesKey, true),
+				payload, SERVER_CAPABILITIES);
+
+		// The socket may have closed while this worker ran. Registering under
+		// the lock onClose takes means either onClose sees the connection and
+		// cleans it up, or this sees the session gone and registers nothing.
+		synchronized (sessionLock(session)) {
+			if (!ACTIVE_SESSIONS.containsKey(sessionId)) {
+				LOGGER.info("Connection {} closed during its handshake", sessionId);
+				connection.close();
+				return;
+			}
+			completeHandshake(session, connection, aesKey);
+		}
+	}
 
-		LOGGER.info("Handshake complete with {} ({})", username, sessionId);
+	private void completeHandshake(Session session, ConnectionContext connection, SecretKey aesKey)
+			throws GeneralSecurityException {
+		String sessionId = session.getId();
+		String username = connection.getUsername();
+
+		// With binary frames, the confirmation itself is the first binary frame
+		CONNECTIONS.put(sessionId, connection);
+		if (connection.getCompressor() != null) {
+			COMPRESSION_STATS.add(sessionId, connection.getCompressor());
+		}
+
+		LOGGER.info("Handshake complete with {} ({}), protocol {} with {}", username, sessionId,
+				connection.getProtocolVersion(), connection.getCapabilities());
 
 		// Send handshake confirmation
-		JsonObject confirmPayload = new JsonObject();
-		confirmPayload.addProperty("type", Constants.MSG_HANDSHAKE_COMPLETE);
-		confirmPayload.addProperty("message", "Welcome, " + username + "!");
-		sendEncrypted(session, sessionId, confirmPayload);
+		sendEncrypted(session, sessionId,
+				connection.buildConfirmation(TICKETS.issue(aesKey, username), TICKETS.getLifetimeSeconds()));
 
 		// Join the lobby
 		joinLobby(session, sessionId, username);
 	}
 
+	private static Set<Capability> enabledCapabilities(String disabled) {
+		EnumSet<Capability> enabled = EnumSet.allOf(Capability.class);
+		enabled.removeAll(Capability.parseList(disabled));
+		return Collections.unmodifiableSet(enabled);
+	}
+
+	/**
+	 * Recovers the AES session key from the client's handshake, either by
+	 * RSA-decrypting the key the client chose or by X25519 key agreement with
+	 * the client's ephemeral public key followed by HKDF.
+	 */
+	private static SecretKey establishSessionKey(JsonObject payload) throws Exception {
+		// Key set the hello was sent with; it may have been rotated since
+		ServerKeyStore.KeySet keys = payload.has("keyId")
+				? KEYS.forId(payload.get("keyId").getAsInt())
+				: KEYS.current().join();
+		KeyPair x25519KeyPair = keys.x25519();
+
+		// RSA is the default for clients that do not name a key exchange
+		String keyExchange = payload.has("keyExchange")
+				? payload.get("keyExchange").getAsString()
+				: Constants.KEY_EXCHANGE_RSA;
+
+		if (Constants.KEY_EXCHANGE_X25519.equals(keyExchange)) {
+			PublicKey clientKey = CryptoUtils.stringToX25519PublicKey(
+					payload.get("ecdhPublicKey").getAsString());
+			byte[] sharedSecret = CryptoUtils.x25519Agree(x25519KeyPair.getPrivate(), clientKey);
+			return CryptoUtils.deriveSessionKey(sharedSecret, clientKey.getEncoded(),
+					x25519KeyPair.getPublic().getEncoded());
+		}
+		if (!Constants.KEY_EXCHANGE_RSA.equals(keyExchange)) {
+			throw new IllegalArgumentException("Unsupported key exchange: " + keyExchange);
+		}
+
+		// Decrypt the AES key with our RSA private key
+		byte[] encryptedAesKey = Base64.getDecoder().decode(payload.get("encryptedAesKey").getAsString());
+		byte[] aesKeyBytes = CryptoUtils.rsaDecrypt(encryptedAesKey, keys.rsa().getPrivate());
+		return CryptoUtils.bytesToAesKey(aesKeyBytes);
+	}
+
 	// --- Lobby ---
 
 	private void joinLobby(Session session, String sessionId, String username) {
 		GameLobby.JoinResult result = LOBBY.joinPlayer(sessionId, username);
 		GameSession gameSession = result.session();
+		ConnectionContext connection = CONNECTIONS.get(sessionId);
+		if (connection != null) {
+			gameSession.setPackedBoards(result.playerIndex(), connection.has(Capability.PACKED_BOARDS));
+			gameSession.setBoardDeltas(result.playerIndex(), connection.has(Capability.DELTA_SYNC));
+		}
+		gameSession.setMessageSink((playerIndex, message) -> sendToPlayer(gameSession, playerIndex, message));
 
 		if (!result.gameReady()) {
 			// First player — wait for opponent
@@ -202,13 +542,17 @@ public class GameServerEndpoint {
 		String player0Name = gameSession.getGameState().getPlayer(0).getUsername();
 		String player1Name = gameSession.getGameState().getPlayer(1).getUsername();
 
+		// The mode list inside is encoded once for both
+		List<SharedFragment> fragments = gameSession.getSharedFragments();
 		if (player0Session != null) {
-			sendEncrypted(player0Session, player0SessionKey,
-					gameSession.buildModeSelectMessage(player1Name));
+			OutboundMessage message = new OutboundMessage(
+					gameSession.buildModeSelectMessage(player1Name), fragments);
+			sendEncrypted(player0Session, player0SessionKey, message.getPayload(), message);
 		}
 		if (player1Session != null) {
-			sendEncrypted(player1Session, player1SessionKey,
-					gameSession.buildModeSelectMessage(player0Name));
+			OutboundMessage message = new OutboundMessage(
+					gameSession.buildModeSelectMessage(player0Name), fragments);
+			sendEncrypted(player1Session, player1SessionKey, message.getPayload(), message);
 		}
 	}
 
@@ -218,10 +562,9 @@ public class GameServerEndpoint {
 		String sessionId = session.getId();
 
 		// Decrypt the message
-		SecretKey aesKey = SESSION_AES_KEYS.get(sessionId);
 		byte[] encryptedBytes = Base64.getDecoder().decode(message);
-		byte[] decryptedBytes = CryptoUtils.aesDecrypt(encryptedBytes, aesKey);
-		String jsonString = new String(decryptedBytes);
+		byte[] decryptedBytes = open(sessionId, encryptedBytes);
+		String jsonString = new String(decryptedBytes, StandardCharsets.UTF_8);
 
 		JsonObject payload = JsonParser.parseString(jsonString).getAsJsonObject();
 		// Also try Box format
@@ -229,6 +572,11 @@ public class GameServerEndpoint {
 			payload = payload.getAsJsonObject("payload");
 		}
 
+		routeGameMessage(payload, session);
+	}
+
+	private void routeGameMessage(JsonObject payload, Session session) {
+		String sessionId = session.getId();
 		String type = payload.get("type").getAsString();
 
 		GameSession gameSession = LOBBY.getSessionForPlayer(sessionId).orElse(null);
@@ -236,7 +584,7 @@ public class GameServerEndpoint {
 			// Player not in any session — might be after a cleanup
 			// Try to re-queue them if they sent play_again
 			if (Constants.MSG_PLAY_AGAIN.equals(type)) {
-				String username = SESSION_USERNAMES.getOrDefault(sessionId, "Player");
+				String username = usernameOf(sessionId, "Player");
 				joinLobby(session, sessionId, username);
 				return;
 			}
@@ -252,6 +600,7 @@ public class GameServerEndpoint {
 			case Constants.MSG_ATTACK -> handleAttack(gameSession, playerIndex, payload);
 			case Constants.MSG_FORFEIT -> handleForfeit(gameSession, playerIndex);
 			case Constants.MSG_PLAY_AGAIN -> handlePlayAgain(gameSession, playerIndex, payload);
+			case Constants.MSG_SYNC_REQUEST -> handleSyncRequest(gameSession, playerIndex);
 			default -> {
 				LOGGER.warn("Unknown message type from {}: {}", sessionId, type);
 				sendEncrypted(session, sessionId,
@@ -280,12 +629,13 @@ public class GameServerEndpoint {
 
 			gameSession.startGame(resolvedMode);
 
-			// Send game_start to both players
-			sendToPlayer(gameSession, 0, gameSession.buildGameStartMessage(0));
-			sendToPlayer(gameSession, 1, gameSession.buildGameStartMessage(1));
-
-			// Send turn messages and start timeout
-			sendTurnMessages(gameSession);
+			// Send game_start and the first turn to both players, then start timeout
+			MessageBatch batch = new MessageBatch()
+					.add(0, gameSession.buildGameStartMessage(0))
+					.add(1, gameSession.buildGameStartMessage(1));
+			addTurnMessages(gameSession, batch);
+			sendBatch(gameSession, batch);
+			startTurnTimeout(gameSession);
 		}
 		// If only one has voted, they just wait
 	}
@@ -335,36 +685,45 @@ public class GameServerEndpoint {
 
 		int defenderIndex = 1 - playerIndex;
 
-		// Send results to both players
-		sendToPlayer(gameSession, playerIndex,
-				gameSession.buildAttackResultMessage(result, playerIndex));
-		sendToPlayer(gameSession, defenderIndex,
-				gameSession.buildIncomingAttackMessage(result, defenderIndex));
+		JsonObject attackResult = gameSession.buildAttackResultMessage(result, playerIndex);
+		JsonObject incomingAttack = gameSession.buildIncomingAttackMessage(result, defenderIndex);
+
+		// Results and the next turn go out as one frame per player; the tile
+		// results and sunk ships in both messages are encoded once
+		MessageBatch batch = new MessageBatch(gameSession.getSharedFragments())
+				.add(playerIndex, attackResult)
+				.add(defenderIndex, incomingAttack);
 
 		// Check game over
 		if (result.isGameOver()) {
-			sendToPlayer(gameSession, 0, gameSession.buildGameOverMessage(0));
-			sendToPlayer(gameSession, 1, gameSession.buildGameOverMessage(1));
-
-			// Send play-again prompt after a short delay
-			sendToPlayer(gameSession, 0, gameSession.buildPlayAgainPromptMessage());
-			sendToPlayer(gameSession, 1, gameSession.buildPlayAgainPromptMessage());
+			addGameOver(gameSession, batch);
+			batch.addToBoth(gameSession.buildPlayAgainPromptMessage());
+			sendBatch(gameSession, batch);
 		} else {
 			// Send turn messages for the next turn
-			sendTurnMessages(gameSession);
+			addTurnMessages(gameSession, batch);
+			sendBatch(gameSession, batch);
+			startTurnTimeout(gameSession);
+		}
+	}
+
+	private void handleSyncRequest(GameSession gameSession, int playerIndex) {
+		if (gameSession.getGameState().getMode() == null) {
+			sendToPlayer(gameSession, playerIndex,
+					GameSession.buildErrorMessage("No game in progress."));
+			return;
 		}
+		sendToPlayer(gameSession, playerIndex, gameSession.buildBoardSyncMessage(playerIndex));
 	}
 
 	private void handleForfeit(GameSession gameSession, int playerIndex) {
 		gameSession.cancelTurnTimeout();
 		gameSession.getGameState().forfeit(playerIndex);
 
-		sendToPlayer(gameSession, 0, gameSession.buildGameOverMessage(0));
-		sendToPlayer(gameSession, 1, gameSession.buildGameOverMessage(1));
-
-		// Play again prompt
-		sendToPlayer(gameSession, 0, gameSession.buildPlayAgainPromptMessage());
-		sendToPlayer(gameSession, 1, gameSession.buildPlayAgainPromptMessage());
+		MessageBatch batch = new MessageBatch();
+		addGameOver(gameSession, batch);
+		batch.addToBoth(gameSession.buildPlayAgainPromptMessage());
+		sendBatch(gameSession, batch);
 	}
 
 	private void handlePlayAgain(GameSession gameSession, int playerIndex, JsonObject payload) {
@@ -384,18 +743,11 @@ public class GameServerEndpoint {
 			// At least one declined
 			LOGGER.info("Session {}: Play again declined.", gameSession.getSessionId());
 
-			// Find who wants to keep playing and re-queue them
-			for (int i = 0; i < 2; i++) {
-				String wsKey = gameSession.getSessionKey(i);
-				Session ws = wsKey != null ? ACTIVE_SESSIONS.get(wsKey) : null;
-				if (ws != null && ws.isOpen()) {
-					// Notify that the opponent declined
-					JsonObject msg = new JsonObject();
-					msg.addProperty("type", Constants.MSG_OPPONENT_DISCONNECTED);
-					msg.addProperty("message", "Opponent left. Returning to lobby...");
-					sendEncrypted(ws, wsKey, msg);
-				}
-			}
+			// Notify that the opponent declined
+			JsonObject msg = new JsonObject();
+			msg.addProperty("type", Constants.MSG_OPPONENT_DISCONNECTED);
+			msg.addProperty("message", "Opponent left. Returning to lobby...");
+			gameSession.broadcast(msg);
 
 			// Clean up session
 			LOBBY.cleanupSession(gameSession);
@@ -405,7 +757,7 @@ public class GameServerEndpoint {
 				String wsKey = gameSession.getSessionKey(i);
 				if (wsKey != null) {
 					Session ws = ACTIVE_SESSIONS.get(wsKey);
-					String username = SESSION_USERNAMES.getOrDefault(wsKey, "Player");
+					String username = usernameOf(wsKey, "Player");
 					if (ws != null && ws.isOpen()) {
 						joinLobby(ws, wsKey, username);
 					}
@@ -416,12 +768,18 @@ public class GameServerEndpoint {
 
 	// --- Turn Management ---
 
-	private void sendTurnMessages(GameSession gameSession) {
+	private void addTurnMessages(GameSession gameSession, MessageBatch batch) {
 		int currentTurn = gameSession.getGameState().getCurrentTurnIndex();
-		sendToPlayer(gameSession, currentTurn, gameSession.buildYourTurnMessage(currentTurn));
-		sendToPlayer(gameSession, 1 - currentTurn, gameSession.buildWaitTurnMessage(1 - currentTurn));
+		batch.add(currentTurn, gameSession.buildYourTurnMessage(currentTurn));
+		batch.add(1 - currentTurn, gameSession.buildWaitTurnMessage(1 - currentTurn));
+	}
 
-		// Start turn timeout
+	private void addGameOver(GameSession gameSession, MessageBatch batch) {
+		batch.add(0, gameSession.buildGameOverMessage(0));
+		batch.add(1, gameSession.buildGameOverMessage(1));
+	}
+
+	private void startTurnTimeout(GameSession gameSession) {
 		gameSession.setOnTurnTimeout(() -> handleTurnTimeout(gameSession));
 		gameSession.startTurnTimeout();
 	}
@@ -438,60 +796,136 @@ public class GameServerEndpoint {
 
 		gameSession.getGameState().forfeit(timedOutPlayer);
 
-		// Notify both
-		sendToPlayer(gameSession, 0, gameSession.buildGameOverMessage(0));
-		sendToPlayer(gameSession, 1, gameSession.buildGameOverMessage(1));
+		// Game over, timeout notice and play again prompt in one frame each
+		MessageBatch batch = new MessageBatch();
+		addGameOver(gameSession, batch);
 
-		// Send timeout notice
 		JsonObject timeoutMsg = new JsonObject();
 		timeoutMsg.addProperty("type", Constants.MSG_ERROR);
 		timeoutMsg.addProperty("message", username + " ran out of time!");
-		sendToPlayer(gameSession, 0, timeoutMsg);
-		sendToPlayer(gameSession, 1, timeoutMsg);
-
-		// Play again prompt
-		sendToPlayer(gameSession, 0, gameSession.buildPlayAgainPromptMessage());
-		sendToPlayer(gameSession, 1, gameSession.buildPlayAgainPromptMessage());
+		batch.addToBoth(timeoutMsg);
+		batch.addToBoth(gameSession.buildPlayAgainPromptMessage());
+		sendBatch(gameSession, batch);
 	}
 
 	// --- Sending Helpers ---
 
+	private void sendBatch(GameSession gameSession, MessageBatch batch) {
+		for (int i = 0; i < 2; i++) {
+			String wsSessionId = gameSession.getSessionKey(i);
+			ConnectionContext connection = wsSessionId != null ? CONNECTIONS.get(wsSessionId) : null;
+			if (connection != null && !connection.has(Capability.BATCHING)) {
+				// Client can't read batch messages, send them one by one
+				for (OutboundMessage message : batch.messages(i)) {
+					if (sendToPlayer(gameSession, i, message)) {
+						gameSession.messageSent(i, message.getPayload());
+					}
+				}
+				continue;
+			}
+			OutboundMessage frame = batch.build(i);
+			if (frame != null && sendToPlayer(gameSession, i, frame)) {
+				for (OutboundMessage message : batch.messages(i)) {
+					gameSession.messageSent(i, message.getPayload());
+				}
+			}
+		}
+	}
+
+	private static String usernameOf(String wsSessionId, String fallback) {
+		ConnectionContext connection = CONNECTIONS.get(wsSessionId);
+		return connection != null ? connection.getUsername() : fallback;
+	}
+
 	private void sendToPlayer(GameSession gameSession, int playerIndex, JsonObject payload) {
+		sendToPlayer(gameSession, playerIndex, payload, null);
+	}
+
+	private boolean sendToPlayer(GameSession gameSession, int playerIndex, OutboundMessage message) {
+		return sendToPlayer(gameSession, playerIndex, message.getPayload(), message);
+	}
+
+	/** @return true if the message was sent */
+	private boolean sendToPlayer(GameSession gameSession, int playerIndex, JsonObject payload,
+			OutboundMessage shared) {
 		String wsSessionId = gameSession.getSessionKey(playerIndex);
 		if (wsSessionId == null)
-			return;
+			return false;
 
 		Session wsSession = ACTIVE_SESSIONS.get(wsSessionId);
 		if (wsSession == null || !wsSession.isOpen())
-			return;
+			return false;
 
-		sendEncrypted(wsSession, wsSessionId, payload);
+		return sendEncrypted(wsSession, wsSessionId, payload, shared);
 	}
 
 	private void sendEncrypted(Session wsSession, String wsSessionId, JsonObject payload) {
+		sendEncrypted(wsSession, wsSessionId, payload, null);
+	}
+
+	/**
+	 * @param shared if not null, the broadcast the payload belongs to; its
+	 *               cached encoding is reused instead of serializing again
+	 * @return true if the message was sent
+	 */
+	private boolean sendEncrypted(Session wsSession, String wsSessionId, JsonObject payload,
+			OutboundMessage shared) {
 		try {
-			SecretKey aesKey = SESSION_AES_KEYS.get(wsSessionId);
-			if (aesKey == null) {
+			ConnectionContext connection = CONNECTIONS.get(wsSessionId);
+			if (connection == null) {
 				LOGGER.warn("No AES key for session {}, sending plain", wsSessionId);
-				sendPlainJson(wsSession, payload);
-				return;
+				return sendPlainJson(wsSession, payload);
 			}
 
-			String json = payload.toString();
-			byte[] encrypted = CryptoUtils.aesEncrypt(json.getBytes(), aesKey);
-			String encoded = Base64.getEncoder().encodeToString(encrypted);
-			wsSession.getBasicRemote().sendText(encoded);
+			// The confirmation is sent before the client has turned compression on
+			MessageCompressor compressor = Constants.MSG_HANDSHAKE_COMPLETE.equals(
+					payload.get("type").getAsString()) ? null : connection.getCompressor();
+			CryptoContext crypto = connection.getCrypto();
+
+			// Hold the context across encrypt and send so counters go out in order
+			synchronized (crypto) {
+				if (connection.has(Capability.BINARY_FRAMES)) {
+					// Binary frames carry the ciphertext as-is, no Base64
+					byte[] plain = shared != null ? shared.binary() : BoxCodec.encodeBinary(new Box(payload));
+					byte[] encrypted = seal(crypto, compressor, plain, 0, plain.length);
+					wsSession.getBasicRemote().sendBinary(ByteBuffer.wrap(encrypted));
+					return true;
+				}
+
+				JsonOutput json = shared != null ? shared.json() : JsonOutput.write(payload);
+				byte[] encrypted = seal(crypto, compressor, json.buffer(), 0, json.length());
+				wsSession.getBasicRemote().sendText(Base64.getEncoder().encodeToString(encrypted));
+				return true;
+			}
 		} catch (Exception e) {
 			LOGGER.error("Failed to send encrypted message to {}", wsSessionId, e);
+			return false;
+		}
+	}
+
+	/** Compresses the message if the connection negotiated it, then encrypts it */
+	private static byte[] seal(CryptoContext crypto, MessageCompressor compressor, byte[] plain, int offset,
+			int length) throws Exception {
+		if (compressor == null) {
+			return crypto.encrypt(plain, offset, length);
 		}
+		return crypto.encrypt(compressor.compress(plain, offset, length));
+	}
+
+	/** Decrypts an incoming message and undoes compression if negotiated */
+	private static byte[] open(String sessionId, byte[] message) throws Exception {
+		ConnectionContext connection = CONNECTIONS.get(sessionId);
+		return connection.decompress(connection.getCrypto().decrypt(message));
 	}
 
-	private void sendPlainJson(Session wsSession, JsonObject payload) {
+	private boolean sendPlainJson(Session wsSession, JsonObject payload) {
 		try {
 			String message = new BoxCodec().encode(new Box(payload));
 			wsSession.getBasicRemote().sendText(message);
+			return true;
 		} catch (Exception e) {
 			LOGGER.error("Failed to send plain message to {}", wsSession.getId(), e);
+			return false;
 		}
 	}
 
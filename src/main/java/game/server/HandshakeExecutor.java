@@ -0,0 +1,116 @@
+package game.server;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded worker pool for handshake crypto.
+ *
+ * Key exchanges run here instead of on the container threads that handle
+ * in-game messages, so a burst of new connections cannot delay turns in
+ * running matches. The queue is bounded; when it is full new handshakes are
+ * rejected right away rather than piling up. Queue depth and handshake
+ * latency (arrival to finish) are tracked and published over JMX.
+ */
+public class HandshakeExecutor implements HandshakeExecutorMXBean {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(HandshakeExecutor.class);
+
+	private final ThreadPoolExecutor pool;
+	private final LongAdder completed = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+	private final LongAdder totalLatencyNanos = new LongAdder();
+	private final LongAccumulator maxLatencyNanos = new LongAccumulator(Math::max, 0);
+
+	/**
+	 * @param workers       number of handshake threads
+	 * @param queueCapacity handshakes that may wait for a worker
+	 */
+	public HandshakeExecutor(int workers, int queueCapacity) {
+		AtomicInteger threadCount = new AtomicInteger();
+		this.pool = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueCapacity), r -> {
+					Thread t = new Thread(r, "handshake-" + threadCount.incrementAndGet());
+					t.setDaemon(true);
+					return t;
+				}, new ThreadPoolExecutor.AbortPolicy());
+	}
+
+	/**
+	 * Queues a handshake.
+	 *
+	 * @throws RejectedExecutionException if the queue is full
+	 */
+	public void submit(Runnable handshake) {
+		long arrived = System.nanoTime();
+		try {
+			pool.execute(() -> {
+				try {
+					handshake.run();
+				} finally {
+					long latency = System.nanoTime() - arrived;
+					totalLatencyNanos.add(latency);
+					maxLatencyNanos.accumulate(latency);
+					completed.increment();
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			rejected.increment();
+			throw e;
+		}
+	}
+
+	/**
+	 * Publishes the metrics over JMX; failures are logged and ignored.
+	 */
+	public void registerMBean() {
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this,
+					new ObjectName("game.server:type=HandshakeExecutor"));
+		} catch (Exception e) {
+			LOGGER.warn("Could not register handshake metrics: {}", e.getMessage());
+		}
+	}
+
+	@Override
+	public int getQueueDepth() {
+		return pool.getQueue().size();
+	}
+
+	@Override
+	public int getActiveCount() {
+		return pool.getActiveCount();
+	}
+
+	@Override
+	public long getCompletedCount() {
+		return completed.sum();
+	}
+
+	@Override
+	public long getRejectedCount() {
+		return rejected.sum();
+	}
+
+	@Override
+	public double getAverageLatencyMillis() {
+		long count = completed.sum();
+		return count == 0 ? 0 : totalLatencyNanos.sum() / 1e6 / count;
+	}
+
+	@Override
+	public double getMaxLatencyMillis() {
+		return maxLatencyNanos.get() / 1e6;
+	}
+}
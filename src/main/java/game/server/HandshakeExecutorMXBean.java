@@ -0,0 +1,23 @@
+package game.server;
+
+/**
+ * JMX view of the handshake worker pool.
+ */
+public interface HandshakeExecutorMXBean {
+
+	/** Handshakes waiting for a worker */
+	int getQueueDepth();
+
+	/** Handshakes currently being processed */
+	int getActiveCount();
+
+	long getCompletedCount();
+
+	/** Handshakes turned away because the queue was full */
+	long getRejectedCount();
+
+	/** Mean time from arrival to finished handshake, including queueing */
+	double getAverageLatencyMillis();
+
+	double getMaxLatencyMillis();
+}
@@ -0,0 +1,232 @@
+package game.server;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+
+import game.common.CryptoUtils;
+
+/**
+ * Issues and redeems session resumption tickets.
+ *
+ * A ticket is the client's session key and username sealed with a server-only
+ * AES-GCM ticket key. The client keeps it and presents it on reconnect; the
+ * server opens it and derives a fresh session key from it, so no asymmetric
+ * crypto is needed.
+ *
+ * Tickets are single-use: the nonce of every redeemed ticket is remembered
+ * until the ticket would have expired anyway, and a second redemption is
+ * refused. Each successful handshake hands the client a new ticket. The
+ * redeemed set is kept in memory only, so a ticket redeemed before a restart
+ * can be redeemed once more after it, within its lifetime.
+ *
+ * Ticket layout (Base64): keyId(1) | nonce(12) | GCM(issuedAt(8) | keyLength(1)
+ * | key | username). The ticket key is rotated every {@code rotationInterval};
+ * the previous key is still accepted so tickets issued just before a rotation
+ * stay valid for their full lifetime.
+ *
+ * With a {@link ServerKeyStore}, both ticket keys and their ids are kept in
+ * the server key file, so tickets issued before a restart can still be
+ * redeemed after it and rotation carries on where it left off.
+ */
+public class ResumptionTickets {
+
+	private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+	private static final int TAG_BITS = 128;
+	private static final int NONCE_BYTES = 12;
+
+	/** A successfully redeemed ticket */
+	public record Resumption(SecretKey sessionKey, String username) {
+	}
+
+	/** One ticket key and the id tickets sealed with it carry */
+	record TicketKey(byte id, SecretKey key, long createdAt) {
+	}
+
+	/** The keys in use; previous is null until the first rotation */
+	record TicketKeys(TicketKey current, TicketKey previous) {
+	}
+
+	private final long lifetimeMillis;
+	private final long rotationMillis;
+	private final LongSupplier clock;
+	private final ServerKeyStore store; // null keeps the keys in memory only
+	private final SecureRandom random = new SecureRandom();
+	// Nonces of redeemed tickets, mapped to when the ticket expires
+	private final Map<ByteBuffer, Long> redeemed = new HashMap<>();
+
+	private TicketKey current;
+	private TicketKey previous;
+
+	/**
+	 * @param lifetime         how long an issued ticket can be redeemed
+	 * @param rotationInterval how long a ticket key is used for new tickets;
+	 *                         must not be shorter than the lifetime
+	 */
+	public ResumptionTickets(Duration lifetime, Duration rotationInterval) {
+		this(lifetime, rotationInterval, null, System::currentTimeMillis);
+	}
+
+	/**
+	 * Like {@link #ResumptionTickets(Duration, Duration)}, but loads the ticket
+	 * keys from the store and saves them there whenever they change.
+	 */
+	public ResumptionTickets(Duration lifetime, Duration rotationInterval, ServerKeyStore store) {
+		this(lifetime, rotationInterval, store, System::currentTimeMillis);
+	}
+
+	ResumptionTickets(Duration lifetime, Duration rotationInterval, LongSupplier clock) {
+		this(lifetime, rotationInterval, null, clock);
+	}
+
+	ResumptionTickets(Duration lifetime, Duration rotationInterval, ServerKeyStore store, LongSupplier clock) {
+		if (lifetime.isNegative() || lifetime.isZero()) {
+			throw new IllegalArgumentException("Ticket lifetime must be positive: " + lifetime);
+		}
+		if (rotationInterval.compareTo(lifetime) < 0) {
+			throw new IllegalArgumentException(
+					"Ticket key rotation interval must be at least the ticket lifetime.");
+		}
+		this.lifetimeMillis = lifetime.toMillis();
+		this.rotationMillis = rotationInterval.toMillis();
+		this.clock = clock;
+		this.store = store;
+
+		TicketKeys saved = store != null ? store.loadTicketKeys() : null;
+		if (saved != null) {
+			current = saved.current();
+			previous = saved.previous();
+			// The server may have been down past a rotation
+			rotateIfDue(clock.getAsLong());
+		} else {
+			current = newKey((byte) 0, clock.getAsLong());
+			save();
+		}
+	}
+
+	public long getLifetimeSeconds() {
+		return lifetimeMillis / 1000;
+	}
+
+	/**
+	 * Seals a ticket for the given session.
+	 *
+	 * @return the Base64 encoded ticket
+	 */
+	public synchronized String issue(SecretKey sessionKey, String username) throws GeneralSecurityException {
+		long now = clock.getAsLong();
+		rotateIfDue(now);
+
+		byte[] keyBytes = sessionKey.getEncoded();
+		byte[] nameBytes = username.getBytes(StandardCharsets.UTF_8);
+		ByteBuffer plain = ByteBuffer.allocate(8 + 1 + keyBytes.length + nameBytes.length);
+		plain.putLong(now).put((byte) keyBytes.length).put(keyBytes).put(nameBytes);
+
+		byte[] nonce = new byte[NONCE_BYTES];
+		random.nextBytes(nonce);
+		Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+		cipher.init(Cipher.ENCRYPT_MODE, current.key(), new GCMParameterSpec(TAG_BITS, nonce));
+		cipher.updateAAD(new byte[] { current.id() });
+		byte[] sealed = cipher.doFinal(plain.array());
+
+		ByteBuffer ticket = ByteBuffer.allocate(1 + NONCE_BYTES + sealed.length);
+		ticket.put(current.id()).put(nonce).put(sealed);
+		return Base64.getEncoder().encodeToString(ticket.array());
+	}
+
+	/**
+	 * Opens a ticket.
+	 *
+	 * @return the session it was issued for, or empty if the ticket is
+	 *         malformed, forged, expired, sealed with a retired key or was
+	 *         already redeemed
+	 */
+	public synchronized Optional<Resumption> redeem(String ticket) {
+		long now = clock.getAsLong();
+		rotateIfDue(now);
+		redeemed.values().removeIf(expiresAt -> expiresAt <= now);
+
+		try {
+			byte[] bytes = Base64.getDecoder().decode(ticket);
+			if (bytes.length < 1 + NONCE_BYTES + TAG_BITS / 8) {
+				return Optional.empty();
+			}
+			TicketKey ticketKey = keyFor(bytes[0]);
+			if (ticketKey == null) {
+				return Optional.empty();
+			}
+
+			Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+			cipher.init(Cipher.DECRYPT_MODE, ticketKey.key(),
+					new GCMParameterSpec(TAG_BITS, bytes, 1, NONCE_BYTES));
+			cipher.updateAAD(bytes, 0, 1);
+			ByteBuffer plain = ByteBuffer.wrap(
+					cipher.doFinal(bytes, 1 + NONCE_BYTES, bytes.length - 1 - NONCE_BYTES));
+
+			long issuedAt = plain.getLong();
+			if (now - issuedAt >= lifetimeMillis || issuedAt > now) {
+				return Optional.empty();
+			}
+			ByteBuffer nonce = ByteBuffer.wrap(Arrays.copyOfRange(bytes, 1, 1 + NONCE_BYTES));
+			if (redeemed.putIfAbsent(nonce, issuedAt + lifetimeMillis) != null) {
+				return Optional.empty();
+			}
+			byte[] keyBytes = new byte[plain.get() & 0xFF];
+			plain.get(keyBytes);
+			byte[] nameBytes = new byte[plain.remaining()];
+			plain.get(nameBytes);
+			return Optional.of(new Resumption(CryptoUtils.bytesToAesKey(keyBytes),
+					new String(nameBytes, StandardCharsets.UTF_8)));
+		} catch (IllegalArgumentException | BufferUnderflowException | GeneralSecurityException e) {
+			return Optional.empty();
+		}
+	}
+
+	private TicketKey keyFor(byte id) {
+		if (current.id() == id) {
+			return current;
+		}
+		if (previous != null && previous.id() == id) {
+			return previous;
+		}
+		return null;
+	}
+
+	private void rotateIfDue(long now) {
+		if (now - current.createdAt() < rotationMillis) {
+			return;
+		}
+		// Tickets sealed with the outgoing key expire within one lifetime, and
+		// the rotation interval is never shorter, so one previous key is enough.
+		previous = current;
+		current = newKey((byte) (current.id() + 1), now);
+		save();
+	}
+
+	private void save() {
+		if (store != null) {
+			store.saveTicketKeys(new TicketKeys(current, previous));
+		}
+	}
+
+	private static TicketKey newKey(byte id, long now) {
+		try {
+			return new TicketKey(id, CryptoUtils.generateAESKey(), now);
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException("Failed to generate ticket key", e);
+		}
+	}
+}
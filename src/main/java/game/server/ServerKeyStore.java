@@ -0,0 +1,310 @@
+package game.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import game.common.CryptoUtils;
+
+/**
+ * Long-lived handshake key material, persisted in a local key file.
+ *
+ * Keys are read from the file when it exists, so startup never waits for RSA
+ * key generation. The first time (or when the file is unreadable) new keys are
+ * generated on a background thread and written to the file; until then
+ * {@link #current()} is an incomplete future.
+ *
+ * Each key set has an id that the server sends in its hello and the client
+ * echoes back. On {@link #rotate()} the outgoing set is kept as the previous
+ * set, so handshakes that started with it can still finish.
+ *
+ * The same file also holds the resumption ticket keys (see
+ * {@link ResumptionTickets}), so tickets outlive a server restart.
+ */
+public final class ServerKeyStore {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ServerKeyStore.class);
+
+	/** One generation of handshake keys */
+	public record KeySet(int id, long createdAt, KeyPair rsa, KeyPair x25519) {
+	}
+
+	private final Path file;
+	private final Duration maxAge;
+	private final ScheduledExecutorService keygen;
+
+	private volatile CompletableFuture<KeySet> current;
+	private volatile KeySet previous;
+	private CompletableFuture<KeySet> rotating; // guarded by this
+
+	// Last written contents of the key file, guarded by fileLock
+	private final Object fileLock = new Object();
+	private KeySet savedKeys;
+	private ResumptionTickets.TicketKeys ticketKeys;
+
+	/**
+	 * Loads the key file, or starts generating keys in the background if it
+	 * does not exist yet.
+	 *
+	 * @param file   path of the key file
+	 * @param maxAge key sets older than this are rotated automatically
+	 */
+	public ServerKeyStore(Path file, Duration maxAge) {
+		this.file = file;
+		this.maxAge = maxAge;
+		this.keygen = new ScheduledThreadPoolExecutor(1, r -> {
+			Thread t = new Thread(r, "server-keygen");
+			t.setDaemon(true);
+			return t;
+		});
+
+		Properties props = readFile();
+		KeySet loaded = props != null ? parseKeySet(props) : null;
+		this.savedKeys = loaded;
+		this.ticketKeys = props != null ? parseTicketKeys(props) : null;
+		if (loaded != null) {
+			current = CompletableFuture.completedFuture(loaded);
+			LOGGER.info("Loaded server keys {} from {}", loaded.id(), file);
+		} else {
+			current = CompletableFuture.supplyAsync(() -> generateAndSave(1), keygen);
+		}
+
+		long checkMillis = Math.max(1000, maxAge.toMillis() / 24);
+		keygen.scheduleWithFixedDelay(this::rotateIfExpired, 0, checkMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * The key set new handshakes should use. Completes once the first key set
+	 * is available.
+	 */
+	public CompletableFuture<KeySet> current() {
+		return current;
+	}
+
+	/**
+	 * Finds the key set a handshake was started with.
+	 *
+	 * @throws IllegalStateException if the id belongs to a retired key set or
+	 *                               no keys are available yet
+	 */
+	public KeySet forId(int id) {
+		KeySet now = current.getNow(null);
+		if (now != null && now.id() == id) {
+			return now;
+		}
+		KeySet old = previous;
+		if (old != null && old.id() == id) {
+			return old;
+		}
+		throw new IllegalStateException("Unknown or retired server key set: " + id);
+	}
+
+	/**
+	 * Generates a new key set in the background and makes it current once it
+	 * is ready. The outgoing set stays usable for handshakes already started.
+	 *
+	 * @return a future completing with the new key set
+	 */
+	public synchronized CompletableFuture<KeySet> rotate() {
+		if (rotating != null) {
+			return rotating;
+		}
+		CompletableFuture<KeySet> next = current.thenApplyAsync(old -> {
+			// Keep serving the old keys until the new ones are written
+			KeySet fresh = generateAndSave(old.id() + 1);
+			synchronized (this) {
+				previous = old;
+				current = CompletableFuture.completedFuture(fresh);
+				rotating = null;
+			}
+			LOGGER.info("Rotated server keys to {}", fresh.id());
+			return fresh;
+		}, keygen);
+		rotating = next.whenComplete((fresh, error) -> {
+			if (error != null) {
+				LOGGER.error("Server key rotation failed", error);
+				synchronized (this) {
+					rotating = null;
+				}
+			}
+		});
+		return rotating;
+	}
+
+	private void rotateIfExpired() {
+		KeySet now = current.getNow(null);
+		if (now != null && System.currentTimeMillis() - now.createdAt() >= maxAge.toMillis()) {
+			rotate();
+		}
+	}
+
+	// --- Key file ---
+
+	private KeySet generateAndSave(int id) {
+		long start = System.nanoTime();
+		try {
+			KeySet keys = new KeySet(id, System.currentTimeMillis(),
+					CryptoUtils.generateRSAKeyPair(), CryptoUtils.generateX25519KeyPair());
+			save(keys);
+			LOGGER.info("Generated server keys {} in {} ms", id, (System.nanoTime() - start) / 1_000_000);
+			return keys;
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException("Failed to generate server keys", e);
+		}
+	}
+
+	/**
+	 * The ticket keys saved in the key file, or null if there are none.
+	 */
+	public ResumptionTickets.TicketKeys loadTicketKeys() {
+		synchronized (fileLock) {
+			return ticketKeys;
+		}
+	}
+
+	/**
+	 * Writes the ticket keys to the key file, next to the server keys.
+	 */
+	public void saveTicketKeys(ResumptionTickets.TicketKeys keys) {
+		synchronized (fileLock) {
+			ticketKeys = keys;
+			write();
+		}
+	}
+
+	private Properties readFile() {
+		if (!Files.isRegularFile(file)) {
+			return null;
+		}
+		Properties props = new Properties();
+		try (InputStream in = Files.newInputStream(file)) {
+			props.load(in);
+			return props;
+		} catch (IOException | RuntimeException e) {
+			LOGGER.warn("Could not read server key file {}, generating new keys: {}", file, e.getMessage());
+			return null;
+		}
+	}
+
+	private KeySet parseKeySet(Properties props) {
+		try {
+			return new KeySet(
+					Integer.parseInt(props.getProperty("id")),
+					Long.parseLong(props.getProperty("created")),
+					decodeKeyPair("RSA", props.getProperty("rsa.public"), props.getProperty("rsa.private")),
+					decodeKeyPair("X25519", props.getProperty("x25519.public"),
+							props.getProperty("x25519.private")));
+		} catch (RuntimeException | GeneralSecurityException e) {
+			LOGGER.warn("Could not read server key file {}, generating new keys: {}", file, e.getMessage());
+			return null;
+		}
+	}
+
+	private ResumptionTickets.TicketKeys parseTicketKeys(Properties props) {
+		if (props.getProperty("ticket.id") == null) {
+			return null;
+		}
+		try {
+			return new ResumptionTickets.TicketKeys(parseTicketKey(props, "ticket."),
+					props.getProperty("ticket.previous.id") != null
+							? parseTicketKey(props, "ticket.previous.")
+							: null);
+		} catch (RuntimeException e) {
+			LOGGER.warn("Could not read ticket keys from {}, starting new ones: {}", file, e.getMessage());
+			return null;
+		}
+	}
+
+	private static ResumptionTickets.TicketKey parseTicketKey(Properties props, String prefix) {
+		return new ResumptionTickets.TicketKey(
+				(byte) Integer.parseInt(props.getProperty(prefix + "id")),
+				CryptoUtils.bytesToAesKey(Base64.getDecoder().decode(props.getProperty(prefix + "key"))),
+				Long.parseLong(props.getProperty(prefix + "created")));
+	}
+
+	private void save(KeySet keys) {
+		synchronized (fileLock) {
+			savedKeys = keys;
+			write();
+		}
+	}
+
+	// Writes savedKeys and ticketKeys; caller holds fileLock
+	private void write() {
+		Properties props = new Properties();
+		if (savedKeys != null) {
+			props.setProperty("id", Integer.toString(savedKeys.id()));
+			props.setProperty("created", Long.toString(savedKeys.createdAt()));
+			props.setProperty("rsa.public", encode(savedKeys.rsa().getPublic().getEncoded()));
+			props.setProperty("rsa.private", encode(savedKeys.rsa().getPrivate().getEncoded()));
+			props.setProperty("x25519.public", encode(savedKeys.x25519().getPublic().getEncoded()));
+			props.setProperty("x25519.private", encode(savedKeys.x25519().getPrivate().getEncoded()));
+		}
+		if (ticketKeys != null) {
+			putTicketKey(props, "ticket.", ticketKeys.current());
+			if (ticketKeys.previous() != null) {
+				putTicketKey(props, "ticket.previous.", ticketKeys.previous());
+			}
+		}
+
+		try {
+			Path dir = file.toAbsolutePath().getParent();
+			Files.createDirectories(dir);
+			Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+			try {
+				Files.setPosixFilePermissions(tmp, PosixFilePermissions.fromString("rw-------"));
+			} catch (UnsupportedOperationException e) {
+				// Not a POSIX file system
+			}
+			try (OutputStream out = Files.newOutputStream(tmp)) {
+				props.store(out, "BattleGrid server keys - keep private");
+			}
+			try {
+				Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (IOException e) {
+			// Keys still work for this run, they just change on restart
+			LOGGER.error("Failed to write server key file {}", file, e);
+		}
+	}
+
+	private static void putTicketKey(Properties props, String prefix, ResumptionTickets.TicketKey key) {
+		props.setProperty(prefix + "id", Integer.toString(key.id() & 0xFF));
+		props.setProperty(prefix + "created", Long.toString(key.createdAt()));
+		props.setProperty(prefix + "key", encode(key.key().getEncoded()));
+	}
+
+	private static KeyPair decodeKeyPair(String algorithm, String publicKey, String privateKey)
+			throws GeneralSecurityException {
+		KeyFactory factory = KeyFactory.getInstance(algorithm);
+		return new KeyPair(
+				factory.generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(publicKey))),
+				factory.generatePrivate(new PKCS8EncodedKeySpec(Base64.getDecoder().decode(privateKey))));
+	}
+
+	private static String encode(byte[] bytes) {
+		return Base64.getEncoder().encodeToString(bytes);
+	}
+}
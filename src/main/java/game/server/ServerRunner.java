@@ -10,6 +10,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import game.common.Constants;
+import game.server.game.BoardPool;
 
 /**
  * Starts the BattleGrid WebSocket server.
@@ -22,6 +23,15 @@ public class ServerRunner {
         Server server = new Server("0.0.0.0", Constants.SERVER_PORT, "/websockets",
                 null, GameServerEndpoint.class);
 
+        // Ready boards per game mode; -Dbattlegrid.boardPoolSize=0 disables pooling
+        BoardPool boardPool = new BoardPool(
+                Integer.getInteger("battlegrid.boardPoolSize", Constants.BOARD_POOL_SIZE));
+        GameServerEndpoint.useBoardPool(boardPool);
+
+        // Read the key file (or start generating keys) before accepting connections
+        GameServerEndpoint.loadServerKeys().thenAccept(
+                keys -> LOGGER.info("Server keys ready (key set {}).", keys.id()));
+
         try {
             server.start();
 
@@ -42,6 +52,7 @@ public class ServerRunner {
             LOGGER.error("Failed to start server", e);
         } finally {
             server.stop();
+            boardPool.shutdown();
             LOGGER.info("Server stopped.");
         }
     }
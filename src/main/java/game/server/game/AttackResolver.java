@@ -1,9 +1,7 @@
 package game.server.game;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 import game.common.model.Board;
 import game.common.model.CellState;
@@ -15,6 +13,10 @@ import game.common.model.WeaponType;
 /**
  * Resolves weapon attacks against a target board.
  * Computes affected tiles, applies damage, detects sinks and game-over.
+ *
+ * Resolution is a single pass over the weapon's precomputed footprint: sink
+ * events come straight from the board and hit/miss counts are tallied as
+ * tiles are applied.
  */
 public class AttackResolver {
 
@@ -30,37 +32,37 @@ public class AttackResolver {
     public AttackResult resolve(Board defenderBoard, WeaponType weapon,
             Coordinate target, Direction direction) {
 
-        List<Coordinate> affectedTiles = WeaponPatterns.getAffectedTiles(
-                weapon, target, direction, defenderBoard.getSize());
+        int size = defenderBoard.getSize();
+        int[] footprint = WeaponPatterns.getFootprint(
+                weapon, direction, size, target.row(), target.col());
 
-        List<AttackResult.TileResult> tileResults = new ArrayList<>();
-        Set<Ship> newlySunkShips = new HashSet<>();
+        byte[] outcomes = new byte[footprint.length];
+        List<Ship> sunkShips = List.of();
+        int hits = 0;
+        int misses = 0;
 
-        for (Coordinate tile : affectedTiles) {
-            // Track which ships were already sunk before this attack
-            Set<Ship> previouslySunk = new HashSet<>();
-            for (Ship s : defenderBoard.getShips()) {
-                if (s.isSunk()) {
-                    previouslySunk.add(s);
+        for (int i = 0; i < footprint.length; i++) {
+            CellState outcome = defenderBoard.attack(footprint[i]);
+            outcomes[i] = (byte) outcome.ordinal();
+
+            switch (outcome) {
+                case HIT, SUNK -> hits++;
+                case MISS -> misses++;
+                default -> {
+                    // EMPTY and SHIP are never returned by an attack
                 }
             }
 
-            CellState outcome = defenderBoard.attack(tile);
-            tileResults.add(new AttackResult.TileResult(tile, outcome));
-
-            // Check if any ship just became sunk
-            if (outcome == CellState.SUNK) {
-                for (Ship s : defenderBoard.getShips()) {
-                    if (s.isSunk() && !previouslySunk.contains(s)) {
-                        newlySunkShips.add(s);
-                    }
+            Ship sunk = defenderBoard.getLastSunkShip();
+            if (sunk != null) {
+                if (sunkShips.isEmpty()) {
+                    sunkShips = new ArrayList<>(2);
                 }
+                sunkShips.add(sunk);
             }
         }
 
-        boolean gameOver = defenderBoard.allShipsSunk();
-
-        return new AttackResult(weapon, target,
-                tileResults, new ArrayList<>(newlySunkShips), gameOver);
+        return new AttackResult(weapon, target, size, footprint, outcomes,
+                sunkShips, hits, misses, defenderBoard.allShipsSunk());
     }
 }
@@ -1,5 +1,7 @@
 package game.server.game;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import game.common.model.CellState;
@@ -9,9 +11,14 @@ import game.common.model.WeaponType;
 
 /**
  * Represents the result of firing a weapon at the board.
+ *
+ * Tiles are stored as row-major cell indices with a parallel array of
+ * outcome ordinals; hit and miss counts are computed once by the resolver.
  */
 public class AttackResult {
 
+    private static final CellState[] STATES = CellState.values();
+
     /**
      * Result for a single tile within an attack.
      */
@@ -20,16 +27,32 @@ public class AttackResult {
 
     private final WeaponType weapon;
     private final Coordinate target;
-    private final List<TileResult> tileResults;
+    private final int gridSize;
+    private final int[] tileCells;
+    private final byte[] tileOutcomes;
     private final List<Ship> sunkShips;
+    private final int hits;
+    private final int misses;
     private final boolean gameOver;
 
-    public AttackResult(WeaponType weapon, Coordinate target,
-            List<TileResult> tileResults, List<Ship> sunkShips, boolean gameOver) {
+    private List<TileResult> tileResults; // built on first request
+
+    /**
+     * @param gridSize     size of the attacked board (to decode cell indices)
+     * @param tileCells    row-major cell index of each affected tile
+     * @param tileOutcomes {@link CellState} ordinal for each affected tile
+     */
+    public AttackResult(WeaponType weapon, Coordinate target, int gridSize,
+            int[] tileCells, byte[] tileOutcomes, List<Ship> sunkShips,
+            int hits, int misses, boolean gameOver) {
         this.weapon = weapon;
         this.target = target;
-        this.tileResults = tileResults;
+        this.gridSize = gridSize;
+        this.tileCells = tileCells;
+        this.tileOutcomes = tileOutcomes;
         this.sunkShips = sunkShips;
+        this.hits = hits;
+        this.misses = misses;
         this.gameOver = gameOver;
     }
 
@@ -41,7 +64,27 @@ public class AttackResult {
         return target;
     }
 
+    /** Number of tiles affected by this attack */
+    public int getTileCount() {
+        return tileCells.length;
+    }
+
+    public Coordinate getTileCoordinate(int i) {
+        return Coordinate.of(tileCells[i] / gridSize, tileCells[i] % gridSize);
+    }
+
+    public CellState getTileOutcome(int i) {
+        return STATES[tileOutcomes[i]];
+    }
+
     public List<TileResult> getTileResults() {
+        if (tileResults == null) {
+            List<TileResult> list = new ArrayList<>(tileCells.length);
+            for (int i = 0; i < tileCells.length; i++) {
+                list.add(new TileResult(getTileCoordinate(i), getTileOutcome(i)));
+            }
+            tileResults = Collections.unmodifiableList(list);
+        }
         return tileResults;
     }
 
@@ -56,14 +99,10 @@ public class AttackResult {
     }
 
     public int hitCount() {
-        return (int) tileResults.stream()
-                .filter(r -> r.outcome() == CellState.HIT || r.outcome() == CellState.SUNK)
-                .count();
+        return hits;
     }
 
     public int missCount() {
-        return (int) tileResults.stream()
-                .filter(r -> r.outcome() == CellState.MISS)
-                .count();
+        return misses;
     }
 }
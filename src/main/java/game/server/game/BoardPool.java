@@ -0,0 +1,106 @@
+package game.server.game;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import game.common.model.Board;
+import game.common.model.GameMode;
+
+/**
+ * Keeps a small stock of ready-made boards per game mode so that game setup
+ * does not have to run ship placement on the message-handling thread.
+ * Boards are generated and refilled on a single background thread.
+ */
+public class BoardPool {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BoardPool.class);
+
+    private final int boardsPerMode;
+    private final Map<GameMode, BlockingQueue<Board>> ready = new EnumMap<>(GameMode.class);
+    private final Map<GameMode, AtomicBoolean> refillPending = new EnumMap<>(GameMode.class);
+    private final ShipPlacer shipPlacer; // only used on the filler thread
+    private final ExecutorService filler;
+
+    /**
+     * Creates a pool and starts filling it in the background.
+     *
+     * @param boardsPerMode number of boards to keep ready for each mode
+     *                      (0 disables pooling)
+     */
+    public BoardPool(int boardsPerMode) {
+        this.boardsPerMode = boardsPerMode;
+        this.shipPlacer = new ShipPlacer();
+        this.filler = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "board-pool");
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+
+        for (GameMode mode : GameMode.values()) {
+            ready.put(mode, new ArrayBlockingQueue<>(Math.max(1, boardsPerMode)));
+            refillPending.put(mode, new AtomicBoolean(false));
+            scheduleRefill(mode);
+        }
+    }
+
+    /**
+     * Takes a ready board for the given mode and triggers a refill.
+     *
+     * @return a fresh board, or null if none is ready (caller places inline)
+     */
+    public Board take(GameMode mode) {
+        Board board = ready.get(mode).poll();
+        scheduleRefill(mode);
+        return board;
+    }
+
+    /**
+     * Returns the number of boards currently ready for the given mode.
+     */
+    public int available(GameMode mode) {
+        return ready.get(mode).size();
+    }
+
+    /**
+     * Stops the background filler. Boards already pooled can still be taken.
+     */
+    public void shutdown() {
+        filler.shutdownNow();
+    }
+
+    private void scheduleRefill(GameMode mode) {
+        if (boardsPerMode <= 0 || filler.isShutdown()) {
+            return;
+        }
+        if (refillPending.get(mode).compareAndSet(false, true)) {
+            filler.execute(() -> refill(mode));
+        }
+    }
+
+    private void refill(GameMode mode) {
+        BlockingQueue<Board> queue = ready.get(mode);
+        try {
+            while (queue.remainingCapacity() > 0 && !Thread.currentThread().isInterrupted()) {
+                queue.offer(shipPlacer.placeShips(mode));
+            }
+        } catch (RuntimeException e) {
+            LOGGER.error("Failed to pre-generate board for {}", mode.getDisplayName(), e);
+            return;
+        } finally {
+            refillPending.get(mode).set(false);
+        }
+        // A board may have been taken after the last capacity check
+        if (queue.remainingCapacity() > 0) {
+            scheduleRefill(mode);
+        }
+    }
+}
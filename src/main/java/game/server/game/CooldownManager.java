@@ -1,25 +1,37 @@
 package game.server.game;
 
+import java.util.ArrayList;
 import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
 import java.util.Map;
 
 import game.common.model.Board;
-import game.common.model.ShipType;
 import game.common.model.WeaponType;
 
 /**
  * Manages weapon cooldowns for a single player.
  * Cooldown value of 0 means ready; >0 means unavailable for that many turns.
+ *
+ * Cooldowns are kept in an int array indexed by weapon ordinal. Weapon
+ * availability is cached as a bitmask (bit = weapon ordinal) and only
+ * recomputed after a tick, a weapon being fired, or a change in the board's
+ * fleet (see {@link Board#getFleetVersion()}).
  */
 public class CooldownManager {
 
-    private final EnumMap<WeaponType, Integer> cooldowns;
+    private static final WeaponType[] WEAPONS = WeaponType.values();
+
+    private final int[] cooldowns;
+
+    // Cached availability bitmask and what it was computed against
+    private int availableMask;
+    private boolean cooldownsChanged = true;
+    private Board cachedBoard;
+    private int cachedFleetVersion;
 
     public CooldownManager() {
-        this.cooldowns = new EnumMap<>(WeaponType.class);
-        for (WeaponType weapon : WeaponType.values()) {
-            cooldowns.put(weapon, 0);
-        }
+        this.cooldowns = new int[WEAPONS.length];
     }
 
     /**
@@ -27,12 +39,12 @@ public class CooldownManager {
      * Decrements all active cooldowns by 1.
      */
     public void tickCooldowns() {
-        for (WeaponType weapon : WeaponType.values()) {
-            int current = cooldowns.get(weapon);
-            if (current > 0) {
-                cooldowns.put(weapon, current - 1);
+        for (int i = 0; i < cooldowns.length; i++) {
+            if (cooldowns[i] > 0) {
+                cooldowns[i]--;
             }
         }
+        cooldownsChanged = true;
     }
 
     /**
@@ -40,28 +52,33 @@ public class CooldownManager {
      * Sets the cooldown to the weapon's defined cooldown duration.
      */
     public void activateCooldown(WeaponType weapon) {
-        cooldowns.put(weapon, weapon.getCooldown());
+        cooldowns[weapon.ordinal()] = weapon.getCooldown();
+        cooldownsChanged = true;
     }
 
     /**
      * Returns true if the weapon is off cooldown (counter == 0).
      */
     public boolean isReady(WeaponType weapon) {
-        return cooldowns.get(weapon) == 0;
+        return cooldowns[weapon.ordinal()] == 0;
     }
 
     /**
      * Returns the remaining cooldown turns for a weapon.
      */
     public int getRemainingCooldown(WeaponType weapon) {
-        return cooldowns.get(weapon);
+        return cooldowns[weapon.ordinal()];
     }
 
     /**
      * Returns all cooldown values as a map.
      */
     public Map<WeaponType, Integer> getAllCooldowns() {
-        return new EnumMap<>(cooldowns);
+        Map<WeaponType, Integer> map = new EnumMap<>(WeaponType.class);
+        for (WeaponType weapon : WEAPONS) {
+            map.put(weapon, cooldowns[weapon.ordinal()]);
+        }
+        return map;
     }
 
     /**
@@ -74,26 +91,46 @@ public class CooldownManager {
      * @return true if the weapon can be fired this turn
      */
     public boolean isWeaponAvailable(WeaponType weapon, Board board) {
-        // Standard shot is always available as long as any ship lives
-        if (weapon == WeaponType.STANDARD_SHOT) {
-            return !board.allShipsSunk();
-        }
+        return isAvailable(getAvailabilityMask(board), weapon);
+    }
 
-        // Check cooldown
-        if (!isReady(weapon)) {
-            return false;
+    /**
+     * Returns the availability bitmask for this player: bit
+     * {@code weapon.ordinal()} is set if that weapon can be fired this turn.
+     *
+     * @param board the player's board
+     */
+    public int getAvailabilityMask(Board board) {
+        if (cooldownsChanged || board != cachedBoard || board.getFleetVersion() != cachedFleetVersion) {
+            availableMask = computeAvailabilityMask(board);
+            cooldownsChanged = false;
+            cachedBoard = board;
+            cachedFleetVersion = board.getFleetVersion();
         }
+        return availableMask;
+    }
 
-        // Check if the providing ship type is still alive
-        for (ShipType shipType : ShipType.values()) {
-            if (shipType.getWeapon() == weapon) {
-                if (board.aliveShipsOfType(shipType) > 0) {
-                    return true;
-                }
+    /**
+     * Returns true if the weapon's bit is set in an availability mask.
+     */
+    public static boolean isAvailable(int availabilityMask, WeaponType weapon) {
+        return (availabilityMask & (1 << weapon.ordinal())) != 0;
+    }
+
+    /**
+     * Returns the set of weapons currently available for this player.
+     *
+     * @param board the player's board
+     */
+    public EnumSet<WeaponType> getAvailableWeaponSet(Board board) {
+        int mask = getAvailabilityMask(board);
+        EnumSet<WeaponType> set = EnumSet.noneOf(WeaponType.class);
+        for (WeaponType weapon : WEAPONS) {
+            if (isAvailable(mask, weapon)) {
+                set.add(weapon);
             }
         }
-
-        return false;
+        return set;
     }
 
     /**
@@ -102,13 +139,25 @@ public class CooldownManager {
      * @param board the player's board
      * @return list of available weapon types
      */
-    public java.util.List<WeaponType> getAvailableWeapons(Board board) {
-        java.util.List<WeaponType> available = new java.util.ArrayList<>();
-        for (WeaponType weapon : WeaponType.values()) {
-            if (isWeaponAvailable(weapon, board)) {
-                available.add(weapon);
+    public List<WeaponType> getAvailableWeapons(Board board) {
+        return new ArrayList<>(getAvailableWeaponSet(board));
+    }
+
+    private int computeAvailabilityMask(Board board) {
+        int mask = 0;
+        for (WeaponType weapon : WEAPONS) {
+            boolean available;
+            if (weapon == WeaponType.STANDARD_SHOT) {
+                // Standard shot is always available as long as any ship lives
+                available = !board.allShipsSunk();
+            } else {
+                // Off cooldown and a ship providing this weapon is still alive
+                available = isReady(weapon) && board.aliveShipsWithWeapon(weapon) > 0;
+            }
+            if (available) {
+                mask |= 1 << weapon.ordinal();
             }
         }
-        return available;
+        return mask;
     }
 }
@@ -0,0 +1,87 @@
+package game.server.game;
+
+import game.common.model.Coordinate;
+import game.common.model.GameMode;
+import game.common.model.ShipType;
+import game.common.model.WeaponType;
+
+/**
+ * A single entry in the game's battle log.
+ * Events are stored as typed data and only turned into text by
+ * {@link #render()} when they are sent to a client.
+ *
+ * @param type     what happened
+ * @param player   username the event is about (attacker, ship owner, winner)
+ * @param mode     game mode, for {@link Type#GAME_STARTED}
+ * @param weapon   weapon fired, for {@link Type#ATTACK_FIRED}
+ * @param target   target tile, for {@link Type#ATTACK_FIRED}
+ * @param hits     number of tiles hit, for {@link Type#ATTACK_HITS}
+ * @param shipType type of the sunk ship, for {@link Type#SHIP_SUNK}
+ * @param shipId   id of the sunk ship, for {@link Type#SHIP_SUNK}
+ */
+public record GameEvent(Type type, String player, GameMode mode, WeaponType weapon,
+        Coordinate target, int hits, ShipType shipType, String shipId) {
+
+    public enum Type {
+        GAME_STARTED,
+        FIRST_TURN,
+        ATTACK_FIRED,
+        ATTACK_HITS,
+        ATTACK_MISSED,
+        SHIP_SUNK,
+        WIN,
+        FORFEIT,
+        WIN_BY_FORFEIT,
+        DISCONNECT,
+        WIN_BY_DISCONNECT
+    }
+
+    public static GameEvent gameStarted(GameMode mode) {
+        return new GameEvent(Type.GAME_STARTED, null, mode, null, null, 0, null, null);
+    }
+
+    public static GameEvent attackFired(String attacker, WeaponType weapon, Coordinate target) {
+        return new GameEvent(Type.ATTACK_FIRED, attacker, null, weapon, target, 0, null, null);
+    }
+
+    /**
+     * Outcome of an attack: {@link Type#ATTACK_HITS} if anything was hit,
+     * otherwise {@link Type#ATTACK_MISSED}.
+     */
+    public static GameEvent attackOutcome(int hits) {
+        Type type = hits > 0 ? Type.ATTACK_HITS : Type.ATTACK_MISSED;
+        return new GameEvent(type, null, null, null, null, hits, null, null);
+    }
+
+    public static GameEvent shipSunk(String owner, ShipType shipType, String shipId) {
+        return new GameEvent(Type.SHIP_SUNK, owner, null, null, null, 0, shipType, shipId);
+    }
+
+    /**
+     * Event that only concerns a player (first turn, win, forfeit, disconnect).
+     */
+    public static GameEvent of(Type type, String player) {
+        return new GameEvent(type, player, null, null, null, 0, null, null);
+    }
+
+    /**
+     * Renders the event as a battle log line.
+     */
+    public String render() {
+        return switch (type) {
+            case GAME_STARTED -> "Game started! Mode: " + mode.getDisplayName();
+            case FIRST_TURN -> player + " goes first.";
+            case ATTACK_FIRED -> player + " fired " + weapon.getDisplayName()
+                    + " at " + target.toDisplayString();
+            case ATTACK_HITS -> "  → " + hits + " hit(s)!";
+            case ATTACK_MISSED -> "  → All miss!";
+            case SHIP_SUNK -> "  → " + player + "'s " + shipType.getDisplayName()
+                    + " (" + shipId + ") SUNK!";
+            case WIN -> player + " wins the game!";
+            case FORFEIT -> player + " forfeited.";
+            case WIN_BY_FORFEIT -> player + " wins by forfeit!";
+            case DISCONNECT -> player + " disconnected.";
+            case WIN_BY_DISCONNECT -> player + " wins by disconnect!";
+        };
+    }
+}
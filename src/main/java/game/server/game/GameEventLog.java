@@ -0,0 +1,116 @@
+package game.server.game;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-capacity ring buffer of {@link GameEvent}s.
+ *
+ * Every appended event gets a sequence number (starting at 1) so that callers
+ * can ask for only the events newer than the last one they have seen. Once
+ * the buffer is full the oldest event is overwritten. Rendered text is cached
+ * per slot, so an event is turned into a string at most once no matter how
+ * many messages it is included in.
+ */
+public class GameEventLog {
+
+    private final GameEvent[] events;
+    private final String[] rendered;
+    private long latestSequence; // 0 = empty
+
+    /**
+     * @param capacity maximum number of events kept
+     */
+    public GameEventLog(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.events = new GameEvent[capacity];
+        this.rendered = new String[capacity];
+    }
+
+    /**
+     * Appends an event, overwriting the oldest one if the log is full.
+     *
+     * @return the sequence number assigned to the event
+     */
+    public long append(GameEvent event) {
+        latestSequence++;
+        int slot = slot(latestSequence);
+        events[slot] = event;
+        rendered[slot] = null;
+        return latestSequence;
+    }
+
+    /**
+     * Sequence number of the newest event, or 0 if nothing was logged yet.
+     */
+    public long latestSequence() {
+        return latestSequence;
+    }
+
+    /**
+     * Sequence number of the oldest event still held (latest + 1 if empty).
+     */
+    public long oldestSequence() {
+        return Math.max(1, latestSequence - events.length + 1);
+    }
+
+    /**
+     * Returns the event with the given sequence number.
+     *
+     * @throws IllegalArgumentException if the event was overwritten or does
+     *                                  not exist yet
+     */
+    public GameEvent get(long sequence) {
+        return events[checkedSlot(sequence)];
+    }
+
+    /**
+     * Returns the rendered text of the event with the given sequence number.
+     *
+     * @throws IllegalArgumentException if the event was overwritten or does
+     *                                  not exist yet
+     */
+    public String text(long sequence) {
+        int slot = checkedSlot(sequence);
+        String text = rendered[slot];
+        if (text == null) {
+            text = events[slot].render();
+            rendered[slot] = text;
+        }
+        return text;
+    }
+
+    /**
+     * Returns the text of up to {@code max} of the newest events whose
+     * sequence number is greater than {@code afterSequence}, oldest first.
+     */
+    public List<String> textSince(long afterSequence, int max) {
+        long from = Math.max(afterSequence + 1,
+                Math.max(oldestSequence(), latestSequence - max + 1));
+        List<String> list = new ArrayList<>((int) Math.max(0, latestSequence - from + 1));
+        for (long seq = from; seq <= latestSequence; seq++) {
+            list.add(text(seq));
+        }
+        return list;
+    }
+
+    /**
+     * Returns the text of the last {@code count} events, oldest first.
+     */
+    public List<String> recentText(int count) {
+        return textSince(0, count);
+    }
+
+    private int checkedSlot(long sequence) {
+        if (sequence < oldestSequence() || sequence > latestSequence) {
+            throw new IllegalArgumentException("Event " + sequence + " is not in the log.");
+        }
+        return slot(sequence);
+    }
+
+    private int slot(long sequence) {
+        return (int) ((sequence - 1) % events.length);
+    }
+}
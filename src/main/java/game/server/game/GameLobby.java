@@ -26,6 +26,18 @@ public class GameLobby {
     /** The session currently waiting for a second player (null if none) */
     private volatile GameSession waitingSession;
 
+    /** Pre-generated boards handed to new sessions (null places ships inline) */
+    private volatile BoardPool boardPool;
+
+    /**
+     * Sets the pool that sessions created from now on take their boards from.
+     *
+     * @param boardPool the pool, or null to place ships inline
+     */
+    public void setBoardPool(BoardPool boardPool) {
+        this.boardPool = boardPool;
+    }
+
     /**
      * Attempts to place a player into a game.
      * If a session is waiting for an opponent, the player joins it.
@@ -62,7 +74,7 @@ public class GameLobby {
 
     private JoinResult createNewWaitingSession(String wsSessionId, String username) {
         String sessionId = UUID.randomUUID().toString().substring(0, 8);
-        GameSession session = new GameSession(sessionId);
+        GameSession session = new GameSession(sessionId, boardPool);
         int playerIndex = session.addPlayer(wsSessionId, username);
 
         sessions.put(sessionId, session);
@@ -1,5 +1,6 @@
 package game.server.game;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
@@ -10,9 +11,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 
+import game.common.BoardCodec;
 import game.common.Constants;
+import game.common.SharedFragment;
 import game.common.model.Board;
 import game.common.model.CellState;
 import game.common.model.Coordinate;
@@ -30,6 +34,7 @@ public class GameSession {
     private static final Logger LOGGER = LoggerFactory.getLogger(GameSession.class);
 
     private final String sessionId;
+    private final BoardPool boardPool; // null places ships inline
     private GameState gameState;
     private final String[] sessionKeys; // WebSocket session IDs
     private GameMode[] modeVotes; // Each player's mode vote
@@ -37,6 +42,19 @@ public class GameSession {
     // Play again
     private final Boolean[] playAgainVotes = new Boolean[2];
 
+    // Sequence of the newest log event already sent to each player
+    private final long[] lastSentEvent = new long[2];
+
+    // Players whose client negotiated packed board snapshots
+    private final boolean[] packedBoards = new boolean[2];
+
+    // Players whose client applies board deltas (otherwise updates are snapshots)
+    private final boolean[] boardDeltas = { true, true };
+
+    // Board version each player's client holds (-1 = unknown, send a snapshot)
+    private final int[] ownBoardSynced = { -1, -1 };
+    private final int[] enemyBoardSynced = { -1, -1 };
+
     // Turn timeout
     private static final ScheduledExecutorService TIMER_POOL = new ScheduledThreadPoolExecutor(2, r -> {
         Thread t = new Thread(r, "turn-timer");
@@ -46,9 +64,35 @@ public class GameSession {
     private ScheduledFuture<?> turnTimeoutFuture;
     private Runnable onTurnTimeout; // callback set by the endpoint
 
+    /**
+     * Delivers messages to a player's connection; set by the endpoint.
+     */
+    public interface MessageSink {
+        void send(int playerIndex, OutboundMessage message);
+    }
+
+    private MessageSink messageSink;
+
+    // Mode list is the same for every game and player
+    private static final SharedFragment MODE_LIST = new SharedFragment(buildModeList());
+
+    // Attack fragments shared by attack_result and incoming_attack
+    private AttackResult sharedFragmentsFor;
+    private SharedFragment sharedTiles;
+    private SharedFragment sharedSunk;
+
     public GameSession(String sessionId) {
+        this(sessionId, null);
+    }
+
+    /**
+     * @param boardPool source of pre-generated boards for every game played
+     *                  in this session, or null to always place ships inline
+     */
+    public GameSession(String sessionId, BoardPool boardPool) {
         this.sessionId = sessionId;
-        this.gameState = new GameState();
+        this.boardPool = boardPool;
+        this.gameState = new GameState(boardPool);
         this.sessionKeys = new String[2];
         this.modeVotes = new GameMode[2];
     }
@@ -76,6 +120,22 @@ public class GameSession {
         return index;
     }
 
+    /**
+     * Sets whether full board snapshots for this player use the packed
+     * encoding (see {@link BoardCodec}) instead of a grid of state names.
+     */
+    public void setPackedBoards(int playerIndex, boolean packed) {
+        packedBoards[playerIndex] = packed;
+    }
+
+    /**
+     * Sets whether board updates for this player may be deltas. Clients that
+     * did not negotiate delta sync always get full snapshots.
+     */
+    public void setBoardDeltas(int playerIndex, boolean deltas) {
+        boardDeltas[playerIndex] = deltas;
+    }
+
     /**
      * Returns the player index for a given WebSocket session ID, or -1.
      */
@@ -152,6 +212,25 @@ public class GameSession {
         this.onTurnTimeout = callback;
     }
 
+    public void setMessageSink(MessageSink sink) {
+        this.messageSink = sink;
+    }
+
+    /**
+     * Sends the same payload to both players. It is serialized once per wire
+     * format and only encrypted per recipient.
+     *
+     * @throws IllegalStateException if no message sink was set
+     */
+    public void broadcast(JsonObject payload) {
+        if (messageSink == null) {
+            throw new IllegalStateException("No message sink set for session " + sessionId);
+        }
+        OutboundMessage message = new OutboundMessage(payload);
+        messageSink.send(0, message);
+        messageSink.send(1, message);
+    }
+
     /**
      * Starts the turn timeout timer. When it fires, the current player forfeits.
      */
@@ -201,11 +280,15 @@ public class GameSession {
         String username0 = gameState.getPlayer(0).getUsername();
         String username1 = gameState.getPlayer(1).getUsername();
 
-        this.gameState = new GameState();
+        this.gameState = new GameState(boardPool);
         gameState.addPlayer(username0);
         gameState.addPlayer(username1);
 
         this.modeVotes = new GameMode[2];
+        this.lastSentEvent[0] = 0;
+        this.lastSentEvent[1] = 0;
+        Arrays.fill(ownBoardSynced, -1);
+        Arrays.fill(enemyBoardSynced, -1);
         this.playAgainVotes[0] = null;
         this.playAgainVotes[1] = null;
 
@@ -213,6 +296,18 @@ public class GameSession {
                 sessionId, username0, username1);
     }
 
+    /**
+     * Records that a message built for this player went out, so the log
+     * events it carried (up to its "messageSeq") are not sent again. Until
+     * then every message repeats them, so a failed send loses nothing.
+     */
+    public void messageSent(int playerIndex, JsonObject payload) {
+        if (payload.has("messageSeq")) {
+            lastSentEvent[playerIndex] = Math.max(lastSentEvent[playerIndex],
+                    payload.get("messageSeq").getAsLong());
+        }
+    }
+
     /**
      * Returns true if the game is over.
      */
@@ -222,6 +317,19 @@ public class GameSession {
 
     // --- JSON Message Builders ---
 
+    /**
+     * The fragments that messages built since the last attack may share:
+     * the mode list and the current attack's tile results and sunk ships.
+     * Encoding a message with them (see {@link MessageBatch}) serializes
+     * each fragment once for both players.
+     */
+    public List<SharedFragment> getSharedFragments() {
+        if (sharedFragmentsFor == null) {
+            return List.of(MODE_LIST);
+        }
+        return List.of(MODE_LIST, sharedTiles, sharedSunk);
+    }
+
     /**
      * Builds the lobby_waiting message.
      */
@@ -240,6 +348,11 @@ public class GameSession {
         payload.addProperty("type", Constants.MSG_LOBBY_MODE_SELECT);
         payload.addProperty("opponentName", opponentName);
 
+        payload.add("modes", MODE_LIST.value());
+        return payload;
+    }
+
+    private static JsonArray buildModeList() {
         JsonArray modes = new JsonArray();
         for (GameMode mode : GameMode.values()) {
             JsonObject modeObj = new JsonObject();
@@ -249,8 +362,7 @@ public class GameSession {
             modeObj.addProperty("shipCount", mode.getShipCount());
             modes.add(modeObj);
         }
-        payload.add("modes", modes);
-        return payload;
+        return modes;
     }
 
     /**
@@ -271,7 +383,14 @@ public class GameSession {
         payload.add("yourShips", serializeShips(player.getBoard().getShips()));
 
         // Send this player's full board
-        payload.add("yourBoard", serializeBoard(player.getBoard(), true));
+        payload.add("yourBoard", serializeBoard(player.getBoard(), true, playerIndex));
+        ownBoardSynced[playerIndex] = player.getBoard().getVersion();
+
+        // The client starts from an empty enemy grid, which matches the
+        // fog-of-war view of the opponent's board at this version
+        int enemyVersion = opponent.getBoard().getVersion();
+        payload.addProperty("enemyBoardVersion", enemyVersion);
+        enemyBoardSynced[playerIndex] = enemyVersion;
 
         return payload;
     }
@@ -288,16 +407,16 @@ public class GameSession {
         payload.addProperty("timeoutSeconds", Constants.TURN_TIMEOUT_SECONDS);
 
         // Available weapons
-        List<WeaponType> available = player.getCooldownManager().getAvailableWeapons(player.getBoard());
+        CooldownManager cooldowns = player.getCooldownManager();
+        int availableMask = cooldowns.getAvailabilityMask(player.getBoard());
         JsonArray weaponsArray = new JsonArray();
         for (WeaponType weapon : WeaponType.values()) {
             JsonObject weaponObj = new JsonObject();
             weaponObj.addProperty("name", weapon.name());
             weaponObj.addProperty("displayName", weapon.getDisplayName());
             weaponObj.addProperty("description", weapon.getDescription());
-            weaponObj.addProperty("available", available.contains(weapon));
-            weaponObj.addProperty("cooldownRemaining",
-                    player.getCooldownManager().getRemainingCooldown(weapon));
+            weaponObj.addProperty("available", CooldownManager.isAvailable(availableMask, weapon));
+            weaponObj.addProperty("cooldownRemaining", cooldowns.getRemainingCooldown(weapon));
             weaponObj.addProperty("needsDirection", weapon == WeaponType.LINE_BARRAGE);
             weaponsArray.add(weaponObj);
         }
@@ -307,7 +426,7 @@ public class GameSession {
         payload.add("fleetStatus", serializeFleetStatus(player.getBoard()));
 
         // Recent messages
-        payload.add("messages", serializeMessages());
+        addNewMessages(payload, playerIndex);
 
         return payload;
     }
@@ -327,7 +446,7 @@ public class GameSession {
         // Still send fleet status and messages so the HUD can update
         payload.add("fleetStatus", serializeFleetStatus(
                 gameState.getPlayer(playerIndex).getBoard()));
-        payload.add("messages", serializeMessages());
+        addNewMessages(payload, playerIndex);
 
         return payload;
     }
@@ -345,39 +464,23 @@ public class GameSession {
         payload.addProperty("weapon", result.getWeapon().name());
         payload.addProperty("target", result.getTarget().toDisplayString());
 
-        // Tile results
-        JsonArray tilesArray = new JsonArray();
-        for (AttackResult.TileResult tr : result.getTileResults()) {
-            JsonObject tile = new JsonObject();
-            tile.addProperty("coordinate", tr.coordinate().toDisplayString());
-            tile.addProperty("outcome", tr.outcome().name());
-            tilesArray.add(tile);
-        }
-        payload.add("tileResults", tilesArray);
-
-        // Sunk ships
-        JsonArray sunkArray = new JsonArray();
-        for (Ship ship : result.getSunkShips()) {
-            JsonObject sunkObj = new JsonObject();
-            sunkObj.addProperty("id", ship.getId());
-            sunkObj.addProperty("type", ship.getType().name());
-            sunkObj.addProperty("displayName", ship.getType().getDisplayName());
-            sunkArray.add(sunkObj);
-        }
-        payload.add("sunkShips", sunkArray);
+        // Tile results and sunk ships, built once for both players
+        payload.add("tileResults", sharedTileResults(result));
+        payload.add("sunkShips", sharedSunkShips(result));
 
         payload.addProperty("hits", result.hitCount());
         payload.addProperty("misses", result.missCount());
         payload.addProperty("gameOver", result.isGameOver());
 
-        // Updated enemy tracking board (what attacker knows about defender)
-        payload.add("enemyBoard", serializeBoard(defender.getBoard(), false));
+        // Changes to the enemy tracking board (what attacker knows about defender)
+        payload.add("enemyBoard", serializeBoardUpdate(
+                defender.getBoard(), false, enemyBoardSynced, attackerIndex));
 
         // Updated own fleet status
         payload.add("fleetStatus", serializeFleetStatus(attacker.getBoard()));
 
         // Messages
-        payload.add("messages", serializeMessages());
+        addNewMessages(payload, attackerIndex);
 
         return payload;
     }
@@ -396,39 +499,23 @@ public class GameSession {
         payload.addProperty("weapon", result.getWeapon().name());
         payload.addProperty("target", result.getTarget().toDisplayString());
 
-        // Tile results
-        JsonArray tilesArray = new JsonArray();
-        for (AttackResult.TileResult tr : result.getTileResults()) {
-            JsonObject tile = new JsonObject();
-            tile.addProperty("coordinate", tr.coordinate().toDisplayString());
-            tile.addProperty("outcome", tr.outcome().name());
-            tilesArray.add(tile);
-        }
-        payload.add("tileResults", tilesArray);
-
-        // Sunk ships
-        JsonArray sunkArray = new JsonArray();
-        for (Ship ship : result.getSunkShips()) {
-            JsonObject sunkObj = new JsonObject();
-            sunkObj.addProperty("id", ship.getId());
-            sunkObj.addProperty("type", ship.getType().name());
-            sunkObj.addProperty("displayName", ship.getType().getDisplayName());
-            sunkArray.add(sunkObj);
-        }
-        payload.add("sunkShips", sunkArray);
+        // Tile results and sunk ships, built once for both players
+        payload.add("tileResults", sharedTileResults(result));
+        payload.add("sunkShips", sharedSunkShips(result));
 
         payload.addProperty("hits", result.hitCount());
         payload.addProperty("misses", result.missCount());
         payload.addProperty("gameOver", result.isGameOver());
 
-        // Updated own board
-        payload.add("yourBoard", serializeBoard(defender.getBoard(), true));
+        // Changes to own board
+        payload.add("yourBoard", serializeBoardUpdate(
+                defender.getBoard(), true, ownBoardSynced, defenderIndex));
 
         // Updated fleet status
         payload.add("fleetStatus", serializeFleetStatus(defender.getBoard()));
 
         // Messages
-        payload.add("messages", serializeMessages());
+        addNewMessages(payload, defenderIndex);
 
         return payload;
     }
@@ -467,7 +554,7 @@ public class GameSession {
         oppStats.addProperty("totalShips", opponent.totalShips());
         payload.add("opponentStats", oppStats);
 
-        // Messages
+        // Full recent log: the game over screen renders it on its own
         payload.add("messages", serializeMessages());
 
         return payload;
@@ -493,6 +580,23 @@ public class GameSession {
         return payload;
     }
 
+    /**
+     * Builds a board_sync message with full snapshots of both boards, sent
+     * when a client reports that it could not apply a board delta.
+     */
+    public JsonObject buildBoardSyncMessage(int playerIndex) {
+        Board own = gameState.getPlayer(playerIndex).getBoard();
+        Board enemy = gameState.getPlayer(1 - playerIndex).getBoard();
+
+        JsonObject payload = new JsonObject();
+        payload.addProperty("type", Constants.MSG_BOARD_SYNC);
+        payload.add("yourBoard", serializeBoard(own, true, playerIndex));
+        payload.add("enemyBoard", serializeBoard(enemy, false, playerIndex));
+        ownBoardSynced[playerIndex] = own.getVersion();
+        enemyBoardSynced[playerIndex] = enemy.getVersion();
+        return payload;
+    }
+
     /**
      * Builds an error message.
      */
@@ -515,6 +619,47 @@ public class GameSession {
 
     // --- Serialization Helpers ---
 
+    private JsonElement sharedTileResults(AttackResult result) {
+        buildSharedFragments(result);
+        return sharedTiles.value();
+    }
+
+    private JsonElement sharedSunkShips(AttackResult result) {
+        buildSharedFragments(result);
+        return sharedSunk.value();
+    }
+
+    /**
+     * Builds the tile-result and sunk-ship arrays once per attack; both
+     * players' messages reference the same (read-only) arrays, and their
+     * encodings are cached on the fragments.
+     */
+    private void buildSharedFragments(AttackResult result) {
+        if (sharedFragmentsFor == result) {
+            return;
+        }
+        JsonArray tilesArray = new JsonArray(result.getTileCount());
+        for (int i = 0; i < result.getTileCount(); i++) {
+            JsonObject tile = new JsonObject();
+            tile.addProperty("coordinate", result.getTileCoordinate(i).toDisplayString());
+            tile.addProperty("outcome", result.getTileOutcome(i).name());
+            tilesArray.add(tile);
+        }
+
+        JsonArray sunkArray = new JsonArray();
+        for (Ship ship : result.getSunkShips()) {
+            JsonObject sunkObj = new JsonObject();
+            sunkObj.addProperty("id", ship.getId());
+            sunkObj.addProperty("type", ship.getType().name());
+            sunkObj.addProperty("displayName", ship.getType().getDisplayName());
+            sunkArray.add(sunkObj);
+        }
+
+        sharedFragmentsFor = result;
+        sharedTiles = new SharedFragment(tilesArray);
+        sharedSunk = new SharedFragment(sunkArray);
+    }
+
     private JsonArray serializeShips(List<Ship> ships) {
         JsonArray array = new JsonArray();
         for (Ship ship : ships) {
@@ -524,18 +669,18 @@ public class GameSession {
             obj.addProperty("displayName", ship.getType().getDisplayName());
             obj.addProperty("sunk", ship.isSunk());
             obj.addProperty("health", ship.remainingHealth());
-            obj.addProperty("maxHealth", ship.getOccupiedCells().size());
+            obj.addProperty("maxHealth", ship.getSegmentCount());
 
             JsonArray cells = new JsonArray();
-            for (Coordinate c : ship.getOccupiedCells()) {
-                cells.add(c.toDisplayString());
-            }
-            obj.add("cells", cells);
-
             JsonArray hitCells = new JsonArray();
-            for (Coordinate c : ship.getHitCells()) {
-                hitCells.add(c.toDisplayString());
+            for (int i = 0; i < ship.getSegmentCount(); i++) {
+                String cell = ship.getOccupiedCells().get(i).toDisplayString();
+                cells.add(cell);
+                if (ship.isSegmentHit(i)) {
+                    hitCells.add(cell);
+                }
             }
+            obj.add("cells", cells);
             obj.add("hitCells", hitCells);
 
             array.add(obj);
@@ -546,13 +691,20 @@ public class GameSession {
     /**
      * Serializes a board to JSON.
      *
-     * @param board    the board to serialize
-     * @param fullView if true, shows all cell states (own board);
-     *                 if false, hides SHIP cells as EMPTY (enemy tracking view)
+     * @param board       the board to serialize
+     * @param fullView    if true, shows all cell states (own board);
+     *                    if false, hides SHIP cells as EMPTY (enemy tracking view)
+     * @param playerIndex the receiving player, whose client may have asked for
+     *                    packed boards
      */
-    private JsonObject serializeBoard(Board board, boolean fullView) {
+    private JsonObject serializeBoard(Board board, boolean fullView, int playerIndex) {
         JsonObject obj = new JsonObject();
         obj.addProperty("size", board.getSize());
+        obj.addProperty("version", board.getVersion());
+        if (packedBoards[playerIndex]) {
+            obj.addProperty("packed", BoardCodec.encode(board, fullView));
+            return obj;
+        }
 
         JsonArray rows = new JsonArray();
         for (int r = 0; r < board.getSize(); r++) {
@@ -570,6 +722,49 @@ public class GameSession {
         return obj;
     }
 
+    /**
+     * Serializes only the cells that changed since the version the player's
+     * client holds: {@code size, version, baseVersion, cells, states}, with
+     * cells as row-major indices. Falls back to a full snapshot if the
+     * client's version is unknown, it does not take deltas, or most of the
+     * board changed.
+     *
+     * @param synced per-player versions, updated to the version sent
+     */
+    private JsonObject serializeBoardUpdate(Board board, boolean fullView,
+            int[] synced, int playerIndex) {
+        int baseVersion = synced[playerIndex];
+        synced[playerIndex] = board.getVersion();
+        if (baseVersion < 0 || !boardDeltas[playerIndex]) {
+            return serializeBoard(board, fullView, playerIndex);
+        }
+
+        int cellCount = board.getSize() * board.getSize();
+        int[] changed = new int[cellCount];
+        int count = board.changedCellsSince(baseVersion, changed);
+        if (count > cellCount / 2) {
+            return serializeBoard(board, fullView, playerIndex); // snapshot is smaller
+        }
+
+        JsonObject obj = new JsonObject();
+        obj.addProperty("size", board.getSize());
+        obj.addProperty("version", board.getVersion());
+        obj.addProperty("baseVersion", baseVersion);
+        JsonArray cells = new JsonArray(count);
+        JsonArray states = new JsonArray(count);
+        for (int i = 0; i < count; i++) {
+            CellState state = board.getCell(changed[i]);
+            if (!fullView && state == CellState.SHIP) {
+                state = CellState.EMPTY; // fog of war
+            }
+            cells.add(changed[i]);
+            states.add(state.name());
+        }
+        obj.add("cells", cells);
+        obj.add("states", states);
+        return obj;
+    }
+
     private JsonArray serializeFleetStatus(Board board) {
         JsonArray array = new JsonArray();
         for (Ship ship : board.getShips()) {
@@ -578,7 +773,7 @@ public class GameSession {
             obj.addProperty("type", ship.getType().getCode());
             obj.addProperty("alive", !ship.isSunk());
             obj.addProperty("health", ship.remainingHealth());
-            obj.addProperty("maxHealth", ship.getOccupiedCells().size());
+            obj.addProperty("maxHealth", ship.getSegmentCount());
             array.add(obj);
         }
         return array;
@@ -591,4 +786,20 @@ public class GameSession {
         }
         return array;
     }
+
+    /**
+     * Adds the log events not yet sent to this player (see
+     * {@link #messageSent}) as "messages", along with "messageSeq" (sequence
+     * of the newest event) so the client knows to append them to its own log
+     * rather than replace it.
+     */
+    private void addNewMessages(JsonObject payload, int playerIndex) {
+        GameEventLog log = gameState.getEventLog();
+        JsonArray array = new JsonArray();
+        for (String msg : log.textSince(lastSentEvent[playerIndex], Constants.MAX_RECENT_MESSAGES)) {
+            array.add(msg);
+        }
+        payload.add("messages", array);
+        payload.addProperty("messageSeq", log.latestSequence());
+    }
 }
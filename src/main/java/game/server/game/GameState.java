@@ -1,11 +1,18 @@
 package game.server.game;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import game.common.Constants;
 import game.common.model.Board;
 import game.common.model.Coordinate;
 import game.common.model.Direction;
@@ -33,18 +40,55 @@ public class GameState {
     private int currentTurnIndex; // 0 or 1
     private int turnNumber;
     private String winnerUsername;
-    private final List<String> messageLog;
+    private final GameEventLog eventLog;
 
-    private final ShipPlacer shipPlacer;
+    private final SplittableRandom setupRandom;
     private final AttackResolver attackResolver;
+    private final BoardPool boardPool;
+
+    // Places the second board while the setup thread places the first. Idle
+    // threads time out, and when all are busy the caller places the board itself.
+    private static final int SETUP_THREADS = 2;
+    private static final ThreadPoolExecutor SETUP_POOL = new ThreadPoolExecutor(
+            SETUP_THREADS, SETUP_THREADS, 30, TimeUnit.SECONDS, new ArrayBlockingQueue<>(SETUP_THREADS * 4),
+            r -> {
+                Thread t = new Thread(r, "board-setup");
+                t.setDaemon(true);
+                return t;
+            }, new ThreadPoolExecutor.CallerRunsPolicy());
+
+    static {
+        SETUP_POOL.allowCoreThreadTimeOut(true);
+    }
 
     public GameState() {
+        this(null);
+    }
+
+    /**
+     * @param boardPool source of pre-generated boards, or null to always place
+     *                  ships inline
+     */
+    public GameState(BoardPool boardPool) {
+        this(boardPool, new SplittableRandom());
+    }
+
+    /**
+     * Creates a game whose boards are reproducible from the given seed. Both
+     * boards are always placed inline; no pool is consulted.
+     */
+    public GameState(long seed) {
+        this(null, new SplittableRandom(seed));
+    }
+
+    private GameState(BoardPool boardPool, SplittableRandom setupRandom) {
+        this.boardPool = boardPool;
+        this.setupRandom = setupRandom;
         this.phase = Phase.LOBBY;
         this.players = new PlayerState[2];
         this.currentTurnIndex = 0;
         this.turnNumber = 0;
-        this.messageLog = new ArrayList<>();
-        this.shipPlacer = new ShipPlacer();
+        this.eventLog = new GameEventLog(Constants.EVENT_LOG_CAPACITY);
         this.attackResolver = new AttackResolver();
     }
 
@@ -90,9 +134,10 @@ public class GameState {
         this.mode = mode;
         this.phase = Phase.SETUP;
 
-        // Generate boards with random ship placement
-        Board board0 = shipPlacer.placeShips(mode);
-        Board board1 = shipPlacer.placeShips(mode);
+        // Take pre-generated boards, falling back to inline placement
+        Board[] boards = createBoards(mode);
+        Board board0 = boards[0];
+        Board board1 = boards[1];
 
         // Recreate PlayerState with actual boards
         players[0] = new PlayerState(players[0].getUsername(), board0);
@@ -105,13 +150,52 @@ public class GameState {
         // Tick cooldowns for the first player (all start at 0 anyway)
         players[currentTurnIndex].getCooldownManager().tickCooldowns();
 
-        addMessage("Game started! Mode: " + mode.getDisplayName());
-        addMessage(players[0].getUsername() + " goes first.");
+        logEvent(GameEvent.gameStarted(mode));
+        logEvent(GameEvent.of(GameEvent.Type.FIRST_TURN, players[0].getUsername()));
 
         LOGGER.info("Game setup complete. Mode: {}, Grid: {}x{}",
                 mode.getDisplayName(), mode.getGridSize(), mode.getGridSize());
     }
 
+    /**
+     * Returns one board per player. Pooled boards are used when available;
+     * missing boards are placed inline, in parallel when both are needed.
+     * Each player gets an independent stream split off the setup seed.
+     */
+    private Board[] createBoards(GameMode mode) {
+        SplittableRandom stream0 = setupRandom.split();
+        SplittableRandom stream1 = setupRandom.split();
+
+        Board board0 = boardPool != null ? boardPool.take(mode) : null;
+        Board board1 = boardPool != null ? boardPool.take(mode) : null;
+
+        if (board0 == null && board1 == null) {
+            AtomicBoolean cancelled = new AtomicBoolean();
+            CompletableFuture<Board> pending = CompletableFuture.supplyAsync(
+                    () -> new ShipPlacer(stream1).placeShips(mode, cancelled::get), SETUP_POOL);
+            try {
+                board0 = new ShipPlacer(stream0).placeShips(mode);
+            } catch (RuntimeException e) {
+                cancelled.set(true); // the placer stops at its next step
+                throw e;
+            }
+            try {
+                board1 = pending.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        } else if (board0 == null) {
+            board0 = new ShipPlacer(stream0).placeShips(mode);
+        } else if (board1 == null) {
+            board1 = new ShipPlacer(stream1).placeShips(mode);
+        }
+
+        return new Board[] { board0, board1 };
+    }
+
     // --- In Progress Phase ---
 
     /**
@@ -163,32 +247,25 @@ public class GameState {
         attacker.getCooldownManager().activateCooldown(weapon);
 
         // Update stats
-        int totalTiles = result.getTileResults().size();
+        int totalTiles = result.getTileCount();
         int hits = result.hitCount();
         attacker.recordShots(totalTiles, hits);
         attacker.incrementTurns();
 
-        // Log messages
-        String attackMsg = attacker.getUsername() + " fired " + weapon.getDisplayName()
-                + " at " + target.toDisplayString();
-        addMessage(attackMsg);
-
-        if (hits > 0) {
-            addMessage("  → " + hits + " hit(s)!");
-        } else {
-            addMessage("  → All miss!");
-        }
+        // Log events
+        logEvent(GameEvent.attackFired(attacker.getUsername(), weapon, target));
+        logEvent(GameEvent.attackOutcome(hits));
 
         for (var sunkShip : result.getSunkShips()) {
-            addMessage("  → " + defender.getUsername() + "'s "
-                    + sunkShip.getType().getDisplayName() + " (" + sunkShip.getId() + ") SUNK!");
+            logEvent(GameEvent.shipSunk(defender.getUsername(),
+                    sunkShip.getType(), sunkShip.getId()));
         }
 
         // Check game over
         if (result.isGameOver()) {
             this.phase = Phase.GAME_OVER;
             this.winnerUsername = attacker.getUsername();
-            addMessage(attacker.getUsername() + " wins the game!");
+            logEvent(GameEvent.of(GameEvent.Type.WIN, attacker.getUsername()));
             LOGGER.info("Game over! Winner: {}", winnerUsername);
         } else {
             // Switch turns
@@ -218,8 +295,8 @@ public class GameState {
         int winnerIndex = 1 - playerIndex;
         this.phase = Phase.GAME_OVER;
         this.winnerUsername = players[winnerIndex].getUsername();
-        addMessage(players[playerIndex].getUsername() + " forfeited.");
-        addMessage(players[winnerIndex].getUsername() + " wins by forfeit!");
+        logEvent(GameEvent.of(GameEvent.Type.FORFEIT, players[playerIndex].getUsername()));
+        logEvent(GameEvent.of(GameEvent.Type.WIN_BY_FORFEIT, players[winnerIndex].getUsername()));
         LOGGER.info("{} forfeited. {} wins.", players[playerIndex].getUsername(), winnerUsername);
     }
 
@@ -231,29 +308,33 @@ public class GameState {
             int winnerIndex = 1 - playerIndex;
             this.phase = Phase.GAME_OVER;
             this.winnerUsername = players[winnerIndex].getUsername();
-            addMessage(players[playerIndex].getUsername() + " disconnected.");
-            addMessage(players[winnerIndex].getUsername() + " wins by disconnect!");
+            logEvent(GameEvent.of(GameEvent.Type.DISCONNECT, players[playerIndex].getUsername()));
+            logEvent(GameEvent.of(GameEvent.Type.WIN_BY_DISCONNECT,
+                    players[winnerIndex].getUsername()));
         } else if (phase == Phase.LOBBY) {
             players[playerIndex] = null;
         }
     }
 
-    // --- Message Log ---
+    // --- Event Log ---
 
-    private void addMessage(String message) {
-        messageLog.add(message);
-        // Keep only last 20 messages
-        if (messageLog.size() > 20) {
-            messageLog.remove(0);
-        }
+    private void logEvent(GameEvent event) {
+        eventLog.append(event);
+    }
+
+    /**
+     * Returns the game's event log (keeps the last
+     * {@link Constants#EVENT_LOG_CAPACITY} events).
+     */
+    public GameEventLog getEventLog() {
+        return eventLog;
     }
 
     /**
-     * Returns the last N messages from the game log.
+     * Returns the last N messages from the game log, rendered as text.
      */
     public List<String> getRecentMessages(int count) {
-        int start = Math.max(0, messageLog.size() - count);
-        return new ArrayList<>(messageLog.subList(start, messageLog.size()));
+        return eventLog.recentText(count);
     }
 
     // --- Getters ---
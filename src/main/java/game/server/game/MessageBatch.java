@@ -0,0 +1,66 @@
+package game.server.game;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.google.gson.JsonObject;
+
+import game.common.SharedFragment;
+
+/**
+ * Collects the messages of one turn transition per player so they can be
+ * sent as a single "batch" frame instead of one frame each.
+ *
+ * A message added for both players is one {@link OutboundMessage}, so it is
+ * serialized once and both envelopes are built around the same bytes.
+ */
+public class MessageBatch {
+
+    private final List<List<OutboundMessage>> pending = List.of(new ArrayList<>(4), new ArrayList<>(4));
+    private final List<SharedFragment> fragments;
+
+    public MessageBatch() {
+        this(List.of());
+    }
+
+    /**
+     * @param fragments fragments the messages may hold as field values, see
+     *                  {@link GameSession#getSharedFragments()}
+     */
+    public MessageBatch(List<SharedFragment> fragments) {
+        this.fragments = fragments;
+    }
+
+    public MessageBatch add(int playerIndex, JsonObject payload) {
+        pending.get(playerIndex).add(new OutboundMessage(payload, fragments));
+        return this;
+    }
+
+    public MessageBatch addToBoth(JsonObject payload) {
+        OutboundMessage shared = new OutboundMessage(payload, fragments);
+        pending.get(0).add(shared);
+        pending.get(1).add(shared);
+        return this;
+    }
+
+    /** The messages queued for one player, in order */
+    public List<OutboundMessage> messages(int playerIndex) {
+        return Collections.unmodifiableList(pending.get(playerIndex));
+    }
+
+    /**
+     * Builds the frame for one player: the message itself if there is only
+     * one, a batch envelope if there are several, or null if there are none.
+     */
+    public OutboundMessage build(int playerIndex) {
+        List<OutboundMessage> messages = pending.get(playerIndex);
+        if (messages.isEmpty()) {
+            return null;
+        }
+        if (messages.size() == 1) {
+            return messages.get(0);
+        }
+        return OutboundMessage.batch(messages);
+    }
+}
@@ -0,0 +1,130 @@
+package game.server.game;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import game.common.Box;
+import game.common.BoxCodec;
+import game.common.Constants;
+import game.common.JsonOutput;
+import game.common.SharedFragment;
+
+/**
+ * A message that is serialized at most once per wire format, no matter how
+ * many players it is sent to. Only the encryption is done per recipient.
+ *
+ * A batch message (see {@link #batch(List)}) is encoded by joining the cached
+ * encodings of its parts, so a part shared by two batches is only serialized
+ * once. Likewise, fields holding one of the message's {@link SharedFragment}s
+ * reuse the fragment's cached encoding, so content common to messages that
+ * otherwise differ per player is serialized once too.
+ *
+ * The payload must not be modified after the first encoding.
+ */
+public class OutboundMessage {
+
+    private static final byte[] BATCH_JSON_PREFIX = ("{\"type\":\"" + Constants.MSG_BATCH + "\",\"messages\":[")
+            .getBytes(StandardCharsets.UTF_8);
+    private static final byte[] BATCH_JSON_SUFFIX = "]}".getBytes(StandardCharsets.UTF_8);
+
+    private final JsonObject payload;
+    private final List<SharedFragment> fragments;
+    private final List<OutboundMessage> parts; // null unless this is a batch
+    private JsonOutput json; // UTF-8 text form, encoded on first use
+    private byte[] binary; // BoxCodec binary form, encoded on first use
+    private byte[] nestedBinary; // binary form as a batch element, encoded on first use
+
+    public OutboundMessage(JsonObject payload) {
+        this(payload, List.of(), null);
+    }
+
+    /**
+     * @param fragments fragments the payload may hold as field values
+     */
+    public OutboundMessage(JsonObject payload, List<SharedFragment> fragments) {
+        this(payload, fragments, null);
+    }
+
+    private OutboundMessage(JsonObject payload, List<SharedFragment> fragments, List<OutboundMessage> parts) {
+        this.payload = payload;
+        this.fragments = fragments;
+        this.parts = parts;
+    }
+
+    /**
+     * Wraps several messages in one {@code batch} envelope.
+     */
+    public static OutboundMessage batch(List<OutboundMessage> parts) {
+        JsonArray array = new JsonArray(parts.size());
+        for (OutboundMessage part : parts) {
+            array.add(part.getPayload());
+        }
+        JsonObject envelope = new JsonObject();
+        envelope.addProperty("type", Constants.MSG_BATCH);
+        envelope.add("messages", array);
+        return new OutboundMessage(envelope, List.of(), List.copyOf(parts));
+    }
+
+    public JsonObject getPayload() {
+        return payload;
+    }
+
+    /** UTF-8 JSON, shared by all text-frame recipients */
+    public synchronized JsonOutput json() {
+        if (json == null) {
+            json = parts == null ? JsonOutput.serialize(payload, fragments) : joinJson();
+        }
+        return json;
+    }
+
+    /** Binary encoding, shared by all binary-frame recipients */
+    public synchronized byte[] binary() {
+        if (binary == null) {
+            binary = parts == null ? BoxCodec.encodeBinary(new Box(payload), fragments) : joinBinary();
+        }
+        return binary;
+    }
+
+    private synchronized byte[] nestedBinary() {
+        if (nestedBinary == null) {
+            nestedBinary = BoxCodec.encodeBinaryNested(payload, fragments);
+        }
+        return nestedBinary;
+    }
+
+    private JsonOutput joinJson() {
+        List<JsonOutput> encoded = new ArrayList<>(parts.size());
+        int length = BATCH_JSON_PREFIX.length + BATCH_JSON_SUFFIX.length + Math.max(parts.size() - 1, 0);
+        for (OutboundMessage part : parts) {
+            JsonOutput partJson = part.json();
+            encoded.add(partJson);
+            length += partJson.length();
+        }
+
+        byte[] out = new byte[length];
+        System.arraycopy(BATCH_JSON_PREFIX, 0, out, 0, BATCH_JSON_PREFIX.length);
+        int position = BATCH_JSON_PREFIX.length;
+        for (int i = 0; i < encoded.size(); i++) {
+            if (i > 0) {
+                out[position++] = ',';
+            }
+            JsonOutput partJson = encoded.get(i);
+            System.arraycopy(partJson.buffer(), 0, out, position, partJson.length());
+            position += partJson.length();
+        }
+        System.arraycopy(BATCH_JSON_SUFFIX, 0, out, position, BATCH_JSON_SUFFIX.length);
+        return JsonOutput.wrap(out);
+    }
+
+    private byte[] joinBinary() {
+        List<byte[]> elements = new ArrayList<>(parts.size());
+        for (OutboundMessage part : parts) {
+            elements.add(part.nestedBinary());
+        }
+        return BoxCodec.encodeBinaryEnvelope(Constants.MSG_BATCH, "messages", elements);
+    }
+}
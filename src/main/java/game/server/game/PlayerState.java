@@ -65,7 +65,7 @@ public class PlayerState {
     }
 
     public int shipsLost() {
-        return (int) board.getShips().stream().filter(s -> s.isSunk()).count();
+        return board.getShips().size() - board.getAliveShipCount();
     }
 
     public int totalShips() {
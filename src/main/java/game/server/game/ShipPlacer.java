@@ -4,6 +4,9 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+import java.util.random.RandomGenerator;
 
 import game.common.model.Board;
 import game.common.model.Coordinate;
@@ -14,18 +17,24 @@ import game.common.model.ShipType;
 
 /**
  * Handles randomized ship placement on a board.
- * Ships are placed one at a time in a random order, with random positions
- * and orientations. A 1-tile gap is enforced between all ships.
+ * Ships are placed one at a time, with random positions and orientations.
+ * A 1-tile gap is enforced between all ships.
  *
- * Uses retry-based approach: if a placement attempt fails after MAX_RETRIES
- * for any single ship, the entire board is cleared and placement restarts.
+ * Instead of retrying random positions, the placer checks every placement
+ * for the next ship against the board's forbidden zone (placed ships plus
+ * their 1-tile gap, see {@link Board#canPlaceShip(long[])}) and samples one
+ * of the legal ones uniformly. Each ship therefore
+ * costs one bounded scan of the grid. When an earlier choice leaves no legal
+ * spot for a later ship, only the previous ship is taken off the board
+ * ({@link Board#removeLastShip()}) and moved to one of its untried spots
+ * (backtracking further if those run out), instead of restarting the whole
+ * board.
  */
 public class ShipPlacer {
 
-    private static final int MAX_RETRIES_PER_SHIP = 100;
-    private static final int MAX_FULL_RETRIES = 50;
+    private static final int MAX_BACKTRACKS = 10_000;
 
-    private final Random random;
+    private final RandomGenerator random;
 
     public ShipPlacer() {
         this.random = new Random();
@@ -35,101 +44,166 @@ public class ShipPlacer {
         this.random = new Random(seed);
     }
 
+    /**
+     * Uses the given random stream, e.g. one split off a SplittableRandom so
+     * that several boards can be placed in parallel from a single seed.
+     */
+    public ShipPlacer(RandomGenerator random) {
+        this.random = random;
+    }
+
     /**
      * Places all ships for the given game mode onto a new board.
      *
      * @param mode the game mode defining grid size and fleet composition
      * @return a Board with all ships placed randomly
-     * @throws IllegalStateException if placement fails after all retries
+     * @throws IllegalStateException if the fleet does not fit, or still has
+     *                               not been placed after the backtracking
+     *                               limit
      */
     public Board placeShips(GameMode mode) {
-        for (int fullRetry = 0; fullRetry < MAX_FULL_RETRIES; fullRetry++) {
-            Board board = new Board(mode.getGridSize());
-            List<ShipType> fleet = new ArrayList<>(mode.getFleet());
-
-            // Shuffle to randomize placement order — larger ships placed first
-            // tend to succeed more often, but shuffling adds variety
-            Collections.shuffle(fleet, random);
-
-            // Sort descending by tile count so bigger ships go first (better success rate)
-            fleet.sort((a, b) -> Integer.compare(b.getTileCount(), a.getTileCount()));
-
-            boolean allPlaced = true;
-            // Track ship instance counters per type for ID generation
-            int[] typeCounts = new int[ShipType.values().length];
-
-            for (ShipType type : fleet) {
-                typeCounts[type.ordinal()]++;
-                String shipId = generateShipId(type, typeCounts[type.ordinal()]);
-
-                boolean placed = false;
-                for (int retry = 0; retry < MAX_RETRIES_PER_SHIP; retry++) {
-                    List<Coordinate> cells = generateRandomCells(type, board.getSize());
-                    if (cells != null && board.canPlaceShip(cells)) {
-                        Ship ship = new Ship(type, shipId, cells);
-                        board.placeShip(ship);
-                        placed = true;
-                        break;
-                    }
-                }
+        return placeShips(mode.getGridSize(), mode.getFleet(), () -> false);
+    }
 
-                if (!placed) {
-                    allPlaced = false;
-                    break;
+    /**
+     * Places all ships for the given game mode, giving up as soon as
+     * {@code cancelled} returns true, e.g. once the board is no longer needed.
+     *
+     * @throws CancellationException if cancelled before the board was complete
+     * @throws IllegalStateException if the fleet does not fit, or still has
+     *                               not been placed after the backtracking
+     *                               limit
+     */
+    public Board placeShips(GameMode mode, BooleanSupplier cancelled) {
+        return placeShips(mode.getGridSize(), mode.getFleet(), cancelled);
+    }
+
+    /**
+     * Places the given fleet onto a new board of the given size.
+     *
+     * @throws IllegalStateException if the fleet does not fit, or still has
+     *                               not been placed after the backtracking
+     *                               limit
+     */
+    public Board placeShips(int gridSize, List<ShipType> fleetTypes) {
+        return placeShips(gridSize, fleetTypes, () -> false);
+    }
+
+    private Board placeShips(int gridSize, List<ShipType> fleetTypes, BooleanSupplier cancelled) {
+        List<ShipType> fleet = new ArrayList<>(fleetTypes);
+
+        // Shuffle to randomize placement order between equal-sized ships
+        Collections.shuffle(fleet, random);
+
+        // Sort descending by tile count so bigger ships go first (better success rate)
+        fleet.sort((a, b) -> Integer.compare(b.getTileCount(), a.getTileCount()));
+
+        int shipCount = fleet.size();
+        String[] shipIds = generateShipIds(fleet);
+
+        // Per ship: legal placements not tried yet (the first untried[i] entries)
+        int[][] candidates = new int[shipCount][];
+        int[] untried = new int[shipCount];
+
+        Board board = new Board(gridSize);
+        long[] mask = board.cellMask(List.of());
+        int placed = 0;
+        int backtracks = 0;
+        if (shipCount > 0) {
+            candidates[0] = new int[gridSize * gridSize * 2];
+            untried[0] = collectLegalPlacements(fleet.get(0), board, mask, candidates[0]);
+        }
+
+        while (placed < shipCount) {
+            if (cancelled.getAsBoolean()) {
+                throw new CancellationException("Ship placement cancelled.");
+            }
+            if (untried[placed] == 0) {
+                // Dead end: take back the previous ship and try another spot for it
+                if (placed == 0) {
+                    throw new IllegalStateException(
+                            "Fleet does not fit on a " + gridSize + "x" + gridSize + " board.");
                 }
+                if (++backtracks > MAX_BACKTRACKS) {
+                    throw new IllegalStateException(
+                            "Failed to place all ships after " + MAX_BACKTRACKS + " backtracks.");
+                }
+                placed--;
+                board.removeLastShip();
+                continue;
             }
 
-            if (allPlaced) {
-                return board;
+            // Sample without replacement, so a backtrack never retries the same spot
+            int pick = random.nextInt(untried[placed]);
+            int choice = candidates[placed][pick];
+            candidates[placed][pick] = candidates[placed][--untried[placed]];
+            placeShip(board, fleet.get(placed), shipIds[placed], choice);
+            placed++;
+
+            if (placed < shipCount) {
+                if (candidates[placed] == null) {
+                    candidates[placed] = new int[gridSize * gridSize * 2];
+                }
+                untried[placed] = collectLegalPlacements(fleet.get(placed), board, mask, candidates[placed]);
             }
         }
+        return board;
+    }
 
-        throw new IllegalStateException(
-                "Failed to place all ships after " + MAX_FULL_RETRIES + " full retries.");
+    private static void placeShip(Board board, ShipType type, String shipId, int placement) {
+        board.placeShip(new Ship(type, shipId, buildCells(type, board.getSize(), placement)));
     }
 
     /**
-     * Generates a list of coordinates for a ship placed at a random position
-     * and orientation on a grid of the given size.
+     * Writes every legal placement for the ship into {@code out}, encoded as
+     * {@code (startRow * gridSize + startCol) * 2 + direction ordinal}.
      *
-     * @return list of coordinates, or null if the random position is out of bounds
+     * @param mask scratch mask for the board, overwritten for each placement
+     * @return the number of legal placements found
      */
-    private List<Coordinate> generateRandomCells(ShipType type, int gridSize) {
-        Direction dir = random.nextBoolean() ? Direction.HORIZONTAL : Direction.VERTICAL;
-
-        int length = type.getLength();
-        int width = type.getWidth();
-
-        // For HORIZONTAL: ship extends right (length) and down (width)
-        // For VERTICAL: ship extends down (length) and right (width)
-        int maxRow, maxCol;
-        if (dir == Direction.HORIZONTAL) {
-            maxCol = gridSize - length;
-            maxRow = gridSize - width;
-        } else {
-            maxRow = gridSize - length;
-            maxCol = gridSize - width;
-        }
-
-        if (maxRow < 0 || maxCol < 0) {
-            return null;
+    private int collectLegalPlacements(ShipType type, Board board, long[] mask, int[] out) {
+        int gridSize = board.getSize();
+        int count = 0;
+        for (Direction dir : Direction.values()) {
+            // For HORIZONTAL: ship extends right (length) and down (width)
+            // For VERTICAL: ship extends down (length) and right (width)
+            int rows = dir == Direction.HORIZONTAL ? type.getWidth() : type.getLength();
+            int cols = dir == Direction.HORIZONTAL ? type.getLength() : type.getWidth();
+
+            for (int startRow = 0; startRow + rows <= gridSize; startRow++) {
+                for (int startCol = 0; startCol + cols <= gridSize; startCol++) {
+                    if (board.canPlaceShip(board.rectangleMask(startRow, startCol, rows, cols, mask))) {
+                        out[count++] = (startRow * gridSize + startCol) * 2 + dir.ordinal();
+                    }
+                }
+            }
         }
+        return count;
+    }
 
-        int startRow = random.nextInt(maxRow + 1);
-        int startCol = random.nextInt(maxCol + 1);
+    /**
+     * Expands an encoded placement into the ship's coordinates.
+     */
+    private static List<Coordinate> buildCells(ShipType type, int gridSize, int placement) {
+        Direction dir = Direction.values()[placement % 2];
+        int start = placement / 2;
+        int startRow = start / gridSize;
+        int startCol = start % gridSize;
 
-        List<Coordinate> cells = new ArrayList<>();
+        int length = type.getLength();
+        int width = type.getWidth();
+        List<Coordinate> cells = new ArrayList<>(length * width);
 
         if (dir == Direction.HORIZONTAL) {
             for (int l = 0; l < length; l++) {
                 for (int w = 0; w < width; w++) {
-                    cells.add(new Coordinate(startRow + w, startCol + l));
+                    cells.add(Coordinate.of(startRow + w, startCol + l));
                 }
             }
         } else {
             for (int l = 0; l < length; l++) {
                 for (int w = 0; w < width; w++) {
-                    cells.add(new Coordinate(startRow + l, startCol + w));
+                    cells.add(Coordinate.of(startRow + l, startCol + w));
                 }
             }
         }
@@ -137,6 +211,20 @@ public class ShipPlacer {
         return cells;
     }
 
+    /**
+     * Generates the ID of each ship in placement order.
+     */
+    private String[] generateShipIds(List<ShipType> fleet) {
+        // Track ship instance counters per type for ID generation
+        int[] typeCounts = new int[ShipType.values().length];
+        String[] ids = new String[fleet.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ShipType type = fleet.get(i);
+            ids[i] = generateShipId(type, ++typeCounts[type.ordinal()]);
+        }
+        return ids;
+    }
+
     /**
      * Generates a ship ID like "PB-A", "DS-B", etc.
      */
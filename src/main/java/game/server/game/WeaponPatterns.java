@@ -1,21 +1,58 @@
 package game.server.game;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import game.common.model.Coordinate;
 import game.common.model.Direction;
+import game.common.model.GameMode;
 import game.common.model.WeaponType;
 
 /**
  * Computes the set of tiles affected by each weapon type.
  * Tiles that fall outside the grid are clipped.
+ *
+ * Footprints are precomputed per grid size as int arrays of row-major cell
+ * indices ({@code row * gridSize + col}), one per weapon, direction and target
+ * cell. Tables for every {@link GameMode} grid size are built at class load;
+ * other sizes are built on first use.
  */
 public class WeaponPatterns {
 
+    private static final int DIRECTIONS = Direction.values().length;
+
+    /** Grid size → footprint table */
+    private static final Map<Integer, int[][]> TABLES = new ConcurrentHashMap<>();
+
+    static {
+        for (GameMode mode : GameMode.values()) {
+            TABLES.computeIfAbsent(mode.getGridSize(), WeaponPatterns::buildTable);
+        }
+    }
+
     private WeaponPatterns() {
     }
 
+    /**
+     * Returns the cell indices affected by firing the given weapon at
+     * (row, col), in pattern order. The returned array is shared and must not
+     * be modified.
+     *
+     * @param weapon   the weapon being fired
+     * @param dir      direction (only relevant for LINE_BARRAGE)
+     * @param gridSize the board dimension
+     * @param row      target row (must be in bounds)
+     * @param col      target column (must be in bounds)
+     * @return row-major indices of the in-bounds affected cells
+     */
+    public static int[] getFootprint(WeaponType weapon, Direction dir, int gridSize, int row, int col) {
+        int[][] table = TABLES.computeIfAbsent(gridSize, WeaponPatterns::buildTable);
+        return table[slot(weapon, dir, gridSize, row * gridSize + col)];
+    }
+
     /**
      * Returns the list of coordinates affected by firing the given weapon
      * at the target coordinate.
@@ -29,50 +66,94 @@ public class WeaponPatterns {
     public static List<Coordinate> getAffectedTiles(
             WeaponType weapon, Coordinate target, Direction dir, int gridSize) {
 
-        List<Coordinate> tiles = new ArrayList<>();
-        int r = target.row();
-        int c = target.col();
+        int[] footprint = target.isWithinBounds(gridSize)
+                ? getFootprint(weapon, dir, gridSize, target.row(), target.col())
+                : computeFootprint(weapon, dir, gridSize, target.row(), target.col());
+
+        List<Coordinate> tiles = new ArrayList<>(footprint.length);
+        for (int index : footprint) {
+            tiles.add(Coordinate.of(index / gridSize, index % gridSize));
+        }
+        return tiles;
+    }
+
+    // --- Table Construction ---
+
+    private static int slot(WeaponType weapon, Direction dir, int gridSize, int cellIndex) {
+        return (weapon.ordinal() * DIRECTIONS + dir.ordinal()) * gridSize * gridSize + cellIndex;
+    }
+
+    private static int[][] buildTable(int gridSize) {
+        int cells = gridSize * gridSize;
+        int[][] table = new int[WeaponType.values().length * DIRECTIONS * cells][];
+        for (WeaponType weapon : WeaponType.values()) {
+            for (Direction dir : Direction.values()) {
+                for (int r = 0; r < gridSize; r++) {
+                    for (int c = 0; c < gridSize; c++) {
+                        table[slot(weapon, dir, gridSize, r * gridSize + c)] = computeFootprint(weapon, dir,
+                                gridSize, r, c);
+                    }
+                }
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Computes a footprint from scratch. Used to fill the tables, and for
+     * targets outside the grid.
+     */
+    private static int[] computeFootprint(WeaponType weapon, Direction dir, int gridSize, int r, int c) {
+        int[] tiles = new int[9];
+        int count = 0;
 
         switch (weapon) {
             case STANDARD_SHOT -> {
-                tiles.add(target);
+                count = addTile(tiles, count, r, c, gridSize);
             }
 
             case LINE_BARRAGE -> {
                 // 3 tiles in a line centered on target
                 if (dir == Direction.HORIZONTAL) {
                     for (int dc = -1; dc <= 1; dc++) {
-                        tiles.add(new Coordinate(r, c + dc));
+                        count = addTile(tiles, count, r, c + dc, gridSize);
                     }
                 } else {
                     for (int dr = -1; dr <= 1; dr++) {
-                        tiles.add(new Coordinate(r + dr, c));
+                        count = addTile(tiles, count, r + dr, c, gridSize);
                     }
                 }
             }
 
             case CROSS_BOMBER -> {
                 // Plus shape: center + 4 cardinal neighbors
-                tiles.add(new Coordinate(r, c)); // center
-                tiles.add(new Coordinate(r - 1, c)); // up
-                tiles.add(new Coordinate(r + 1, c)); // down
-                tiles.add(new Coordinate(r, c - 1)); // left
-                tiles.add(new Coordinate(r, c + 1)); // right
+                count = addTile(tiles, count, r, c, gridSize); // center
+                count = addTile(tiles, count, r - 1, c, gridSize); // up
+                count = addTile(tiles, count, r + 1, c, gridSize); // down
+                count = addTile(tiles, count, r, c - 1, gridSize); // left
+                count = addTile(tiles, count, r, c + 1, gridSize); // right
             }
 
             case NUKE -> {
                 // 3×3 square centered on target
                 for (int dr = -1; dr <= 1; dr++) {
                     for (int dc = -1; dc <= 1; dc++) {
-                        tiles.add(new Coordinate(r + dr, c + dc));
+                        count = addTile(tiles, count, r + dr, c + dc, gridSize);
                     }
                 }
             }
         }
 
-        // Clip out-of-bounds tiles
-        return tiles.stream()
-                .filter(coord -> coord.isWithinBounds(gridSize))
-                .toList();
+        return Arrays.copyOf(tiles, count);
+    }
+
+    /**
+     * Appends the cell index for (row, col), clipping out-of-bounds tiles.
+     */
+    private static int addTile(int[] tiles, int count, int row, int col, int gridSize) {
+        if (row >= 0 && row < gridSize && col >= 0 && col < gridSize) {
+            tiles[count++] = row * gridSize + col;
+        }
+        return count;
     }
 }
@@ -75,6 +75,83 @@ class ClientGameStateTest {
         assertEquals(5, state.getTurnNumber());
     }
 
+    @Test
+    void testMessagesWithSequenceAreAppended() {
+        JsonArray first = new JsonArray();
+        first.add("Game started! Mode: Blitz");
+        first.add("Alice goes first.");
+        JsonObject payload = new JsonObject();
+        payload.addProperty("turnNumber", 1);
+        payload.add("messages", first);
+        payload.addProperty("messageSeq", 2);
+        state.applyWaitTurn(payload);
+
+        JsonArray next = new JsonArray();
+        for (int i = 0; i < 4; i++) {
+            next.add("event " + i);
+        }
+        JsonObject update = new JsonObject();
+        update.add("messages", next);
+        update.addProperty("messageSeq", 6);
+        state.applyIncomingAttack(update);
+
+        // Appended and trimmed to the most recent messages
+        JsonArray messages = state.getMessages();
+        assertEquals(5, messages.size());
+        assertEquals("Alice goes first.", messages.get(0).getAsString());
+        assertEquals("event 3", messages.get(4).getAsString());
+    }
+
+    @Test
+    void testApplyBoardDelta() {
+        JsonObject startPayload = new JsonObject();
+        startPayload.addProperty("mode", "BLITZ");
+        startPayload.addProperty("gridSize", 8);
+        startPayload.addProperty("opponentName", "Bob");
+        startPayload.add("yourShips", new JsonArray());
+        startPayload.add("yourBoard", createBoard(8));
+        startPayload.addProperty("enemyBoardVersion", 12);
+        state.applyGameStart(startPayload);
+
+        JsonObject delta = new JsonObject();
+        delta.addProperty("size", 8);
+        delta.addProperty("version", 14);
+        delta.addProperty("baseVersion", 12);
+        JsonArray cells = new JsonArray();
+        cells.add(11);
+        cells.add(63);
+        delta.add("cells", cells);
+        JsonArray states = new JsonArray();
+        states.add("HIT");
+        states.add("MISS");
+        delta.add("states", states);
+        JsonObject payload = new JsonObject();
+        payload.add("enemyBoard", delta);
+        state.applyAttackResult(payload);
+
+        JsonArray grid = state.getEnemyBoard().getAsJsonArray("grid");
+        assertEquals("HIT", grid.get(1).getAsJsonArray().get(3).getAsString());
+        assertEquals("MISS", grid.get(7).getAsJsonArray().get(7).getAsString());
+        assertEquals(14, state.getEnemyBoard().get("version").getAsInt());
+        assertFalse(state.isBoardResyncNeeded());
+
+        // Replaying the same delta no longer matches our version
+        state.applyAttackResult(payload);
+        assertTrue(state.isBoardResyncNeeded());
+
+        // One sync_request per resync, however many deltas miss
+        assertTrue(state.takeBoardSyncRequest());
+        state.applyAttackResult(payload);
+        assertFalse(state.takeBoardSyncRequest());
+
+        JsonObject sync = new JsonObject();
+        sync.add("yourBoard", createBoard(8));
+        sync.add("enemyBoard", createBoard(8));
+        state.applyBoardSync(sync);
+        assertFalse(state.isBoardResyncNeeded());
+        assertFalse(state.takeBoardSyncRequest());
+    }
+
     @Test
     void testApplyWaitTurn() {
         JsonObject payload = new JsonObject();
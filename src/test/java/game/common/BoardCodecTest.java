@@ -0,0 +1,72 @@
+package game.common;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import game.common.model.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardCodecTest {
+
+    private Board createBoard() {
+        Board board = new Board(16);
+        board.placeShip(new Ship(ShipType.DESTROYER, "DS-A", List.of(
+                new Coordinate(1, 1), new Coordinate(1, 2), new Coordinate(1, 3))));
+        board.attack(new Coordinate(1, 2));
+        board.attack(new Coordinate(15, 15));
+        return board;
+    }
+
+    @Test
+    void testRoundTrip() {
+        Board board = createBoard();
+        byte[] cells = BoardCodec.decode(BoardCodec.encode(board, true), 16);
+
+        assertEquals(256, cells.length);
+        for (int i = 0; i < cells.length; i++) {
+            assertEquals(board.getCell(i).ordinal(), cells[i], "cell " + i);
+        }
+    }
+
+    @Test
+    void testFogOfWarHidesShips() {
+        byte[] cells = BoardCodec.decode(BoardCodec.encode(createBoard(), false), 16);
+
+        assertEquals(CellState.EMPTY.ordinal(), cells[17]);
+        assertEquals(CellState.HIT.ordinal(), cells[18]);
+        assertEquals(CellState.MISS.ordinal(), cells[255]);
+    }
+
+    @Test
+    void testEmptyBoardIsTiny() {
+        // 256 empty cells = 8 runs of 32
+        String packed = BoardCodec.encode(new Board(16), true);
+        assertEquals(8, Base64.getDecoder().decode(packed).length);
+    }
+
+    @Test
+    void testDecodeRejectsWrongSize() {
+        String packed = BoardCodec.encode(new Board(8), true);
+        assertThrows(IllegalArgumentException.class, () -> BoardCodec.decode(packed, 10));
+        assertThrows(IllegalArgumentException.class, () -> BoardCodec.decode(packed, 4));
+    }
+
+    @Test
+    void testToGridBoard() {
+        JsonObject packed = new JsonObject();
+        packed.addProperty("size", 16);
+        packed.addProperty("version", 7);
+        packed.addProperty("packed", BoardCodec.encode(createBoard(), true));
+
+        JsonObject board = BoardCodec.toGridBoard(packed);
+        assertFalse(board.has("packed"));
+        assertEquals(7, board.get("version").getAsInt());
+        JsonArray row = board.getAsJsonArray("grid").get(1).getAsJsonArray();
+        assertEquals("SHIP", row.get(1).getAsString());
+        assertEquals("HIT", row.get(2).getAsString());
+    }
+}
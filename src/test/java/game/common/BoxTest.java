@@ -1,11 +1,35 @@
 // src/test/java/game/common/BoxTest.java
 package game.common;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
 import org.junit.jupiter.api.Test;
 
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 
+import game.common.model.Coordinate;
+import game.common.model.Direction;
+import game.common.model.GameMode;
+import game.common.model.WeaponType;
+import game.server.ConnectionContext;
+import game.server.game.AttackResult;
+import game.server.game.GameSession;
+import game.server.game.OutboundMessage;
 import jakarta.websocket.DecodeException;
 import jakarta.websocket.EncodeException;
 
@@ -34,4 +58,159 @@ class BoxTest {
 
 		assertEquals(payload, box.getPayload());
 	}
-}
\ No newline at end of file
+
+	@Test
+	void testBinaryRoundTrip() {
+		JsonObject tile = new JsonObject();
+		tile.addProperty("coordinate", "P16");
+		tile.addProperty("outcome", "SUNK");
+		JsonArray tiles = new JsonArray();
+		tiles.add(tile);
+
+		JsonObject payload = new JsonObject();
+		payload.addProperty("type", Constants.MSG_ATTACK_RESULT);
+		payload.addProperty("weapon", "NUKE");
+		payload.addProperty("target", "B7");
+		payload.add("tileResults", tiles);
+		payload.addProperty("hits", 3);
+		payload.addProperty("messageSeq", -42L);
+		payload.addProperty("gameOver", false);
+		payload.addProperty("hitRate", "53.3%");
+		payload.addProperty("ratio", 0.25);
+		payload.addProperty("message", "Welcome, Zoë!");
+		payload.addProperty("notACoordinate", "A0");
+		payload.add("nothing", JsonNull.INSTANCE);
+
+		Box decoded = BoxCodec.decodeBinary(BoxCodec.encodeBinary(new Box(payload)));
+
+		assertEquals(payload, decoded.getPayload());
+	}
+
+	@Test
+	void testBinaryWithoutType() {
+		JsonObject payload = new JsonObject();
+		payload.addProperty("username", "Alice");
+
+		Box decoded = BoxCodec.decodeBinary(BoxCodec.encodeBinary(new Box(payload)));
+
+		assertEquals(payload, decoded.getPayload());
+		assertFalse(decoded.getPayload().has("type"));
+	}
+
+	@Test
+	void testBinaryIsSmallerThanBase64Json() {
+		JsonObject payload = JsonParser.parseString(
+				"{\"type\":\"your_turn\",\"turnNumber\":12,\"weapons\":["
+						+ "{\"name\":\"NUKE\",\"available\":true,\"cooldownRemaining\":0}]}")
+				.getAsJsonObject();
+
+		byte[] binary = BoxCodec.encodeBinary(new Box(payload));
+		int base64Length = Base64.getEncoder().encode(payload.toString().getBytes()).length;
+
+		assertTrue(binary.length * 3 < base64Length, binary.length + " vs " + base64Length);
+		assertEquals(payload, BoxCodec.decodeBinary(binary).getPayload());
+	}
+
+	@Test
+	void testBinaryRejectsMalformedData() {
+		byte[] truncated = Arrays.copyOf(BoxCodec.encodeBinary(new Box(JsonParser.parseString(
+				"{\"type\":\"error\",\"message\":\"Something went wrong\"}").getAsJsonObject())), 5);
+
+		assertThrows(IllegalArgumentException.class, () -> BoxCodec.decodeBinary(truncated));
+		assertThrows(IllegalArgumentException.class, () -> BoxCodec.decodeBinary(new byte[] { 0, 0, 1, 0, 99 }));
+	}
+
+	@Test
+	void testBinaryRejectsDeepNesting() {
+		// No type, one field "a" holding 100000 nested one-element arrays around a null
+		byte[] header = { 0, 0, 1, 0, 1, 'a' };
+		int depth = 100_000;
+		byte[] frame = Arrays.copyOf(header, header.length + depth * 2 + 1);
+		for (int i = 0; i < depth; i++) {
+			frame[header.length + i * 2] = 7; // array tag
+			frame[header.length + i * 2 + 1] = 1; // one element
+		}
+
+		assertThrows(IllegalArgumentException.class, () -> BoxCodec.decodeBinary(frame));
+
+		// Real messages nest far less and still decode
+		JsonObject nested = JsonParser.parseString("{\"a\":[[[[{\"b\":[[1]]}]]]]}").getAsJsonObject();
+		assertEquals(nested, BoxCodec.decodeBinary(BoxCodec.encodeBinary(new Box(nested))).getPayload());
+	}
+
+	@Test
+	void testBinaryDictionaryIndicesAreFrozen() {
+		// Dictionary indices are part of the wire format and must never shift
+		JsonObject payload = JsonParser.parseString(
+				"{\"type\":\"attack\",\"weapon\":\"NUKE\",\"direction\":\"VERTICAL\"}").getAsJsonObject();
+		assertArrayEquals(new byte[] { 18, 2, 75, 5, 99, 32, 5, 89 }, BoxCodec.encodeBinary(new Box(payload)));
+
+		// Indices past the end of the table fail instead of decoding some other string
+		assertThrows(IllegalArgumentException.class, () -> BoxCodec.decodeBinary(new byte[] { (byte) 200, 1, 0 }));
+		// So do retired entries
+		assertThrows(IllegalArgumentException.class, () -> BoxCodec.decodeBinary(new byte[] { 27, 0 }));
+	}
+
+	@Test
+		// Every field name and message type the server sends in binary frames has
+		// a dictionary index, so none of them is spelled out inline
+	void testServerMessageKeysAreInDictionary() throws Exception {
+		List<JsonObject> sent = new ArrayList<>();
+		CryptoContext crypto = new CryptoContext(CryptoUtils.generateAESKey(), true);
+		ConnectionContext connection = new ConnectionContext("Alice", crypto, Constants.PROTOCOL_VERSION,
+				EnumSet.allOf(Capability.class));
+		try {
+			sent.add(connection.buildConfirmation("ticket", 3600));
+		} finally {
+			connection.close();
+		}
+
+		GameSession session = new GameSession("keys");
+		session.addPlayer("ws-1", "Alice");
+		session.addPlayer("ws-2", "Bob");
+		session.setPackedBoards(1, true);
+		sent.add(session.buildLobbyWaitingMessage());
+		sent.add(session.buildModeSelectMessage("Bob"));
+		session.startGame(GameMode.BLITZ);
+		sent.add(session.buildGameStartMessage(0));
+		sent.add(session.buildGameStartMessage(1));
+
+		int attacker = session.getGameState().getCurrentTurnIndex();
+		sent.add(session.buildYourTurnMessage(attacker));
+		sent.add(session.buildWaitTurnMessage(1 - attacker));
+		AttackResult result = session.processAttack(attacker, WeaponType.STANDARD_SHOT, new Coordinate(0, 0),
+				Direction.HORIZONTAL);
+		JsonObject attackResult = session.buildAttackResultMessage(result, attacker);
+		JsonObject incoming = session.buildIncomingAttackMessage(result, 1 - attacker);
+		sent.add(OutboundMessage.batch(List.of(new OutboundMessage(attackResult), new OutboundMessage(incoming)))
+				.getPayload());
+		sent.add(session.buildBoardSyncMessage(0));
+		sent.add(session.buildBoardSyncMessage(1));
+
+		session.getGameState().forfeit(attacker);
+		sent.add(session.buildGameOverMessage(0));
+		sent.add(session.buildPlayAgainPromptMessage());
+		sent.add(session.buildPlayAgainWaitingMessage());
+		sent.add(GameSession.buildErrorMessage("error"));
+		sent.add(GameSession.buildOpponentDisconnectedMessage("Bob"));
+
+		for (JsonObject payload : sent) {
+			assertKeysInDictionary(payload);
+		}
+	}
+
+	private static void assertKeysInDictionary(JsonElement element) {
+		if (element.isJsonArray()) {
+			element.getAsJsonArray().forEach(BoxTest::assertKeysInDictionary);
+		} else if (element.isJsonObject()) {
+			for (Map.Entry<String, JsonElement> field : element.getAsJsonObject().entrySet()) {
+				assertTrue(BinaryFormat.inDictionary(field.getKey()), "Not in dictionary: " + field.getKey());
+				if (field.getKey().equals("type") && field.getValue().isJsonPrimitive()) {
+					String type = field.getValue().getAsString();
+					assertTrue(BinaryFormat.inDictionary(type), "Not in dictionary: " + type);
+				}
+				assertKeysInDictionary(field.getValue());
+			}
+		}
+	}
+}
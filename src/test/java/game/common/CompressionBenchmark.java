@@ -0,0 +1,112 @@
+package game.common;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.google.gson.JsonObject;
+
+import game.common.model.Coordinate;
+import game.common.model.Direction;
+import game.common.model.GameMode;
+import game.common.model.WeaponType;
+import game.server.game.AttackResult;
+import game.server.game.GameSession;
+import game.server.game.MessageBatch;
+
+/**
+ * Compares CPU time against bytes saved by {@link MessageCompressor} for the
+ * messages a game typically sends, in both wire formats.
+ *
+ * Not a unit test; run with {@code make bench}.
+ */
+public class CompressionBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 20_000;
+    private static final int ITERATIONS = 100_000;
+    private static final int[] LEVELS = { 1, 6 };
+
+    public static void main(String[] args) {
+        Map<String, JsonObject> messages = typicalMessages();
+
+        System.out.printf("%-22s %-6s %5s %8s %8s %7s %10s %10s%n",
+                "message", "format", "level", "raw", "sent", "ratio", "ns/comp", "ns/decomp");
+        for (Map.Entry<String, JsonObject> entry : messages.entrySet()) {
+            JsonObject payload = entry.getValue();
+            byte[] text = JsonOutput.write(payload).toByteArray();
+            byte[] binary = BoxCodec.encodeBinary(new Box(payload));
+            for (int level : LEVELS) {
+                run(entry.getKey(), "text", level, text);
+                run(entry.getKey(), "binary", level, binary);
+            }
+        }
+    }
+
+    private static void run(String name, String format, int level, byte[] message) {
+        MessageCompressor compressor = new MessageCompressor(
+                Constants.COMPRESSION_THRESHOLD_BYTES, level, Constants.MAX_MESSAGE_BYTES);
+        byte[] frame = compressor.compress(message);
+
+        long sink = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            sink += compressor.compress(message).length;
+            sink += compressor.decompress(frame).length;
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += compressor.compress(message).length;
+        }
+        long compressNanos = (System.nanoTime() - start) / ITERATIONS;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += compressor.decompress(frame).length;
+        }
+        long decompressNanos = (System.nanoTime() - start) / ITERATIONS;
+        compressor.close();
+
+        // sink is printed so the JIT cannot drop the loops
+        System.out.printf("%-22s %-6s %5d %8d %8d %7.2f %10d %10d%s%n",
+                name, format, level, message.length, frame.length,
+                (double) message.length / frame.length, compressNanos, decompressNanos,
+                sink == 0 ? "?" : "");
+    }
+
+    /** One message of each kind seen during a game, as player 0 receives it */
+    private static Map<String, JsonObject> typicalMessages() {
+        GameSession grid = startedSession(false);
+        GameSession packed = startedSession(true);
+
+        int attacker = grid.getGameState().getCurrentTurnIndex();
+        AttackResult result = grid.processAttack(attacker, WeaponType.CROSS_BOMBER,
+                new Coordinate(5, 5), Direction.HORIZONTAL);
+        int next = grid.getGameState().getCurrentTurnIndex();
+
+        Map<String, JsonObject> messages = new LinkedHashMap<>();
+        messages.put("mode_select", grid.buildModeSelectMessage("Bob"));
+        messages.put("game_start (grid)", grid.buildGameStartMessage(0));
+        messages.put("game_start (packed)", packed.buildGameStartMessage(0));
+        messages.put("your_turn", grid.buildYourTurnMessage(next));
+        messages.put("wait_turn", grid.buildWaitTurnMessage(1 - next));
+        messages.put("attack_result", grid.buildAttackResultMessage(result, attacker));
+        messages.put("incoming_attack", grid.buildIncomingAttackMessage(result, 1 - attacker));
+        messages.put("board_sync", grid.buildBoardSyncMessage(0));
+        messages.put("turn batch", new MessageBatch()
+                .add(attacker, grid.buildAttackResultMessage(result, attacker))
+                .add(1 - attacker, grid.buildIncomingAttackMessage(result, 1 - attacker))
+                .add(next, grid.buildYourTurnMessage(next))
+                .add(1 - next, grid.buildWaitTurnMessage(1 - next))
+                .build(attacker).getPayload());
+        return messages;
+    }
+
+    private static GameSession startedSession(boolean packedBoards) {
+        GameSession session = new GameSession("bench");
+        session.addPlayer("ws-1", "Alice");
+        session.addPlayer("ws-2", "Bob");
+        session.setPackedBoards(0, packedBoards);
+        session.setPackedBoards(1, packedBoards);
+        session.startGame(GameMode.WAR);
+        return session;
+    }
+}
@@ -0,0 +1,74 @@
+package game.common;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.SecretKey;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CryptoContextTest {
+
+	private CryptoContext server;
+	private CryptoContext client;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		SecretKey key = CryptoUtils.generateAESKey();
+		server = new CryptoContext(key, true);
+		client = new CryptoContext(key, false);
+	}
+
+	@Test
+		// Should decrypt on the other side of the connection
+	void testRoundTripBothDirections() throws Exception {
+		for (int i = 0; i < 3; i++) {
+			byte[] data = ("message " + i).getBytes();
+			assertArrayEquals(data, client.decrypt(server.encrypt(data)));
+			assertArrayEquals(data, server.decrypt(client.encrypt(data)));
+		}
+	}
+
+	@Test
+		// Should encrypt only the given slice of a larger buffer
+	void testEncryptBufferSlice() throws Exception {
+		byte[] buffer = "xxhello worldyyyy".getBytes();
+		assertArrayEquals("hello world".getBytes(), client.decrypt(server.encrypt(buffer, 2, 11)));
+	}
+
+	@Test
+		// Same plaintext must not produce the same ciphertext
+	void testNonceChangesPerMessage() throws Exception {
+		byte[] data = "same".getBytes();
+		assertFalse(Arrays.equals(server.encrypt(data), server.encrypt(data)));
+	}
+
+	@Test
+		// Should reject tampered messages
+	void testTamperedMessageRejected() throws Exception {
+		byte[] encrypted = server.encrypt("attack B5".getBytes());
+		encrypted[encrypted.length - 1] ^= 1;
+
+		assertThrows(AEADBadTagException.class, () -> client.decrypt(encrypted));
+	}
+
+	@Test
+		// Should reject a message that was already received
+	void testReplayRejected() throws Exception {
+		byte[] encrypted = client.encrypt("forfeit".getBytes());
+		server.decrypt(encrypted);
+
+		assertThrows(GeneralSecurityException.class, () -> server.decrypt(encrypted));
+	}
+
+	@Test
+		// A message cannot be reflected back to its sender
+	void testReflectionRejected() throws Exception {
+		byte[] encrypted = server.encrypt("hello".getBytes());
+
+		assertThrows(AEADBadTagException.class, () -> server.decrypt(encrypted));
+	}
+}
@@ -4,6 +4,8 @@ import org.junit.jupiter.api.Test;
 
 import javax.crypto.SecretKey;
 import java.security.KeyPair;
+import java.security.PublicKey;
+import java.util.HexFormat;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -60,4 +62,39 @@ class CryptoUtilsTest {
 		assertEquals(key.getAlgorithm(), restoredKey.getAlgorithm());
 		assertArrayEquals(key.getEncoded(), restoredKey.getEncoded());
 	}
-}
\ No newline at end of file
+
+	@Test
+		// Both sides of an X25519 exchange should derive the same session key
+	void testX25519KeyAgreementDerivesSameKey() throws Exception {
+		KeyPair server = CryptoUtils.generateX25519KeyPair();
+		KeyPair client = CryptoUtils.generateX25519KeyPair();
+
+		PublicKey serverPublic = CryptoUtils.stringToX25519PublicKey(
+				CryptoUtils.publicKeyToString(server.getPublic()));
+		byte[] clientSecret = CryptoUtils.x25519Agree(client.getPrivate(), serverPublic);
+		byte[] serverSecret = CryptoUtils.x25519Agree(server.getPrivate(), client.getPublic());
+		assertArrayEquals(clientSecret, serverSecret);
+
+		byte[] clientPub = client.getPublic().getEncoded();
+		byte[] serverPub = server.getPublic().getEncoded();
+		SecretKey clientKey = CryptoUtils.deriveSessionKey(clientSecret, clientPub, serverPub);
+		SecretKey serverKey = CryptoUtils.deriveSessionKey(serverSecret, clientPub, serverPub);
+
+		assertEquals("AES", clientKey.getAlgorithm());
+		assertEquals(32, clientKey.getEncoded().length);
+		assertArrayEquals(clientKey.getEncoded(), serverKey.getEncoded());
+	}
+
+	@Test
+		// Should match RFC 5869 test case 1
+	void testHkdfSha256TestVector() throws Exception {
+		byte[] ikm = HexFormat.of().parseHex("0b0b0b0b0b0b0b0b0b0b0b0b0b0b0b0b0b0b0b0b0b0b");
+		byte[] salt = HexFormat.of().parseHex("000102030405060708090a0b0c");
+		byte[] info = HexFormat.of().parseHex("f0f1f2f3f4f5f6f7f8f9");
+
+		byte[] okm = CryptoUtils.hkdfSha256(ikm, salt, info, 42);
+
+		assertEquals("3cb25f25faacd57a90434f64d0362f2a2d2d0a90cf1a5a4c5db02d56ecc4c5bf"
+				+ "34007208d5b887185865", HexFormat.of().formatHex(okm));
+	}
+}
@@ -0,0 +1,87 @@
+package game.common;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonOutputTest {
+
+    private JsonObject createMessage() {
+        JsonObject payload = new JsonObject();
+        payload.addProperty("type", Constants.MSG_ATTACK_RESULT);
+        payload.addProperty("message", "Welcome, Zoë <& \"friends\"> = 🚢\n");
+        payload.addProperty("hits", 3);
+        payload.addProperty("hitRate", 42.5);
+        payload.addProperty("isYourTurn", false);
+        payload.add("missing", JsonNull.INSTANCE);
+
+        JsonArray cells = new JsonArray();
+        cells.add(17);
+        cells.add(-1);
+        cells.add(JsonNull.INSTANCE);
+        JsonObject board = new JsonObject();
+        board.addProperty("size", 16);
+        board.add("cells", cells);
+        board.add("empty", new JsonArray());
+        payload.add("enemyBoard", board);
+        return payload;
+    }
+
+    @Test
+    void testSameBytesAsToString() {
+        JsonObject payload = createMessage();
+
+        JsonOutput out = JsonOutput.write(payload);
+
+        assertArrayEquals(payload.toString().getBytes(StandardCharsets.UTF_8), out.toByteArray());
+        assertArrayEquals(out.toByteArray(), Arrays.copyOf(out.buffer(), out.length()));
+    }
+
+    @Test
+    void testBufferReusedPerThread() {
+        JsonOutput first = JsonOutput.write(createMessage());
+        byte[] firstBuffer = first.buffer();
+
+        JsonObject small = new JsonObject();
+        small.addProperty("type", Constants.MSG_WAIT_TURN);
+        JsonOutput second = JsonOutput.write(small);
+
+        assertSame(first, second);
+        assertSame(firstBuffer, second.buffer());
+        assertEquals(small.toString(), new String(second.buffer(), 0, second.length(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testSerializedOutputNotReused() {
+        JsonObject payload = createMessage();
+        JsonOutput kept = JsonOutput.serialize(payload, List.of());
+
+        JsonObject small = new JsonObject();
+        small.addProperty("type", Constants.MSG_WAIT_TURN);
+
+        assertNotSame(kept, JsonOutput.write(small));
+        assertArrayEquals(payload.toString().getBytes(StandardCharsets.UTF_8), kept.toByteArray());
+    }
+
+    @Test
+    void testLargeBufferNotRetained() {
+        JsonObject large = new JsonObject();
+        large.addProperty("text", "x".repeat(100_000));
+        JsonOutput out = JsonOutput.write(large);
+        assertEquals(large.toString().length(), out.length());
+
+        JsonObject small = new JsonObject();
+        small.addProperty("type", Constants.MSG_WAIT_TURN);
+        out = JsonOutput.write(small);
+
+        assertTrue(out.buffer().length < 100_000);
+        assertEquals(small.toString(), new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+}
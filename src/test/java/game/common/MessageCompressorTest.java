@@ -0,0 +1,120 @@
+package game.common;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageCompressorTest {
+
+    private byte[] createBoardMessage() {
+        JsonObject payload = new JsonObject();
+        payload.addProperty("type", Constants.MSG_GAME_START);
+        JsonArray grid = new JsonArray();
+        for (int row = 0; row < 16; row++) {
+            JsonArray cells = new JsonArray();
+            for (int col = 0; col < 16; col++) {
+                cells.add(row == 3 && col < 4 ? "SHIP" : "WATER");
+            }
+            grid.add(cells);
+        }
+        payload.add("yourBoard", grid);
+        return payload.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testRoundTrip() {
+        MessageCompressor sender = new MessageCompressor();
+        MessageCompressor receiver = new MessageCompressor();
+        byte[] message = createBoardMessage();
+
+        byte[] frame = sender.compress(message);
+        assertTrue(frame.length < message.length);
+        assertArrayEquals(message, receiver.decompress(frame));
+
+        // The deflater is reused for the next message
+        byte[] second = sender.compress(message);
+        assertArrayEquals(frame, second);
+        assertArrayEquals(message, receiver.decompress(second));
+        assertEquals(2, sender.getCompressedMessageCount());
+    }
+
+    @Test
+    void testRoundTrip_slice() {
+        MessageCompressor compressor = new MessageCompressor();
+        byte[] message = createBoardMessage();
+        byte[] padded = new byte[message.length + 20];
+        System.arraycopy(message, 0, padded, 10, message.length);
+
+        byte[] frame = compressor.compress(padded, 10, message.length);
+        assertArrayEquals(message, compressor.decompress(frame));
+    }
+
+    @Test
+    void testSmallMessage_sentRaw() {
+        MessageCompressor compressor = new MessageCompressor();
+        byte[] message = "{\"type\":\"wait_turn\"}".getBytes(StandardCharsets.UTF_8);
+
+        byte[] frame = compressor.compress(message);
+        assertEquals(message.length + 1, frame.length);
+        assertEquals(0, frame[0]);
+        assertArrayEquals(message, compressor.decompress(frame));
+        assertEquals(0, compressor.getCompressedMessageCount());
+    }
+
+    @Test
+    void testIncompressibleMessage_sentRaw() {
+        MessageCompressor compressor = new MessageCompressor();
+        byte[] message = new byte[2048];
+        new Random(42).nextBytes(message);
+
+        byte[] frame = compressor.compress(message);
+        assertEquals(0, frame[0]);
+        assertArrayEquals(message, compressor.decompress(frame));
+        assertEquals(0, compressor.getCompressedMessageCount());
+    }
+
+    @Test
+    void testCompressionRatio() {
+        MessageCompressor compressor = new MessageCompressor();
+        assertEquals(1.0, compressor.getCompressionRatio());
+
+        byte[] message = createBoardMessage();
+        compressor.compress(message);
+        compressor.compress(message);
+
+        assertEquals(2, compressor.getMessageCount());
+        assertEquals(2L * message.length, compressor.getRawBytes());
+        assertTrue(compressor.getSentBytes() < compressor.getRawBytes());
+        assertTrue(compressor.getCompressionRatio() > 2.0);
+    }
+
+    @Test
+    void testDecompress_malformed() {
+        MessageCompressor compressor = new MessageCompressor();
+        byte[] frame = compressor.compress(createBoardMessage());
+
+        assertThrows(IllegalArgumentException.class, () -> compressor.decompress(new byte[0]));
+        assertThrows(IllegalArgumentException.class, () -> compressor.decompress(new byte[] { 7, 1, 2 }));
+        assertThrows(IllegalArgumentException.class,
+                () -> compressor.decompress(Arrays.copyOf(frame, frame.length / 2)));
+
+        byte[] wrongLength = frame.clone();
+        wrongLength[4]++;
+        assertThrows(IllegalArgumentException.class, () -> compressor.decompress(wrongLength));
+    }
+
+    @Test
+    void testDecompress_tooLarge() {
+        MessageCompressor sender = new MessageCompressor();
+        MessageCompressor receiver = new MessageCompressor(256, 1, 100);
+
+        byte[] frame = sender.compress(createBoardMessage());
+        assertThrows(IllegalArgumentException.class, () -> receiver.decompress(frame));
+    }
+}
@@ -184,4 +184,204 @@ class BoardTest {
         CellState second = board.attack(new Coordinate(5, 5));
         assertEquals(CellState.MISS, second); // returns current state, no change
     }
+
+    @Test
+    void testAttackMask_marksMissesAndHits() {
+        Ship pb = new Ship(ShipType.PATROL_BOAT, "PB-A", List.of(
+                new Coordinate(2, 2),
+                new Coordinate(2, 3)));
+        board.placeShip(pb);
+
+        long[] mask = board.cellMask(List.of(
+                new Coordinate(2, 1),
+                new Coordinate(2, 2),
+                new Coordinate(2, 3)));
+        assertEquals(2, board.attack(mask));
+
+        assertEquals(CellState.MISS, board.getCell(2, 1));
+        assertEquals(CellState.SUNK, board.getCell(2, 2));
+        assertEquals(CellState.SUNK, board.getCell(2, 3));
+        assertTrue(pb.isSunk());
+
+        // Re-attacking the same mask changes nothing
+        assertEquals(0, board.attack(mask));
+    }
+
+    @Test
+    void testSetCell_rejectsShipCells() {
+        board.placeShip(new Ship(ShipType.PATROL_BOAT, "PB-A", List.of(
+                new Coordinate(2, 2),
+                new Coordinate(2, 3))));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> board.setCell(new Coordinate(5, 5), CellState.SHIP));
+        assertThrows(IllegalArgumentException.class,
+                () -> board.setCell(new Coordinate(2, 2), CellState.EMPTY));
+
+        board.setCell(new Coordinate(5, 5), CellState.MISS);
+        assertEquals(CellState.MISS, board.getCell(5, 5));
+    }
+
+    @Test
+    void testCanPlaceShip_mask() {
+        Ship existing = new Ship(ShipType.PATROL_BOAT, "PB-A", List.of(
+                new Coordinate(3, 3),
+                new Coordinate(3, 4)));
+        board.placeShip(existing);
+
+        assertFalse(board.canPlaceShip(board.cellMask(List.of(
+                new Coordinate(4, 5),
+                new Coordinate(4, 6)))));
+        assertTrue(board.canPlaceShip(board.cellMask(List.of(
+                new Coordinate(5, 3),
+                new Coordinate(5, 4)))));
+
+        long[] mask = board.cellMask(List.of());
+        assertFalse(board.canPlaceShip(board.rectangleMask(4, 4, 2, 2, mask)));
+        assertTrue(board.canPlaceShip(board.rectangleMask(5, 5, 2, 2, mask)));
+        // The buffer is reset, so the earlier block does not leak into this one
+        assertArrayEquals(board.cellMask(List.of(new Coordinate(5, 5), new Coordinate(5, 6),
+                new Coordinate(6, 5), new Coordinate(6, 6))), mask);
+    }
+
+    @Test
+    void testCanPlaceShip_attackedWaterDoesNotBlock() {
+        board.attack(new Coordinate(2, 2));
+        board.attack(new Coordinate(2, 3));
+
+        assertTrue(board.canPlaceShip(List.of(new Coordinate(2, 2), new Coordinate(2, 3))));
+        assertTrue(board.canPlaceShip(board.cellMask(List.of(
+                new Coordinate(2, 2),
+                new Coordinate(3, 2)))));
+    }
+
+    @Test
+    void testLargeBoardCellsAreIndependent() {
+        Board large = new Board(16);
+        large.attack(new Coordinate(15, 15));
+        large.attack(new Coordinate(3, 15));
+
+        assertEquals(CellState.MISS, large.getCell(15, 15));
+        assertEquals(CellState.MISS, large.getCell(3, 15));
+        assertEquals(CellState.EMPTY, large.getCell(4, 0));
+        assertEquals(CellState.EMPTY, large.getCell(15, 14));
+    }
+
+    @Test
+    void testGetShipAt() {
+        Ship pb = new Ship(ShipType.PATROL_BOAT, "PB-A", List.of(
+                new Coordinate(0, 0),
+                new Coordinate(0, 1)));
+        Ship sub = new Ship(ShipType.SUBMARINE, "SUB-A", List.of(
+                new Coordinate(4, 4),
+                new Coordinate(5, 4),
+                new Coordinate(6, 4)));
+        board.placeShip(pb);
+        board.placeShip(sub);
+
+        assertSame(pb, board.getShipAt(new Coordinate(0, 1)).orElseThrow());
+        assertSame(sub, board.getShipAt(new Coordinate(5, 4)).orElseThrow());
+        assertSame(sub, board.getShipAt(board.cellIndex(6, 4)));
+        assertTrue(board.getShipAt(new Coordinate(3, 3)).isEmpty());
+        assertTrue(board.getShipAt(new Coordinate(8, 0)).isEmpty());
+        assertNull(board.getShipAt(board.cellIndex(7, 7)));
+    }
+
+    @Test
+    void testFleetCounters() {
+        board.placeShip(new Ship(ShipType.PATROL_BOAT, "PB-A", List.of(
+                new Coordinate(0, 0),
+                new Coordinate(0, 1))));
+        board.placeShip(new Ship(ShipType.SUBMARINE, "SUB-A", List.of(
+                new Coordinate(4, 4),
+                new Coordinate(4, 5),
+                new Coordinate(4, 6))));
+
+        assertEquals(2, board.getAliveShipCount());
+        assertEquals(2, board.aliveShipsWithWeapon(WeaponType.STANDARD_SHOT));
+        assertEquals(0, board.aliveShipsWithWeapon(WeaponType.NUKE));
+
+        board.attack(new Coordinate(0, 0));
+        board.attack(new Coordinate(0, 1));
+        // Re-attacking a sunk ship must not decrement again
+        board.attack(new Coordinate(0, 1));
+
+        assertEquals(1, board.getAliveShipCount());
+        assertEquals(1, board.aliveShipsWithWeapon(WeaponType.STANDARD_SHOT));
+        assertEquals(0, board.aliveShipsOfType(ShipType.PATROL_BOAT));
+        assertEquals(1, board.aliveShipsOfType(ShipType.SUBMARINE));
+    }
+
+    @Test
+    void testRemoveLastShip() {
+        board.placeShip(new Ship(ShipType.PATROL_BOAT, "PB-A", List.of(
+                new Coordinate(0, 0), new Coordinate(0, 1))));
+        Ship sub = new Ship(ShipType.SUBMARINE, "SUB-A", List.of(
+                new Coordinate(2, 0), new Coordinate(2, 1), new Coordinate(2, 2)));
+        board.placeShip(sub);
+
+        assertSame(sub, board.removeLastShip());
+
+        assertEquals(1, board.getShips().size());
+        assertEquals(1, board.getAliveShipCount());
+        assertEquals(0, board.aliveShipsOfType(ShipType.SUBMARINE));
+        assertEquals(CellState.EMPTY, board.getCell(2, 1));
+        assertTrue(board.getShipAt(new Coordinate(2, 1)).isEmpty());
+        // The gap below the sub is free again, the one shared with PB-A is not
+        assertTrue(board.canPlaceShip(List.of(new Coordinate(3, 0), new Coordinate(3, 1))));
+        assertTrue(board.canPlaceShip(List.of(new Coordinate(2, 0), new Coordinate(2, 1))));
+        assertFalse(board.canPlaceShip(List.of(new Coordinate(1, 2), new Coordinate(1, 3))));
+    }
+
+    @Test
+    void testRemoveLastShip_rejected() {
+        assertThrows(IllegalStateException.class, () -> board.removeLastShip());
+
+        board.placeShip(new Ship(ShipType.PATROL_BOAT, "PB-A", List.of(
+                new Coordinate(0, 0), new Coordinate(0, 1))));
+        board.attack(new Coordinate(0, 0));
+        assertThrows(IllegalStateException.class, () -> board.removeLastShip());
+        assertEquals(1, board.getShips().size());
+    }
+
+    @Test
+    void testChangedCellsSince() {
+        board.placeShip(new Ship(ShipType.PATROL_BOAT, "PB-A", List.of(
+                new Coordinate(0, 0), new Coordinate(0, 1))));
+        int afterPlacement = board.getVersion();
+        int[] changed = new int[board.getSize() * board.getSize()];
+        assertEquals(0, board.changedCellsSince(afterPlacement, changed));
+
+        board.attack(new Coordinate(3, 3));
+        board.attack(new Coordinate(0, 0));
+        assertEquals(2, board.changedCellsSince(afterPlacement, changed));
+        assertEquals(0, changed[0]);
+        assertEquals(board.cellIndex(3, 3), changed[1]);
+
+        // Re-attacking a cell does not change the board
+        int version = board.getVersion();
+        board.attack(new Coordinate(3, 3));
+        assertEquals(version, board.getVersion());
+
+        // Sinking re-marks every segment
+        board.attack(new Coordinate(0, 1));
+        assertEquals(2, board.changedCellsSince(version, changed));
+
+        // Bulk misses are tracked too
+        version = board.getVersion();
+        board.attack(board.cellMask(List.of(new Coordinate(5, 5), new Coordinate(5, 6))));
+        assertEquals(2, board.changedCellsSince(version, changed));
+    }
+
+    @Test
+    void testOutOfBoundsCoordinates() {
+        // Column 8 of row 0 must not alias to (1, 0)
+        assertThrows(IndexOutOfBoundsException.class, () -> board.getCell(0, 8));
+        assertThrows(IndexOutOfBoundsException.class, () -> board.getCell(new Coordinate(-1, 0)));
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> board.setCell(new Coordinate(0, 8), CellState.MISS));
+        assertThrows(IndexOutOfBoundsException.class, () -> board.attack(new Coordinate(8, 0)));
+        assertEquals(CellState.EMPTY, board.getCell(1, 0));
+        assertEquals(0, board.getVersion());
+    }
 }
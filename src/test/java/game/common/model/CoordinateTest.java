@@ -87,4 +87,32 @@ class CoordinateTest {
         Coordinate b = new Coordinate(3, 5);
         assertEquals(a.hashCode(), b.hashCode());
     }
+
+    @Test
+    void testOfReturnsSharedInstance() {
+        assertSame(Coordinate.of(3, 5), Coordinate.of(3, 5));
+        assertSame(Coordinate.of(11, 3), Coordinate.fromInput("D12"));
+        assertEquals(new Coordinate(3, 5), Coordinate.of(3, 5));
+        assertSame(Coordinate.of(4, 1).toDisplayString(), Coordinate.of(4, 1).toDisplayString());
+    }
+
+    @Test
+    void testOfOutsideTable() {
+        Coordinate c = Coordinate.of(-1, 20);
+        assertEquals(-1, c.row());
+        assertEquals(20, c.col());
+        assertFalse(c.isWithinBounds(16));
+    }
+
+    @Test
+    void testPackRoundTrip() {
+        for (int r = -1; r <= 16; r++) {
+            for (int c = -1; c <= 16; c++) {
+                int packed = Coordinate.pack(r, c);
+                assertEquals(r, Coordinate.unpackRow(packed));
+                assertEquals(c, Coordinate.unpackCol(packed));
+            }
+        }
+        assertEquals(Coordinate.of(7, 2), Coordinate.fromPacked(Coordinate.of(7, 2).packed()));
+    }
 }
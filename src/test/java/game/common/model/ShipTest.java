@@ -67,4 +67,23 @@ class ShipTest {
         assertTrue(ship.occupies(new Coordinate(3, 4)));
         assertFalse(ship.occupies(new Coordinate(0, 0)));
     }
+
+    @Test
+    void testSegmentTracking() {
+        Ship ship = new Ship(ShipType.DESTROYER, "DS-A", List.of(
+                new Coordinate(3, 3),
+                new Coordinate(3, 4),
+                new Coordinate(3, 5)));
+        assertEquals(3, ship.getSegmentCount());
+        assertEquals(1, ship.segmentIndexOf(3, 4));
+        assertEquals(-1, ship.segmentIndexOf(4, 4));
+
+        assertTrue(ship.hitSegment(2));
+        assertFalse(ship.hitSegment(2));
+        assertFalse(ship.hitSegment(3));
+        assertTrue(ship.isSegmentHit(2));
+        assertFalse(ship.isSegmentHit(0));
+        assertEquals(2, ship.remainingHealth());
+        assertEquals(java.util.Set.of(new Coordinate(3, 5)), ship.getHitCells());
+    }
 }
@@ -0,0 +1,63 @@
+package game.server;
+
+import game.common.MessageCompressor;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressionStatsTest {
+
+	private static final byte[] LARGE = "{\"type\":\"board_update\",\"cells\":\"".repeat(40)
+			.getBytes(StandardCharsets.UTF_8);
+
+	@Test
+		// Open connections are listed with their own counts and summed into the totals
+	void testPerConnectionAndTotals() {
+		CompressionStats stats = new CompressionStats();
+		MessageCompressor alice = new MessageCompressor();
+		MessageCompressor bob = new MessageCompressor();
+		stats.add("ws-1", alice);
+		stats.add("ws-2", bob);
+
+		alice.compress(LARGE);
+		bob.compress(new byte[10]);
+
+		assertEquals(2, stats.getConnectionCount());
+		assertEquals(Map.of("ws-1", (long) LARGE.length, "ws-2", 10L), stats.getRawBytesByConnection());
+		assertEquals(Map.of("ws-1", alice.getSentBytes(), "ws-2", 11L), stats.getSentBytesByConnection());
+		assertEquals(LARGE.length + 10, stats.getRawBytes());
+		assertEquals(alice.getSentBytes() + 11, stats.getSentBytes());
+		assertEquals(2, stats.getMessageCount());
+		assertEquals(1, stats.getCompressedMessageCount());
+		assertTrue(stats.getCompressionRatio() > 1.0);
+		alice.close();
+		bob.close();
+	}
+
+	@Test
+		// A closed connection drops out of the per-connection view but stays in the totals
+	void testClosedConnectionKeptInTotals() {
+		CompressionStats stats = new CompressionStats();
+		assertEquals(1.0, stats.getCompressionRatio());
+
+		MessageCompressor compressor = new MessageCompressor();
+		stats.add("ws-1", compressor);
+		compressor.compress(LARGE);
+		long sent = compressor.getSentBytes();
+		stats.remove("ws-1");
+		compressor.close();
+
+		assertEquals(0, stats.getConnectionCount());
+		assertTrue(stats.getRawBytesByConnection().isEmpty());
+		assertEquals(LARGE.length, stats.getRawBytes());
+		assertEquals(sent, stats.getSentBytes());
+		assertEquals(1, stats.getMessageCount());
+
+		// Removing twice does not count the connection again
+		stats.remove("ws-1");
+		assertEquals(LARGE.length, stats.getRawBytes());
+	}
+}
@@ -0,0 +1,110 @@
+package game.server;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import game.common.Capability;
+import game.common.Constants;
+import game.common.CryptoContext;
+import game.common.CryptoUtils;
+import game.common.MessageCompressor;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionContextTest {
+
+	private static final Set<Capability> ALL = EnumSet.allOf(Capability.class);
+
+	private static ConnectionContext negotiate(JsonObject handshake, Set<Capability> enabled) throws Exception {
+		return ConnectionContext.negotiate("Alice", new CryptoContext(CryptoUtils.generateAESKey(), true),
+				handshake, enabled);
+	}
+
+	private static JsonObject handshake(int version, String... capabilities) {
+		JsonObject handshake = new JsonObject();
+		handshake.addProperty("protocolVersion", version);
+		JsonArray list = new JsonArray();
+		for (String capability : capabilities) {
+			list.add(capability);
+		}
+		handshake.add("capabilities", list);
+		return handshake;
+	}
+
+	@Test
+		// The connection gets the client's capabilities that the server has enabled
+	void testNegotiatesCommonCapabilities() throws Exception {
+		JsonObject handshake = handshake(Constants.PROTOCOL_VERSION, "delta_sync", "compression", "batching");
+		ConnectionContext connection = negotiate(handshake,
+				EnumSet.of(Capability.DELTA_SYNC, Capability.BATCHING, Capability.BINARY_FRAMES));
+
+		assertEquals(Constants.PROTOCOL_VERSION, connection.getProtocolVersion());
+		assertEquals(EnumSet.of(Capability.DELTA_SYNC, Capability.BATCHING), connection.getCapabilities());
+		assertNull(connection.getCompressor());
+		assertEquals("Alice", connection.getUsername());
+
+		JsonObject confirmation = new JsonObject();
+		connection.addTo(confirmation);
+		assertEquals(Constants.PROTOCOL_VERSION, confirmation.get("protocolVersion").getAsInt());
+		assertEquals(EnumSet.of(Capability.DELTA_SYNC, Capability.BATCHING),
+				Capability.fromJson(confirmation.getAsJsonArray("capabilities")));
+		assertFalse(confirmation.has("wireFormat"));
+	}
+
+	@Test
+		// Names from newer clients are ignored, and the version is capped at ours
+	void testNewerClient() throws Exception {
+		JsonObject handshake = handshake(Constants.PROTOCOL_VERSION + 5, "compression", "quantum_sync");
+		ConnectionContext connection = negotiate(handshake, ALL);
+
+		assertEquals(Constants.PROTOCOL_VERSION, connection.getProtocolVersion());
+		assertEquals(EnumSet.of(Capability.COMPRESSION), connection.getCapabilities());
+		assertNotNull(connection.getCompressor());
+		connection.close();
+	}
+
+	@Test
+		// A client without a version predates the session cipher and is refused
+	void testVersionlessClientRejected() {
+		JsonObject plain = new JsonObject();
+		plain.addProperty("username", "Alice");
+		assertThrows(IllegalArgumentException.class, () -> negotiate(plain, ALL));
+	}
+
+	@Test
+		// A version below the oldest supported one is refused
+	void testInvalidVersion() {
+		assertThrows(IllegalArgumentException.class, () -> negotiate(handshake(0), ALL));
+		assertThrows(IllegalArgumentException.class,
+				() -> negotiate(handshake(Constants.MIN_PROTOCOL_VERSION - 1), ALL));
+	}
+
+	@Test
+		// JSON sent before the client read the confirmation arrives without the flag byte
+	void testUncompressedUntilFirstFlaggedMessage() throws Exception {
+		ConnectionContext connection = negotiate(handshake(Constants.PROTOCOL_VERSION, "compression"), ALL);
+		MessageCompressor client = new MessageCompressor();
+		byte[] json = "{\"type\":\"ack\"}".getBytes(StandardCharsets.UTF_8);
+
+		assertArrayEquals(json, connection.decompress(json));
+		assertArrayEquals(json, connection.decompress(client.compress(json)));
+		// Once the client compresses, unflagged messages are malformed
+		assertThrows(IllegalArgumentException.class, () -> connection.decompress(json));
+
+		client.close();
+		connection.close();
+	}
+
+	@Test
+		// The server's disabled list is parsed by wire name
+	void testParseCapabilityList() {
+		assertEquals(EnumSet.of(Capability.COMPRESSION, Capability.BATCHING),
+				Capability.parseList("compression, batching"));
+		assertTrue(Capability.parseList("").isEmpty());
+		assertThrows(IllegalArgumentException.class, () -> Capability.parseList("compression,zstd"));
+	}
+}
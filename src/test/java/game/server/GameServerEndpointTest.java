@@ -0,0 +1,289 @@
+package game.server;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import game.common.Box;
+import game.common.BoxCodec;
+import game.common.Constants;
+import game.common.CryptoContext;
+import game.common.CryptoUtils;
+import game.common.MessageCompressor;
+import jakarta.websocket.ClientEndpointConfig;
+import jakarta.websocket.ContainerProvider;
+import jakarta.websocket.Endpoint;
+import jakarta.websocket.EndpointConfig;
+import jakarta.websocket.MessageHandler;
+import jakarta.websocket.Session;
+import org.glassfish.tyrus.server.Server;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.crypto.SecretKey;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.PublicKey;
+import java.util.Base64;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameServerEndpointTest {
+
+	@TempDir
+	static Path keyDir;
+
+	private static Server server;
+	private static int port;
+
+	@BeforeAll
+	static void startServer() throws Exception {
+		// Must be set before the endpoint class loads its key store
+		System.setProperty("battlegrid.keyFile", keyDir.resolve("test.keys").toString());
+		try (ServerSocket socket = new ServerSocket(0)) {
+			port = socket.getLocalPort();
+		}
+		server = new Server("localhost", port, "/websockets", null, GameServerEndpoint.class);
+		server.start();
+		GameServerEndpoint.loadServerKeys().get(30, TimeUnit.SECONDS);
+	}
+
+	@AfterAll
+	static void stopServer() {
+		server.stop();
+	}
+
+	private static Session connect(BlockingQueue<String> received) throws Exception {
+		Endpoint endpoint = new Endpoint() {
+			@Override
+			public void onOpen(Session session, EndpointConfig config) {
+				session.addMessageHandler(String.class, (MessageHandler.Whole<String>) received::add);
+			}
+		};
+		return ContainerProvider.getWebSocketContainer().connectToServer(endpoint,
+				ClientEndpointConfig.Builder.create().build(),
+				URI.create("ws://localhost:" + port + Constants.WEBSOCKET_PATH));
+	}
+
+	private static String next(BlockingQueue<String> received) throws InterruptedException {
+		String message = received.poll(10, TimeUnit.SECONDS);
+		assertNotNull(message, "Timed out waiting for the server");
+		return message;
+	}
+
+	private static JsonObject nextPlain(BlockingQueue<String> received) throws Exception {
+		return new BoxCodec().decode(next(received)).getPayload();
+	}
+
+	private static void sendPlain(Session session, JsonObject payload) throws Exception {
+		session.getBasicRemote().sendText(new BoxCodec().encode(new Box(payload)));
+	}
+
+	@Test
+		// A rejected ticket must leave the session free for the key exchange the
+		// client sends straight away
+	void testInvalidTicketFallsBackToKeyExchange() throws Exception {
+		BlockingQueue<String> received = new LinkedBlockingQueue<>();
+		Session session = connect(received);
+		try {
+			JsonObject hello = nextPlain(received);
+			assertEquals(Constants.MSG_HANDSHAKE_RSA_KEY, hello.get("type").getAsString());
+
+			// Prepared up front so it goes out as soon as the rejection arrives
+			KeyPair ephemeral = CryptoUtils.generateX25519KeyPair();
+			PublicKey serverKey = CryptoUtils.stringToX25519PublicKey(hello.get("ecdhPublicKey").getAsString());
+			SecretKey aesKey = CryptoUtils.deriveSessionKey(
+					CryptoUtils.x25519Agree(ephemeral.getPrivate(), serverKey),
+					ephemeral.getPublic().getEncoded(), serverKey.getEncoded());
+			JsonObject keyExchange = new JsonObject();
+			keyExchange.addProperty("username", "Alice");
+			keyExchange.add("keyId", hello.get("keyId"));
+			keyExchange.addProperty("keyExchange", Constants.KEY_EXCHANGE_X25519);
+			keyExchange.addProperty("ecdhPublicKey", CryptoUtils.publicKeyToString(ephemeral.getPublic()));
+			keyExchange.addProperty("protocolVersion", Constants.PROTOCOL_VERSION);
+			keyExchange.add("capabilities", new JsonArray());
+
+			JsonObject resume = new JsonObject();
+			resume.addProperty("ticket", Base64.getEncoder().encodeToString(new byte[64]));
+			resume.addProperty("resumeNonce", Base64.getEncoder().encodeToString(new byte[16]));
+			resume.addProperty("protocolVersion", Constants.PROTOCOL_VERSION);
+			sendPlain(session, resume);
+
+			JsonObject result = nextPlain(received);
+			assertEquals(Constants.MSG_RESUME_RESULT, result.get("type").getAsString());
+			assertFalse(result.get("accepted").getAsBoolean());
+
+			// Answer the rejection immediately, like the client does
+			sendPlain(session, keyExchange);
+
+			CryptoContext crypto = new CryptoContext(aesKey, false);
+			byte[] confirmation = crypto.decrypt(Base64.getDecoder().decode(next(received)));
+			JsonObject payload = JsonParser.parseString(new String(confirmation, StandardCharsets.UTF_8))
+					.getAsJsonObject();
+			assertEquals(Constants.MSG_HANDSHAKE_COMPLETE, payload.get("type").getAsString());
+		} finally {
+			session.close();
+		}
+	}
+
+	@Test
+		// A client that closes right after its key exchange must not leave a
+		// waiting game behind for the next player to be paired with
+	void testCloseDuringHandshakeLeavesNoGame() throws Exception {
+		for (int i = 0; i < 20; i++) {
+			BlockingQueue<String> received = new LinkedBlockingQueue<>();
+			Session session = connect(received);
+			JsonObject hello = nextPlain(received);
+
+			KeyPair ephemeral = CryptoUtils.generateX25519KeyPair();
+			JsonObject keyExchange = new JsonObject();
+			keyExchange.addProperty("username", "Ghost");
+			keyExchange.addProperty("protocolVersion", Constants.PROTOCOL_VERSION);
+			keyExchange.add("keyId", hello.get("keyId"));
+			keyExchange.addProperty("keyExchange", Constants.KEY_EXCHANGE_X25519);
+			keyExchange.addProperty("ecdhPublicKey", CryptoUtils.publicKeyToString(ephemeral.getPublic()));
+			sendPlain(session, keyExchange);
+			session.close();
+		}
+
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (GameServerEndpoint.getLobby().getActiveSessionCount() > 0
+				&& System.currentTimeMillis() < deadline) {
+			Thread.sleep(20);
+		}
+		assertEquals(0, GameServerEndpoint.getLobby().getActiveSessionCount());
+	}
+
+	@Test
+		// A message sent right behind the key exchange reaches the server while the
+		// handshake is still on the pool; it must be handled after it, not dropped
+	void testGameMessageDuringHandshakeIsHandledAfterIt() throws Exception {
+		BlockingQueue<String> received = new LinkedBlockingQueue<>();
+		Session session = connect(received);
+		try {
+			JsonObject hello = nextPlain(received);
+			KeyPair ephemeral = CryptoUtils.generateX25519KeyPair();
+			PublicKey serverKey = CryptoUtils.stringToX25519PublicKey(hello.get("ecdhPublicKey").getAsString());
+			SecretKey aesKey = CryptoUtils.deriveSessionKey(
+					CryptoUtils.x25519Agree(ephemeral.getPrivate(), serverKey),
+					ephemeral.getPublic().getEncoded(), serverKey.getEncoded());
+			JsonObject keyExchange = new JsonObject();
+			keyExchange.addProperty("username", "Dave");
+			keyExchange.add("keyId", hello.get("keyId"));
+			keyExchange.addProperty("keyExchange", Constants.KEY_EXCHANGE_X25519);
+			keyExchange.addProperty("ecdhPublicKey", CryptoUtils.publicKeyToString(ephemeral.getPublic()));
+			keyExchange.addProperty("protocolVersion", Constants.PROTOCOL_VERSION);
+			keyExchange.add("capabilities", new JsonArray());
+
+			CryptoContext crypto = new CryptoContext(aesKey, false);
+			JsonObject ping = new JsonObject();
+			ping.addProperty("type", "ping");
+			byte[] json = ping.toString().getBytes(StandardCharsets.UTF_8);
+			sendPlain(session, keyExchange);
+			session.getBasicRemote().sendText(Base64.getEncoder().encodeToString(crypto.encrypt(json)));
+
+			JsonObject payload = decrypt(crypto, null, next(received));
+			assertEquals(Constants.MSG_HANDSHAKE_COMPLETE, payload.get("type").getAsString());
+			do {
+				payload = decrypt(crypto, null, next(received));
+			} while (!Constants.MSG_ERROR.equals(payload.get("type").getAsString()));
+			// "not in a game session" if it beat the lobby join, else "unknown type"
+			assertNotEquals("Internal server error.", payload.get("message").getAsString());
+			assertTrue(session.isOpen());
+		} finally {
+			session.close();
+		}
+	}
+
+	@Test
+		// The client turns compression on only when it reads the confirmation, so
+		// whatever it sends before then is plain JSON
+	void testMessageBeforeHandshakeCompleteIsUncompressed() throws Exception {
+		BlockingQueue<String> received = new LinkedBlockingQueue<>();
+		Session session = connect(received);
+		MessageCompressor compressor = new MessageCompressor();
+		try {
+			JsonObject hello = nextPlain(received);
+			KeyPair ephemeral = CryptoUtils.generateX25519KeyPair();
+			PublicKey serverKey = CryptoUtils.stringToX25519PublicKey(hello.get("ecdhPublicKey").getAsString());
+			SecretKey aesKey = CryptoUtils.deriveSessionKey(
+					CryptoUtils.x25519Agree(ephemeral.getPrivate(), serverKey),
+					ephemeral.getPublic().getEncoded(), serverKey.getEncoded());
+			JsonObject keyExchange = new JsonObject();
+			keyExchange.addProperty("username", "Carol");
+			keyExchange.add("keyId", hello.get("keyId"));
+			keyExchange.addProperty("keyExchange", Constants.KEY_EXCHANGE_X25519);
+			keyExchange.addProperty("ecdhPublicKey", CryptoUtils.publicKeyToString(ephemeral.getPublic()));
+			keyExchange.addProperty("protocolVersion", Constants.PROTOCOL_VERSION);
+			JsonArray capabilities = new JsonArray();
+			capabilities.add("compression");
+			keyExchange.add("capabilities", capabilities);
+			sendPlain(session, keyExchange);
+
+			// The confirmation has arrived but is not read yet
+			String confirmation = next(received);
+			CryptoContext crypto = new CryptoContext(aesKey, false);
+			JsonObject ping = new JsonObject();
+			ping.addProperty("type", "ping");
+			byte[] json = ping.toString().getBytes(StandardCharsets.UTF_8);
+			session.getBasicRemote().sendText(Base64.getEncoder().encodeToString(crypto.encrypt(json)));
+
+			JsonObject payload = decrypt(crypto, null, confirmation);
+			assertEquals(Constants.MSG_HANDSHAKE_COMPLETE, payload.get("type").getAsString());
+			assertEquals(1, payload.getAsJsonArray("capabilities").size());
+
+			// Compressed from here on, in both directions
+			session.getBasicRemote().sendText(Base64.getEncoder().encodeToString(
+					crypto.encrypt(compressor.compress(json))));
+			int errors = 0;
+			while (errors < 2) {
+				payload = decrypt(crypto, compressor, next(received));
+				if (Constants.MSG_ERROR.equals(payload.get("type").getAsString())) {
+					// "not in a game session" if it beat the lobby join, else "unknown type"
+					assertNotEquals("Internal server error.", payload.get("message").getAsString());
+					errors++;
+				}
+			}
+		} finally {
+			compressor.close();
+			session.close();
+		}
+	}
+
+	@Test
+		// A client that sends no protocol version gets a plain error instead of a session
+	void testVersionlessClientRejected() throws Exception {
+		BlockingQueue<String> received = new LinkedBlockingQueue<>();
+		Session session = connect(received);
+		try {
+			nextPlain(received);
+			JsonObject keyExchange = new JsonObject();
+			keyExchange.addProperty("username", "Old");
+			keyExchange.addProperty("encryptedAesKey", Base64.getEncoder().encodeToString(new byte[256]));
+			sendPlain(session, keyExchange);
+
+			JsonObject error = nextPlain(received);
+			assertEquals(Constants.MSG_ERROR, error.get("type").getAsString());
+		} finally {
+			if (session.isOpen()) {
+				session.close();
+			}
+		}
+	}
+
+	private static JsonObject decrypt(CryptoContext crypto, MessageCompressor compressor, String message)
+			throws Exception {
+		byte[] plain = crypto.decrypt(Base64.getDecoder().decode(message));
+		if (compressor != null) {
+			plain = compressor.decompress(plain);
+		}
+		return JsonParser.parseString(new String(plain, StandardCharsets.UTF_8)).getAsJsonObject();
+	}
+}
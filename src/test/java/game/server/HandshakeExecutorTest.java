@@ -0,0 +1,89 @@
+package game.server;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HandshakeExecutorTest {
+
+	@Test
+		// Handshakes beyond the queue capacity should be rejected and counted
+	void testRejectsWhenQueueFull() throws Exception {
+		HandshakeExecutor executor = new HandshakeExecutor(1, 2);
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+
+		executor.submit(() -> {
+			started.countDown();
+			awaitQuietly(release);
+		});
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		executor.submit(() -> { });
+		executor.submit(() -> { });
+
+		assertEquals(2, executor.getQueueDepth());
+		assertEquals(1, executor.getActiveCount());
+		assertThrows(RejectedExecutionException.class, () -> executor.submit(() -> { }));
+		assertEquals(1, executor.getRejectedCount());
+
+		release.countDown();
+		waitForCompleted(executor, 3);
+		assertEquals(0, executor.getQueueDepth());
+	}
+
+	@Test
+		// Latency should include the time spent waiting in the queue
+	void testLatencyMetrics() throws Exception {
+		HandshakeExecutor executor = new HandshakeExecutor(1, 4);
+		assertEquals(0, executor.getAverageLatencyMillis());
+
+		executor.submit(() -> sleepQuietly(20));
+		executor.submit(() -> { });
+		waitForCompleted(executor, 2);
+
+		assertTrue(executor.getMaxLatencyMillis() >= 20);
+		assertTrue(executor.getAverageLatencyMillis() >= 20);
+		assertTrue(executor.getAverageLatencyMillis() <= executor.getMaxLatencyMillis());
+	}
+
+	@Test
+		// A failing handshake should not stop the worker or the metrics
+	void testFailureStillCounted() throws Exception {
+		HandshakeExecutor executor = new HandshakeExecutor(1, 4);
+
+		executor.submit(() -> {
+			throw new IllegalStateException("bad handshake");
+		});
+		executor.submit(() -> { });
+
+		waitForCompleted(executor, 2);
+	}
+
+	private static void waitForCompleted(HandshakeExecutor executor, long count) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (executor.getCompletedCount() < count && System.currentTimeMillis() < deadline) {
+			Thread.sleep(5);
+		}
+		assertEquals(count, executor.getCompletedCount());
+	}
+
+	private static void awaitQuietly(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void sleepQuietly(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,162 @@
+package game.server;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.crypto.SecretKey;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import game.common.CryptoUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResumptionTicketsTest {
+
+	private static final Duration LIFETIME = Duration.ofMinutes(10);
+	private static final Duration ROTATION = Duration.ofHours(1);
+
+	@TempDir
+	Path dir;
+
+	@Test
+		// A fresh ticket should restore the session key and username
+	void testIssueAndRedeem() throws Exception {
+		ResumptionTickets tickets = new ResumptionTickets(LIFETIME, ROTATION);
+		SecretKey key = CryptoUtils.generateAESKey();
+
+		Optional<ResumptionTickets.Resumption> resumed = tickets.redeem(tickets.issue(key, "Alice"));
+
+		assertTrue(resumed.isPresent());
+		assertArrayEquals(key.getEncoded(), resumed.get().sessionKey().getEncoded());
+		assertEquals("Alice", resumed.get().username());
+	}
+
+	@Test
+		// Tickets past their lifetime should be rejected
+	void testExpiredTicketRejected() throws Exception {
+		AtomicLong now = new AtomicLong(1_000_000);
+		ResumptionTickets tickets = new ResumptionTickets(LIFETIME, ROTATION, now::get);
+		String ticket = tickets.issue(CryptoUtils.generateAESKey(), "Bob");
+		String lateTicket = tickets.issue(CryptoUtils.generateAESKey(), "Bob");
+
+		now.addAndGet(LIFETIME.toMillis() - 1);
+		assertTrue(tickets.redeem(ticket).isPresent());
+		now.addAndGet(1);
+		assertTrue(tickets.redeem(lateTicket).isEmpty());
+	}
+
+	@Test
+		// A ticket can only be redeemed once; a replay should be rejected
+	void testTicketIsSingleUse() throws Exception {
+		AtomicLong now = new AtomicLong(1_000_000);
+		ResumptionTickets tickets = new ResumptionTickets(LIFETIME, ROTATION, now::get);
+		String ticket = tickets.issue(CryptoUtils.generateAESKey(), "Bob");
+		String other = tickets.issue(CryptoUtils.generateAESKey(), "Bob");
+
+		assertTrue(tickets.redeem(ticket).isPresent());
+		assertTrue(tickets.redeem(ticket).isEmpty());
+		now.addAndGet(LIFETIME.toMillis() - 1);
+		assertTrue(tickets.redeem(ticket).isEmpty());
+		// Other tickets are unaffected
+		assertTrue(tickets.redeem(other).isPresent());
+	}
+
+	@Test
+		// Tickets sealed with the previous key should stay valid after a rotation
+	void testKeyRotation() throws Exception {
+		AtomicLong now = new AtomicLong(0);
+		long lifetime = LIFETIME.toMillis();
+		ResumptionTickets tickets = new ResumptionTickets(LIFETIME, LIFETIME.multipliedBy(2), now::get);
+
+		now.set(2 * lifetime - 1000);
+		String beforeRotation = tickets.issue(CryptoUtils.generateAESKey(), "Carol");
+		String laterBeforeRotation = tickets.issue(CryptoUtils.generateAESKey(), "Carol");
+		now.set(2 * lifetime);
+		String afterRotation = tickets.issue(CryptoUtils.generateAESKey(), "Carol");
+		String laterAfterRotation = tickets.issue(CryptoUtils.generateAESKey(), "Carol");
+
+		assertTrue(tickets.redeem(beforeRotation).isPresent());
+		assertTrue(tickets.redeem(afterRotation).isPresent());
+
+		now.set(3 * lifetime - 1000);
+		assertTrue(tickets.redeem(laterBeforeRotation).isEmpty());
+		assertTrue(tickets.redeem(laterAfterRotation).isPresent());
+	}
+
+	@Test
+		// Tampered, foreign and garbage tickets should be rejected
+	void testInvalidTicketsRejected() throws Exception {
+		ResumptionTickets tickets = new ResumptionTickets(LIFETIME, ROTATION);
+		String ticket = tickets.issue(CryptoUtils.generateAESKey(), "Dave");
+
+		byte[] tampered = Base64.getDecoder().decode(ticket);
+		tampered[tampered.length - 1] ^= 1;
+		assertTrue(tickets.redeem(Base64.getEncoder().encodeToString(tampered)).isEmpty());
+		assertTrue(new ResumptionTickets(LIFETIME, ROTATION).redeem(ticket).isEmpty());
+		assertTrue(tickets.redeem("not a ticket").isEmpty());
+		assertTrue(tickets.redeem("").isEmpty());
+	}
+
+	@Test
+		// Resumed keys should differ from the stored session key and depend on both nonces
+	void testResumedKeyIsFresh() throws Exception {
+		SecretKey sessionKey = CryptoUtils.generateAESKey();
+		byte[] clientNonce = { 1, 2, 3, 4 };
+		byte[] serverNonce = { 5, 6, 7, 8 };
+
+		SecretKey resumed = CryptoUtils.deriveResumedKey(sessionKey, clientNonce, serverNonce);
+
+		assertFalse(Arrays.equals(sessionKey.getEncoded(), resumed.getEncoded()));
+		assertArrayEquals(resumed.getEncoded(),
+				CryptoUtils.deriveResumedKey(sessionKey, clientNonce, serverNonce).getEncoded());
+		assertFalse(Arrays.equals(resumed.getEncoded(),
+				CryptoUtils.deriveResumedKey(sessionKey, clientNonce, clientNonce).getEncoded()));
+	}
+
+	@Test
+		// The rotation interval may not be shorter than the ticket lifetime
+	void testRotationShorterThanLifetimeRejected() {
+		assertThrows(IllegalArgumentException.class,
+				() -> new ResumptionTickets(Duration.ofMinutes(10), Duration.ofMinutes(5)));
+	}
+
+	@Test
+		// Tickets and the rotation schedule should survive a server restart
+	void testKeysSurviveRestart() throws Exception {
+		Path file = dir.resolve("server.keys");
+		AtomicLong now = new AtomicLong(0);
+		long lifetime = LIFETIME.toMillis();
+		Duration rotation = LIFETIME.multipliedBy(2);
+		ServerKeyStore store = new ServerKeyStore(file, Duration.ofDays(30));
+		store.current().get(30, TimeUnit.SECONDS);
+		ResumptionTickets tickets = new ResumptionTickets(LIFETIME, rotation, store, now::get);
+
+		now.set(2 * lifetime - 1000);
+		String beforeRotation = tickets.issue(CryptoUtils.generateAESKey(), "Dave");
+		now.set(2 * lifetime);
+		String afterRotation = tickets.issue(CryptoUtils.generateAESKey(), "Dave");
+
+		// Restart: a new store and ticket issuer read the same key file
+		ServerKeyStore reopened = new ServerKeyStore(file, Duration.ofDays(30));
+		assertEquals(store.current().join().id(), reopened.current().join().id());
+		ResumptionTickets restarted = new ResumptionTickets(LIFETIME, rotation, reopened, now::get);
+
+		assertEquals("Dave", restarted.redeem(beforeRotation).orElseThrow().username());
+		assertTrue(restarted.redeem(afterRotation).isPresent());
+		// New tickets carry on with the rotated key id
+		assertEquals(1, Base64.getDecoder().decode(restarted.issue(CryptoUtils.generateAESKey(), "Dave"))[0]);
+
+		// Down past the next rotation: the key in use before becomes the previous key
+		now.set(4 * lifetime);
+		ResumptionTickets late = new ResumptionTickets(LIFETIME, rotation,
+				new ServerKeyStore(file, Duration.ofDays(30)), now::get);
+		assertEquals(2, Base64.getDecoder().decode(late.issue(CryptoUtils.generateAESKey(), "Dave"))[0]);
+		assertTrue(late.redeem(afterRotation).isEmpty()); // past its lifetime
+	}
+}
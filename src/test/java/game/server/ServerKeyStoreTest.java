@@ -0,0 +1,64 @@
+package game.server;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServerKeyStoreTest {
+
+	private static final Duration MAX_AGE = Duration.ofDays(30);
+
+	@TempDir
+	Path dir;
+
+	@Test
+		// Keys generated on first start should be loaded unchanged on the next start
+	void testGeneratedKeysArePersisted() throws Exception {
+		Path file = dir.resolve("server.keys");
+		ServerKeyStore.KeySet generated = new ServerKeyStore(file, MAX_AGE).current().get(30, TimeUnit.SECONDS);
+		assertTrue(Files.exists(file));
+
+		ServerKeyStore reopened = new ServerKeyStore(file, MAX_AGE);
+		assertTrue(reopened.current().isDone(), "Existing key file should load without keygen");
+		ServerKeyStore.KeySet loaded = reopened.current().join();
+
+		assertEquals(generated.id(), loaded.id());
+		assertArrayEquals(generated.rsa().getPrivate().getEncoded(), loaded.rsa().getPrivate().getEncoded());
+		assertArrayEquals(generated.x25519().getPublic().getEncoded(), loaded.x25519().getPublic().getEncoded());
+	}
+
+	@Test
+		// After a rotation the previous key set should still serve handshakes
+	void testRotationKeepsPreviousKeys() throws Exception {
+		ServerKeyStore store = new ServerKeyStore(dir.resolve("server.keys"), MAX_AGE);
+		ServerKeyStore.KeySet first = store.current().get(30, TimeUnit.SECONDS);
+
+		ServerKeyStore.KeySet second = store.rotate().get(30, TimeUnit.SECONDS);
+		assertEquals(first.id() + 1, second.id());
+		assertSame(first, store.forId(first.id()));
+		assertSame(second, store.forId(second.id()));
+
+		store.rotate().get(30, TimeUnit.SECONDS);
+		assertThrows(IllegalStateException.class, () -> store.forId(first.id()));
+		assertEquals(second.id() + 1, new ServerKeyStore(dir.resolve("server.keys"), MAX_AGE).current().join().id());
+	}
+
+	@Test
+		// An unreadable key file should be replaced with new keys
+	void testCorruptFileRegenerates() throws Exception {
+		Path file = dir.resolve("server.keys");
+		Files.writeString(file, "id=7\nrsa.public=garbage\n");
+
+		ServerKeyStore.KeySet keys = new ServerKeyStore(file, MAX_AGE).current().get(30, TimeUnit.SECONDS);
+
+		assertEquals(1, keys.id());
+		assertNotNull(keys.rsa());
+		assertTrue(Files.readString(file).contains("rsa.private="));
+	}
+}
@@ -135,4 +135,29 @@ class AttackResolverTest {
 
         assertTrue(result.isGameOver());
     }
+
+    @Test
+    void testNuke_tileOrderAndCounts() {
+        // Nuke at (2,2) covers the whole patrol boat plus 7 water tiles
+        AttackResult result = resolver.resolve(
+                board, WeaponType.NUKE, new Coordinate(2, 2), Direction.HORIZONTAL);
+
+        assertEquals(9, result.getTileCount());
+        assertEquals(2, result.hitCount());
+        assertEquals(7, result.missCount());
+        assertEquals(new Coordinate(1, 1), result.getTileCoordinate(0));
+        assertEquals(CellState.HIT, result.getTileOutcome(4)); // (2,2)
+        assertEquals(CellState.SUNK, result.getTileOutcome(5)); // (2,3)
+        assertEquals(List.of("PB-A"), result.getSunkShips().stream().map(Ship::getId).toList());
+    }
+
+    @Test
+    void testReattackSunkShip_noNewSink() {
+        resolver.resolve(board, WeaponType.LINE_BARRAGE, new Coordinate(2, 2), Direction.HORIZONTAL);
+        AttackResult again = resolver.resolve(
+                board, WeaponType.STANDARD_SHOT, new Coordinate(2, 3), Direction.HORIZONTAL);
+
+        assertEquals(CellState.SUNK, again.getTileOutcome(0));
+        assertTrue(again.getSunkShips().isEmpty());
+    }
 }
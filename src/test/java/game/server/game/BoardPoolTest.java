@@ -0,0 +1,51 @@
+package game.server.game;
+
+import game.common.model.Board;
+import game.common.model.GameMode;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardPoolTest {
+
+    @Test
+    void testPoolFillsInBackground() throws InterruptedException {
+        BoardPool pool = new BoardPool(2);
+        try {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (pool.available(GameMode.WAR) < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(2, pool.available(GameMode.WAR));
+
+            Board board = pool.take(GameMode.WAR);
+            assertNotNull(board);
+            assertEquals(16, board.getSize());
+            assertEquals(GameMode.WAR.getShipCount(), board.getShips().size());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testDisabledPoolReturnsNull() {
+        BoardPool pool = new BoardPool(0);
+        try {
+            assertNull(pool.take(GameMode.BLITZ));
+            assertEquals(0, pool.available(GameMode.BLITZ));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testSetupFallsBackWithoutPool() {
+        GameState state = new GameState(null);
+        state.addPlayer("Alice");
+        state.addPlayer("Bob");
+        state.setup(GameMode.STRIKE);
+
+        assertEquals(5, state.getPlayer(0).getBoard().getShips().size());
+        assertNotSame(state.getPlayer(0).getBoard(), state.getPlayer(1).getBoard());
+    }
+}
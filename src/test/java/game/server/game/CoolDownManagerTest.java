@@ -4,6 +4,7 @@ import game.common.model.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.EnumSet;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -139,4 +140,29 @@ class CooldownManagerTest {
         assertTrue(available.contains(WeaponType.STANDARD_SHOT));
         assertTrue(available.contains(WeaponType.LINE_BARRAGE));
     }
+
+    @Test
+    void testAvailabilityMaskTracksSinksAndTicks() {
+        int all = cooldownManager.getAvailabilityMask(board);
+        for (WeaponType weapon : WeaponType.values()) {
+            assertTrue(CooldownManager.isAvailable(all, weapon));
+        }
+
+        // Sinking the destroyer between queries must invalidate the cached mask
+        board.attack(new Coordinate(4, 0));
+        board.attack(new Coordinate(4, 1));
+        assertTrue(cooldownManager.isWeaponAvailable(WeaponType.LINE_BARRAGE, board));
+        board.attack(new Coordinate(4, 2));
+        assertFalse(cooldownManager.isWeaponAvailable(WeaponType.LINE_BARRAGE, board));
+
+        cooldownManager.activateCooldown(WeaponType.NUKE);
+        assertEquals(EnumSet.of(WeaponType.STANDARD_SHOT, WeaponType.CROSS_BOMBER),
+                cooldownManager.getAvailableWeaponSet(board));
+
+        for (int i = 0; i < WeaponType.NUKE.getCooldown(); i++) {
+            assertFalse(cooldownManager.isWeaponAvailable(WeaponType.NUKE, board));
+            cooldownManager.tickCooldowns();
+        }
+        assertTrue(cooldownManager.isWeaponAvailable(WeaponType.NUKE, board));
+    }
 }
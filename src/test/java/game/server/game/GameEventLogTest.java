@@ -0,0 +1,64 @@
+package game.server.game;
+
+import game.common.model.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameEventLogTest {
+
+    @Test
+    void testAppendAssignsSequenceNumbers() {
+        GameEventLog log = new GameEventLog(4);
+        assertEquals(0, log.latestSequence());
+        assertTrue(log.recentText(5).isEmpty());
+
+        assertEquals(1, log.append(GameEvent.gameStarted(GameMode.BLITZ)));
+        assertEquals(2, log.append(GameEvent.of(GameEvent.Type.FIRST_TURN, "Alice")));
+        assertEquals(2, log.latestSequence());
+        assertEquals(GameEvent.Type.FIRST_TURN, log.get(2).type());
+    }
+
+    @Test
+    void testRingOverwritesOldest() {
+        GameEventLog log = new GameEventLog(3);
+        for (int i = 1; i <= 5; i++) {
+            log.append(GameEvent.attackOutcome(i));
+        }
+
+        assertEquals(3, log.oldestSequence());
+        assertEquals(List.of("  → 3 hit(s)!", "  → 4 hit(s)!", "  → 5 hit(s)!"),
+                log.recentText(10));
+        assertThrows(IllegalArgumentException.class, () -> log.get(2));
+        assertThrows(IllegalArgumentException.class, () -> log.get(6));
+    }
+
+    @Test
+    void testTextSince() {
+        GameEventLog log = new GameEventLog(10);
+        log.append(GameEvent.attackFired("Alice", WeaponType.NUKE, Coordinate.of(1, 4)));
+        log.append(GameEvent.attackOutcome(0));
+        log.append(GameEvent.shipSunk("Bob", ShipType.DESTROYER, "DS-A"));
+
+        assertEquals(List.of("  → All miss!", "  → Bob's Destroyer (DS-A) SUNK!"),
+                log.textSince(1, 5));
+        assertEquals(List.of("  → Bob's Destroyer (DS-A) SUNK!"), log.textSince(0, 1));
+        assertTrue(log.textSince(3, 5).isEmpty());
+    }
+
+    @Test
+    void testTextIsRenderedOnce() {
+        GameEventLog log = new GameEventLog(2);
+        long seq = log.append(GameEvent.of(GameEvent.Type.WIN, "Alice"));
+
+        assertEquals("Alice wins the game!", log.text(seq));
+        assertSame(log.text(seq), log.text(seq));
+    }
+
+    @Test
+    void testInvalidCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new GameEventLog(0));
+    }
+}
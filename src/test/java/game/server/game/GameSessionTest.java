@@ -1,11 +1,18 @@
 package game.server.game;
 
 import com.google.gson.JsonObject;
+import game.common.BoardCodec;
+import game.common.Box;
+import game.common.BoxCodec;
 import game.common.Constants;
+import game.common.SharedFragment;
 import game.common.model.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class GameSessionTest {
@@ -117,6 +124,29 @@ class GameSessionTest {
         assertTrue(msg.has("messages"));
     }
 
+    @Test
+    void testMessagesAreOnlySentOnce() {
+        session.addPlayer("ws-1", "Alice");
+        session.addPlayer("ws-2", "Bob");
+        session.startGame(GameMode.BLITZ);
+
+        JsonObject first = session.buildYourTurnMessage(0);
+        assertEquals(2, first.getAsJsonArray("messages").size());
+        assertEquals(2, first.get("messageSeq").getAsLong());
+
+        // Not sent (e.g. the send failed), so the events go out again
+        assertEquals(2, session.buildYourTurnMessage(0).getAsJsonArray("messages").size());
+
+        // Nothing new happened since the send, so the next message carries no events
+        session.messageSent(0, first);
+        JsonObject second = session.buildYourTurnMessage(0);
+        assertEquals(0, second.getAsJsonArray("messages").size());
+        assertEquals(2, second.get("messageSeq").getAsLong());
+
+        // The other player still gets the events it has not seen
+        assertEquals(2, session.buildWaitTurnMessage(1).getAsJsonArray("messages").size());
+    }
+
     @Test
     void testBuildWaitTurnMessage() {
         session.addPlayer("ws-1", "Alice");
@@ -213,6 +243,84 @@ class GameSessionTest {
         }
     }
 
+    @Test
+    void testBoardUpdatesAreSnapshotsWithoutDeltas() {
+        session.addPlayer("ws-1", "Alice");
+        session.addPlayer("ws-2", "Bob");
+        session.setBoardDeltas(0, false);
+        session.startGame(GameMode.BLITZ);
+        session.buildGameStartMessage(0);
+        session.buildGameStartMessage(1);
+
+        AttackResult result = session.processAttack(
+                0, WeaponType.STANDARD_SHOT, new Coordinate(2, 3), Direction.HORIZONTAL);
+        assertNotNull(result);
+
+        JsonObject enemyBoard = session.buildAttackResultMessage(result, 0).getAsJsonObject("enemyBoard");
+        assertTrue(enemyBoard.has("grid"));
+        assertFalse(enemyBoard.has("baseVersion"));
+
+        // The other player still gets deltas
+        JsonObject ownBoard = session.buildIncomingAttackMessage(result, 1).getAsJsonObject("yourBoard");
+        assertFalse(ownBoard.has("grid"));
+    }
+
+    @Test
+    void testBoardUpdatesAreDeltasAfterGameStart() {
+        session.addPlayer("ws-1", "Alice");
+        session.addPlayer("ws-2", "Bob");
+        session.startGame(GameMode.BLITZ);
+        JsonObject start = session.buildGameStartMessage(0);
+        session.buildGameStartMessage(1);
+        int enemyVersion = start.get("enemyBoardVersion").getAsInt();
+
+        AttackResult result = session.processAttack(
+                0, WeaponType.STANDARD_SHOT, new Coordinate(2, 3), Direction.HORIZONTAL);
+        assertNotNull(result);
+
+        JsonObject enemyBoard = session.buildAttackResultMessage(result, 0).getAsJsonObject("enemyBoard");
+        assertFalse(enemyBoard.has("grid"));
+        assertEquals(enemyVersion, enemyBoard.get("baseVersion").getAsInt());
+        assertEquals(1, enemyBoard.getAsJsonArray("cells").size());
+        assertEquals(2 * 8 + 3, enemyBoard.getAsJsonArray("cells").get(0).getAsInt());
+        assertEquals(result.getTileOutcome(0).name(),
+                enemyBoard.getAsJsonArray("states").get(0).getAsString());
+
+        JsonObject ownBoard = session.buildIncomingAttackMessage(result, 1).getAsJsonObject("yourBoard");
+        assertFalse(ownBoard.has("grid"));
+        assertEquals(1, ownBoard.getAsJsonArray("cells").size());
+
+        // A board_sync resends full snapshots
+        JsonObject sync = session.buildBoardSyncMessage(0);
+        assertEquals(Constants.MSG_BOARD_SYNC, sync.get("type").getAsString());
+        assertTrue(sync.getAsJsonObject("enemyBoard").has("grid"));
+        assertTrue(sync.getAsJsonObject("yourBoard").has("grid"));
+    }
+
+    @Test
+    void testPackedBoardSnapshots() {
+        session.addPlayer("ws-1", "Alice");
+        session.addPlayer("ws-2", "Bob");
+        session.setPackedBoards(0, true);
+        session.startGame(GameMode.BLITZ);
+
+        JsonObject packed = session.buildGameStartMessage(0).getAsJsonObject("yourBoard");
+        assertTrue(packed.has("packed"));
+        assertFalse(packed.has("grid"));
+        JsonObject grid = session.buildGameStartMessage(1).getAsJsonObject("yourBoard");
+        assertTrue(grid.has("grid"));
+
+        // Same cells as the grid form
+        JsonObject expanded = BoardCodec.toGridBoard(packed);
+        Board board = session.getGameState().getPlayer(0).getBoard();
+        for (int r = 0; r < board.getSize(); r++) {
+            for (int c = 0; c < board.getSize(); c++) {
+                assertEquals(board.getCell(r, c).name(), expanded.getAsJsonArray("grid")
+                        .get(r).getAsJsonArray().get(c).getAsString());
+            }
+        }
+    }
+
     @Test
     void testPlayAgainVoting_bothYes() {
         GameSession session = createFullSession();
@@ -259,6 +367,74 @@ class GameSessionTest {
         assertEquals(Constants.MSG_PLAY_AGAIN_PROMPT, msg.get("type").getAsString());
     }
 
+    @Test
+    void testBroadcastEncodesOnce() {
+        GameSession session = createFullSession();
+        OutboundMessage[] sent = new OutboundMessage[2];
+        session.setMessageSink((playerIndex, message) -> sent[playerIndex] = message);
+
+        JsonObject prompt = session.buildPlayAgainPromptMessage();
+        session.broadcast(prompt);
+
+        assertNotNull(sent[0]);
+        assertSame(sent[0], sent[1]);
+        assertSame(prompt, sent[0].getPayload());
+        assertSame(sent[0].json(), sent[1].json());
+        assertSame(sent[0].binary(), sent[1].binary());
+        assertEquals(prompt.toString(), new String(sent[0].json().toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testBroadcastWithoutSink() {
+        GameSession session = createFullSession();
+        assertThrows(IllegalStateException.class,
+                () -> session.broadcast(session.buildPlayAgainPromptMessage()));
+    }
+
+    @Test
+    void testAttackMessagesShareFragments() {
+        GameSession session = createFullSession();
+        session.startGame(GameMode.BLITZ);
+        AttackResult result = session.processAttack(
+                0, WeaponType.STANDARD_SHOT, new Coordinate(0, 0), Direction.HORIZONTAL);
+
+        JsonObject attack = session.buildAttackResultMessage(result, 0);
+        JsonObject incoming = session.buildIncomingAttackMessage(result, 1);
+
+        assertSame(attack.get("tileResults"), incoming.get("tileResults"));
+        assertSame(attack.get("sunkShips"), incoming.get("sunkShips"));
+        assertEquals("A1", attack.getAsJsonArray("tileResults").get(0).getAsJsonObject()
+                .get("coordinate").getAsString());
+    }
+
+    @Test
+    void testSharedFragmentsSplicedIntoEncodings() {
+        GameSession session = createFullSession();
+        session.startGame(GameMode.BLITZ);
+        AttackResult result = session.processAttack(
+                0, WeaponType.STANDARD_SHOT, new Coordinate(1, 1), Direction.HORIZONTAL);
+
+        JsonObject attack = session.buildAttackResultMessage(result, 0);
+        List<SharedFragment> fragments = session.getSharedFragments();
+        assertTrue(fragments.stream().anyMatch(f -> f.value() == attack.get("tileResults")));
+        assertTrue(fragments.stream().anyMatch(f -> f.value() == attack.get("sunkShips")));
+
+        OutboundMessage message = new OutboundMessage(attack, fragments);
+        assertEquals(attack.toString(), new String(message.json().toByteArray(), StandardCharsets.UTF_8));
+        assertArrayEquals(BoxCodec.encodeBinary(new Box(attack)), message.binary());
+    }
+
+    @Test
+    void testModeListShared() {
+        GameSession session = createFullSession();
+        JsonObject forAlice = session.buildModeSelectMessage("Bob");
+        JsonObject forBob = session.buildModeSelectMessage("Alice");
+
+        assertSame(forAlice.get("modes"), forBob.get("modes"));
+        assertEquals(GameMode.values().length, forAlice.getAsJsonArray("modes").size());
+        assertEquals("Bob", forAlice.get("opponentName").getAsString());
+    }
+
     @Test
     void testTurnTimeout() throws InterruptedException {
         GameSession session = createFullSession();
@@ -193,4 +193,24 @@ class GameStateTest {
         assertEquals(1, alice.getShotsFired());
         assertEquals(1, alice.getTurnsTaken());
     }
+
+    @Test
+    void testSetup_seededIsReproducible() {
+        GameState first = new GameState(42L);
+        GameState second = new GameState(42L);
+        for (GameState state : List.of(first, second)) {
+            state.addPlayer("Alice");
+            state.addPlayer("Bob");
+            state.setup(GameMode.WAR);
+        }
+
+        for (int p = 0; p < 2; p++) {
+            List<Ship> a = first.getPlayer(p).getBoard().getShips();
+            List<Ship> b = second.getPlayer(p).getBoard().getShips();
+            assertEquals(a.size(), b.size());
+            for (int i = 0; i < a.size(); i++) {
+                assertEquals(a.get(i).getOccupiedCells(), b.get(i).getOccupiedCells());
+            }
+        }
+    }
 }
@@ -0,0 +1,140 @@
+package game.server.game;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import game.common.Box;
+import game.common.BoxCodec;
+import game.common.Constants;
+import game.common.JsonOutput;
+import game.common.SharedFragment;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageBatchTest {
+
+    private JsonObject message(String type) {
+        JsonObject payload = new JsonObject();
+        payload.addProperty("type", type);
+        return payload;
+    }
+
+    @Test
+    void testEmptyAndSingle() {
+        JsonObject yourTurn = message(Constants.MSG_YOUR_TURN);
+        MessageBatch batch = new MessageBatch().add(1, yourTurn);
+
+        assertNull(batch.build(0));
+        assertSame(yourTurn, batch.build(1).getPayload());
+    }
+
+    @Test
+    void testEnvelopeKeepsOrder() {
+        JsonObject prompt = message(Constants.MSG_PLAY_AGAIN_PROMPT);
+        MessageBatch batch = new MessageBatch()
+                .add(0, message(Constants.MSG_ATTACK_RESULT))
+                .add(1, message(Constants.MSG_INCOMING_ATTACK))
+                .add(0, message(Constants.MSG_GAME_OVER))
+                .addToBoth(prompt);
+
+        JsonObject frame = batch.build(0).getPayload();
+        assertEquals(Constants.MSG_BATCH, frame.get("type").getAsString());
+        JsonArray messages = frame.getAsJsonArray("messages");
+        assertEquals(3, messages.size());
+        assertEquals(Constants.MSG_ATTACK_RESULT, messages.get(0).getAsJsonObject().get("type").getAsString());
+        assertEquals(Constants.MSG_GAME_OVER, messages.get(1).getAsJsonObject().get("type").getAsString());
+        assertSame(prompt, messages.get(2));
+
+        assertEquals(2, batch.build(1).getPayload().getAsJsonArray("messages").size());
+    }
+
+    @Test
+    void testMessagesInOrder() {
+        JsonObject attack = message(Constants.MSG_ATTACK_RESULT);
+        JsonObject wait = message(Constants.MSG_WAIT_TURN);
+        MessageBatch batch = new MessageBatch().add(0, attack).add(0, wait);
+
+        assertEquals(2, batch.messages(0).size());
+        assertSame(attack, batch.messages(0).get(0).getPayload());
+        assertSame(wait, batch.messages(0).get(1).getPayload());
+        assertTrue(batch.messages(1).isEmpty());
+        assertThrows(UnsupportedOperationException.class, () -> batch.messages(0).clear());
+    }
+
+    @Test
+    void testBinaryRoundTrip() {
+        JsonObject wait = message(Constants.MSG_WAIT_TURN);
+        wait.addProperty("message", "Waiting for Bob...");
+        JsonObject frame = new MessageBatch()
+                .add(0, message(Constants.MSG_ATTACK_RESULT))
+                .add(0, wait)
+                .build(0)
+                .getPayload();
+
+        Box decoded = BoxCodec.decodeBinary(BoxCodec.encodeBinary(new Box(frame)));
+
+        assertEquals(frame, decoded.getPayload());
+    }
+
+    @Test
+    void testSharedMessageEncodedOnce() {
+        JsonObject prompt = message(Constants.MSG_PLAY_AGAIN_PROMPT);
+        prompt.addProperty("message", "Play again?");
+        MessageBatch batch = new MessageBatch()
+                .add(0, message(Constants.MSG_ATTACK_RESULT))
+                .add(1, message(Constants.MSG_INCOMING_ATTACK))
+                .addToBoth(prompt);
+
+        OutboundMessage shared = batch.messages(0).get(1);
+        assertSame(shared, batch.messages(1).get(1));
+
+        // Both envelopes reuse the shared part's cached bytes
+        batch.build(0).json();
+        JsonOutput sharedJson = shared.json();
+        batch.build(1).json();
+        assertSame(sharedJson, shared.json());
+    }
+
+    @Test
+    void testJoinedEncodingsMatchEnvelope() {
+        JsonObject wait = message(Constants.MSG_WAIT_TURN);
+        wait.addProperty("message", "Waiting for Zoë \"B7\"...");
+        wait.addProperty("turn", 12);
+        MessageBatch batch = new MessageBatch()
+                .add(0, message(Constants.MSG_ATTACK_RESULT))
+                .addToBoth(wait);
+
+        OutboundMessage frame = batch.build(0);
+        JsonObject envelope = frame.getPayload();
+
+        assertArrayEquals(JsonOutput.write(envelope).toByteArray(), frame.json().toByteArray());
+        assertArrayEquals(BoxCodec.encodeBinary(new Box(envelope)), frame.binary());
+        assertEquals(envelope, BoxCodec.decodeBinary(frame.binary()).getPayload());
+    }
+
+    @Test
+    void testFragmentsSplicedIntoBatch() {
+        JsonArray tiles = new JsonArray();
+        tiles.add("A1");
+        tiles.add("B2");
+        SharedFragment fragment = new SharedFragment(tiles);
+        JsonObject result = message(Constants.MSG_ATTACK_RESULT);
+        result.add("tileResults", fragment.value());
+        result.addProperty("hits", 1);
+        JsonObject incoming = message(Constants.MSG_INCOMING_ATTACK);
+        incoming.add("tileResults", fragment.value());
+        MessageBatch batch = new MessageBatch(List.of(fragment))
+                .add(0, result)
+                .add(1, incoming)
+                .addToBoth(message(Constants.MSG_WAIT_TURN));
+
+        for (int i = 0; i < 2; i++) {
+            OutboundMessage frame = batch.build(i);
+            JsonObject envelope = frame.getPayload();
+            assertArrayEquals(JsonOutput.write(envelope).toByteArray(), frame.json().toByteArray());
+            assertArrayEquals(BoxCodec.encodeBinary(new Box(envelope)), frame.binary());
+        }
+    }
+}
@@ -4,8 +4,13 @@ import game.common.model.Board;
 import game.common.model.CellState;
 import game.common.model.GameMode;
 import game.common.model.Ship;
+import game.common.model.ShipType;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class ShipPlacerTest {
@@ -156,4 +161,61 @@ class ShipPlacerTest {
                     "Failed with seed " + seed);
         }
     }
+
+    @Test
+    void testPlaceShips_everyModeManySeeds() {
+        for (GameMode mode : GameMode.values()) {
+            for (long seed = 0; seed < 500; seed++) {
+                Board board = new ShipPlacer(seed).placeShips(mode);
+                assertEquals(mode.getShipCount(), board.getShips().size(),
+                        mode + " failed with seed " + seed);
+            }
+        }
+    }
+
+    @Test
+    void testPlaceShips_stopsWhenCancelled() {
+        int[] checks = { 0 };
+        // Cancelled after the first ship, so the board is never finished
+        assertThrows(CancellationException.class,
+                () -> new ShipPlacer(42L).placeShips(GameMode.WAR, () -> ++checks[0] > 1));
+        assertEquals(2, checks[0]);
+    }
+
+    @Test
+    void testPlaceShips_backtracksOutOfDeadEnd() {
+        // Only a few layouts fit, so most first choices lead to a dead end
+        List<ShipType> fleet = List.of(ShipType.DESTROYER, ShipType.DESTROYER,
+                ShipType.DESTROYER, ShipType.DESTROYER);
+        for (long seed = 0; seed < 50; seed++) {
+            Board board = new ShipPlacer(seed).placeShips(5, fleet);
+            assertEquals(4, board.getShips().size(), "Failed with seed " + seed);
+        }
+    }
+
+    @Test
+    void testPlaceShips_denseCustomFleet() {
+        // 20 ships on 16x16 — far denser than War mode
+        List<ShipType> fleet = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            fleet.add(ShipType.PATROL_BOAT);
+        }
+        for (int i = 0; i < 6; i++) {
+            fleet.add(ShipType.DESTROYER);
+        }
+        fleet.add(ShipType.BATTLESHIP);
+        fleet.add(ShipType.CARRIER);
+
+        for (long seed = 0; seed < 20; seed++) {
+            Board board = new ShipPlacer(seed).placeShips(16, fleet);
+            assertEquals(fleet.size(), board.getShips().size());
+        }
+    }
+
+    @Test
+    void testPlaceShips_impossibleFleetThrows() {
+        ShipPlacer placer = new ShipPlacer(1L);
+        assertThrows(IllegalStateException.class,
+                () -> placer.placeShips(4, List.of(ShipType.CARRIER, ShipType.CARRIER)));
+    }
 }
@@ -97,4 +97,20 @@ class WeaponPatternsTest {
                 WeaponType.NUKE, new Coordinate(0, 4), Direction.HORIZONTAL, 8);
         assertEquals(6, tiles.size()); // top edge, 2×3
     }
+
+    @Test
+    void testFootprintIsSharedAndOrdered() {
+        int[] first = WeaponPatterns.getFootprint(WeaponType.CROSS_BOMBER, Direction.HORIZONTAL, 8, 4, 4);
+        int[] second = WeaponPatterns.getFootprint(WeaponType.CROSS_BOMBER, Direction.VERTICAL, 8, 4, 4);
+        assertSame(first, WeaponPatterns.getFootprint(WeaponType.CROSS_BOMBER, Direction.HORIZONTAL, 8, 4, 4));
+        // center, up, down, left, right
+        assertArrayEquals(new int[] { 36, 28, 44, 35, 37 }, first);
+        assertArrayEquals(first, second);
+    }
+
+    @Test
+    void testFootprintNonModeGridSize() {
+        int[] tiles = WeaponPatterns.getFootprint(WeaponType.NUKE, Direction.HORIZONTAL, 5, 4, 4);
+        assertArrayEquals(new int[] { 18, 19, 23, 24 }, tiles);
+    }
 }